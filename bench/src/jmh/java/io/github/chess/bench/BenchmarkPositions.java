@@ -0,0 +1,75 @@
+package io.github.chess.bench;
+
+import io.github.chess.entities.Game;
+import io.github.chess.entities.Position;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/** Fixed positions shared by the benchmarks, reached by replaying coordinate moves from the initial position. */
+public final class BenchmarkPositions {
+
+    public static final String START = "start";
+    public static final String MIDDLEGAME = "middlegame";
+    public static final String ENDGAME = "endgame";
+
+    private static final String[] MIDDLEGAME_LINE = {
+        "e2e4", "e7e5", "g1f3", "b8c6", "f1c4", "f8c5", "c2c3", "g8f6", "d2d3", "d7d6",
+        "b1d2", "a7a6", "a2a4", "h7h6", "h2h3", "c8e6", "c4e6", "f7e6", "d1b3", "d8c8"
+    };
+
+    // Ends with white K+N+P against black K+2N+3P, white to move
+    private static final String[] ENDGAME_LINE = {
+        "c2c4", "e7e6", "d1a4", "f8b4", "a4a7", "b4d2", "b1d2", "a8a7", "e1d1", "a7a2",
+        "a1a2", "g8f6", "a2a5", "e8e7", "b2b3", "h8f8", "a5a3", "e7e8", "a3a7", "f6g8",
+        "a7b7", "c8b7", "c1a3", "b7g2", "a3f8", "g2f1", "d2f1", "b8c6", "f8g7", "d8a8",
+        "f2f3", "d7d6", "h2h3", "a8a3", "g7e5", "d6e5", "e2e3", "a3b3", "d1d2", "b3c4",
+        "g1e2", "c4e2", "d2c1", "e2e3", "f1e3", "f7f6", "h1f1", "e5e4", "f3e4", "c6a5",
+        "f1f6", "g8f6", "c1b2", "f6e4"
+    };
+
+    private static final PrintStream DISCARD = new PrintStream(new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+    });
+
+    private BenchmarkPositions() {
+    }
+
+    public static String[] line(String name) {
+        switch (name) {
+            case START:
+                return new String[0];
+            case MIDDLEGAME:
+                return MIDDLEGAME_LINE;
+            case ENDGAME:
+                return ENDGAME_LINE;
+            default:
+                throw new IllegalArgumentException("Unknown benchmark position: " + name);
+        }
+    }
+
+    public static Game create(String name) {
+        Game game = new Game();
+        replay(game, line(name));
+        return game;
+    }
+
+    public static void replay(Game game, String[] line) {
+        for (String move : line) {
+            if (!game.movePiece(toPosition(move, 0), toPosition(move, 2))) {
+                throw new IllegalStateException("Illegal move in benchmark line: " + move);
+            }
+        }
+    }
+
+    public static Position toPosition(String move, int offset) {
+        return Position.of('8' - move.charAt(offset + 1), move.charAt(offset) - 'a');
+    }
+
+    // Game.movePiece logs every move; benchmarks swap this in so the console doesn't end up in the numbers
+    public static PrintStream discardingStream() {
+        return DISCARD;
+    }
+}
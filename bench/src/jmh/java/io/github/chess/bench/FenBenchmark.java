@@ -0,0 +1,73 @@
+package io.github.chess.bench;
+
+import io.github.chess.entities.Fen;
+import io.github.chess.entities.Game;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/** FEN parsing and loading, cycling through a few positions as a batch job reading a file would. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FenBenchmark {
+
+    private static final String[] POSITIONS = {
+        Fen.START_POSITION,
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8"
+    };
+
+    private final Fen fen = new Fen();
+    private final Game game = new Game();
+    private ByteBuffer bytes;
+    private int[] starts;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // All records in one newline separated buffer, like a memory mapped file
+        StringBuilder text = new StringBuilder();
+        starts = new int[POSITIONS.length + 1];
+        for (int i = 0; i < POSITIONS.length; i++) {
+            starts[i] = text.length();
+            text.append(POSITIONS[i]).append('\n');
+        }
+        starts[POSITIONS.length] = text.length();
+        bytes = ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Benchmark
+    public boolean parseString() {
+        next = (next + 1) % POSITIONS.length;
+        return fen.parse(POSITIONS[next]);
+    }
+
+    @Benchmark
+    public boolean parseBytes() {
+        next = (next + 1) % POSITIONS.length;
+        return fen.parse(bytes, starts[next], starts[next + 1] - 1);
+    }
+
+    @Benchmark
+    public long loadFen() {
+        next = (next + 1) % POSITIONS.length;
+        game.loadFen(POSITIONS[next]);
+        return game.getZobristKey();
+    }
+
+    @Benchmark
+    public String toFen() {
+        return game.toFen();
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.chess.bench;
+
+import io.github.chess.entities.Game;
+import io.github.chess.entities.MoveGenerator;
+import io.github.chess.entities.Piece;
+import io.github.chess.enums.PieceColor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/** Read-only rules queries on a fixed position. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class GameBenchmark {
+
+    @Param({BenchmarkPositions.START, BenchmarkPositions.MIDDLEGAME, BenchmarkPositions.ENDGAME})
+    public String position;
+
+    private Game game;
+    private PieceColor sideToMove;
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+    private PrintStream console;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        console = System.out;
+        System.setOut(BenchmarkPositions.discardingStream());
+        game = BenchmarkPositions.create(position);
+        sideToMove = game.isWhiteTurn() ? PieceColor.WHITE : PieceColor.BLACK;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(sideToMove);
+    }
+
+    @Benchmark
+    public boolean isCheckmate() {
+        return game.isCheckmate(sideToMove);
+    }
+
+    @Benchmark
+    public int generateLegalMoves() {
+        return MoveGenerator.generateLegalMoves(game, moves);
+    }
+
+    // Probes every target square for every piece of the side to move, as the UI hints used to
+    @Benchmark
+    public void isValidMove(Blackhole blackhole) {
+        Piece[][] pieces = game.getBoard().getBoard();
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                Piece piece = pieces[row][col];
+                if (piece != null && piece.getColor() == sideToMove) {
+                    for (int square = 0; square < 64; square++) {
+                        blackhole.consume(piece.isValidMove(square, pieces));
+                    }
+                }
+            }
+        }
+    }
+}
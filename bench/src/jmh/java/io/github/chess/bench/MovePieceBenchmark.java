@@ -0,0 +1,61 @@
+package io.github.chess.bench;
+
+import io.github.chess.entities.Game;
+import io.github.chess.entities.Position;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays a whole benchmark line through Game.movePiece from a fresh game. One operation is one replay, so divide
+ * by the line length (20 plies for the middlegame, 54 for the endgame) for the cost of a single move.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MovePieceBenchmark {
+
+    @Param({BenchmarkPositions.MIDDLEGAME, BenchmarkPositions.ENDGAME})
+    public String position;
+
+    private Position[] from;
+    private Position[] to;
+    private PrintStream console;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        console = System.out;
+        System.setOut(BenchmarkPositions.discardingStream());
+        String[] line = BenchmarkPositions.line(position);
+        from = new Position[line.length];
+        to = new Position[line.length];
+        for (int i = 0; i < line.length; i++) {
+            from[i] = BenchmarkPositions.toPosition(line[i], 0);
+            to[i] = BenchmarkPositions.toPosition(line[i], 2);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public Game replay() {
+        Game game = new Game();
+        for (int i = 0; i < from.length; i++) {
+            game.movePiece(from[i], to[i]);
+        }
+        return game;
+    }
+}
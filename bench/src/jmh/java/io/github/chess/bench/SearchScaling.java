@@ -0,0 +1,66 @@
+package io.github.chess.bench;
+
+import io.github.chess.engine.ParallelSearch;
+import io.github.chess.engine.SearchLimits;
+import io.github.chess.engine.SearchResult;
+import io.github.chess.engine.TranspositionTable;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Nodes per second of the parallel search from 1 thread up to N, on the benchmark positions.
+ * Run with ./gradlew bench:searchScaling [-PmaxThreads=N] [-PmoveTime=millis] [-PhashMb=size].
+ */
+public final class SearchScaling {
+
+    private static final String[] POSITIONS = {BenchmarkPositions.START, BenchmarkPositions.MIDDLEGAME,
+        BenchmarkPositions.ENDGAME};
+
+    private SearchScaling() {
+    }
+
+    public static void main(String[] args) {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long moveTime = args.length > 1 ? Long.parseLong(args[1]) : 5000;
+        int hashMb = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+
+        PrintStream console = System.out;
+        System.setOut(BenchmarkPositions.discardingStream());
+
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(maxThreads);
+
+        console.printf("%d ms per position, %d MB hash%n", moveTime, hashMb);
+        console.printf("%8s %12s %10s %8s%n", "threads", "nps", "speedup", "depth");
+        long baseline = 0;
+        TranspositionTable table = new TranspositionTable(hashMb);
+        // Let the JIT compile the search first, or the single thread run looks slower than it is
+        new ParallelSearch(BenchmarkPositions.create(BenchmarkPositions.MIDDLEGAME), table, 1)
+            .search(new SearchLimits().setMoveTimeMillis(moveTime));
+        for (int threads : threadCounts) {
+            long nodes = 0;
+            long time = 0;
+            int depth = 0;
+            for (String position : POSITIONS) {
+                table.clear();
+                ParallelSearch search = new ParallelSearch(BenchmarkPositions.create(position), table, threads);
+                SearchResult result = search.search(new SearchLimits().setMoveTimeMillis(moveTime));
+                nodes += result.getNodes();
+                time += result.getTimeMillis();
+                depth += result.getDepth();
+            }
+            long nps = time == 0 ? 0 : nodes * 1000 / time;
+            if (baseline == 0) {
+                baseline = nps;
+            }
+            console.printf("%8d %12d %10.2f %8.1f%n", threads, nps, baseline == 0 ? 0.0 : (double) nps / baseline,
+                (double) depth / POSITIONS.length);
+        }
+        System.setOut(console);
+    }
+}
@@ -3,25 +3,49 @@ package io.github.chess;
 import com.badlogic.gdx.ApplicationAdapter;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
+import com.badlogic.gdx.InputAdapter;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.TextureLoader;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.ScreenUtils;
 import io.github.chess.entities.*;
 import io.github.chess.enums.PieceColor;
+import io.github.chess.enums.PieceType;
+import io.github.chess.journal.ConsoleSink;
+import io.github.chess.journal.MoveJournal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 public class Chess extends ApplicationAdapter {
 
-    private static Map<String, Texture> pieceTextures;
+    private static final String PIECES_ATLAS = "atlas/pieces.atlas";
+    private static final String BOARD_TEXTURE = "board/chess_board.png";
+    // Moves of the current game, in the working directory, so that a crashed game comes back on the next start
+    private static final String JOURNAL_FILE = "chess.journal";
+
+    private AssetManager assets;
+    private boolean assetsLoaded = false;
+    // Piece art by color and type ordinal, all regions of the same atlas texture
+    private final TextureRegion[][] pieceRegions = new TextureRegion[2][6];
     private Texture boardTexture;
+    // Board, check and selection highlights, drawn once into an offscreen layer and reused until they change
+    private FrameBuffer boardLayer;
+    private TextureRegion boardLayerRegion;
+    private int boardLayerSelection = -1;
+    private int boardLayerCheck = -1;
+    private boolean boardLayerDirty = true;
     private SpriteBatch batch;
     private final int boardSize = 700;
     private Position selectedPosition;
@@ -35,33 +59,88 @@ public class Chess extends ApplicationAdapter {
     private static final int BUTTON_HEIGHT = 50;
     private Position selectedKingPosition;
     private Texture dotTexture;
+    // Everything render() draws text with is created once, so a frame allocates nothing
+    private BitmapFont titleFont;
+    private BitmapFont buttonFont;
+    private final GlyphLayout glyphLayout = new GlyphLayout();
+    private static final String WHITE_WINS_TEXT = "White wins!";
+    private static final String BLACK_WINS_TEXT = "Black wins!";
+    private static final String STALEMATE_TEXT = "Stalemate!";
+    // F3 shows the bytes allocated per frame, which should stay at 0 once the game is running
+    private final FrameAllocationCounter allocationCounter = new FrameAllocationCounter();
+    private boolean showAllocations = false;
+    private final StringBuilder allocationText = new StringBuilder(128);
+    private final boolean continuousRendering;
+    private final boolean printMoves;
+    private MoveJournal journal;
+    private ConsoleSink console;
+
+    public Chess() {
+        this(false, false);
+    }
+
+    // Continuous rendering redraws at the display refresh rate even when nothing changes; only useful for profiling.
+    // Printed moves go to the console from a background thread.
+    public Chess(boolean continuousRendering, boolean printMoves) {
+        this.continuousRendering = continuousRendering;
+        this.printMoves = printMoves;
+    }
 
 
     @Override
     public void create() {
-        game = new Game();
+        if (printMoves) {
+            console = new ConsoleSink(System.out);
+        }
+        openJournal();
         batch = new SpriteBatch();
         Gdx.graphics.setResizable(false);
+        // Nothing moves on screen by itself: frames are requested when a click changes something
+        Gdx.graphics.setContinuousRendering(continuousRendering);
+        Gdx.input.setInputProcessor(new InputAdapter() {
+            @Override
+            public boolean touchDown(int screenX, int screenY, int pointer, int button) {
+                long key = game.getZobristKey();
+                Position selection = selectedPosition;
+                boolean waitingForPromotion = game.isWaitingForPromotionSelection();
+                boolean wasGameOver = gameOver;
+                Game clickedGame = game;
+
+                handleClick(screenX, screenY, button);
+
+                if (game != clickedGame || game.getZobristKey() != key || selectedPosition != selection
+                    || game.isWaitingForPromotionSelection() != waitingForPromotion || gameOver != wasGameOver) {
+                    Gdx.graphics.requestRendering();
+                }
+                return true;
+            }
 
-        boardTexture = new Texture("board/chess_board.png");
-
-        // Load piece textures
-        pieceTextures = new HashMap<>();
-        // Load white pieces
-        pieceTextures.put("WHITE_PAWN", new Texture("pieces/white/white_pawn.png"));
-        pieceTextures.put("WHITE_ROOK", new Texture("pieces/white/white_rook.png"));
-        pieceTextures.put("WHITE_KNIGHT", new Texture("pieces/white/white_knight.png"));
-        pieceTextures.put("WHITE_BISHOP", new Texture("pieces/white/white_bishop.png"));
-        pieceTextures.put("WHITE_QUEEN", new Texture("pieces/white/white_queen.png"));
-        pieceTextures.put("WHITE_KING", new Texture("pieces/white/white_king.png"));
-
-        // Load black pieces
-        pieceTextures.put("BLACK_PAWN", new Texture("pieces/black/black_pawn.png"));
-        pieceTextures.put("BLACK_ROOK", new Texture("pieces/black/black_rook.png"));
-        pieceTextures.put("BLACK_KNIGHT", new Texture("pieces/black/black_knight.png"));
-        pieceTextures.put("BLACK_BISHOP", new Texture("pieces/black/black_bishop.png"));
-        pieceTextures.put("BLACK_QUEEN", new Texture("pieces/black/black_queen.png"));
-        pieceTextures.put("BLACK_KING", new Texture("pieces/black/black_king.png"));
+            @Override
+            public boolean keyDown(int keycode) {
+                // No overlay where the JVM can't count allocations
+                if (keycode == Input.Keys.F3 && allocationCounter.isSupported()) {
+                    showAllocations = !showAllocations;
+                    allocationCounter.reset();
+                    Gdx.graphics.requestRendering();
+                    return true;
+                }
+                return false;
+            }
+        });
+
+        // Art is loaded in the background while render() shows the progress, see renderLoadingScreen()
+        assets = new AssetManager();
+        TextureLoader.TextureParameter boardParameter = new TextureLoader.TextureParameter();
+        boardParameter.minFilter = Texture.TextureFilter.Linear;
+        boardParameter.magFilter = Texture.TextureFilter.Linear;
+        assets.load(BOARD_TEXTURE, Texture.class, boardParameter);
+        assets.load(PIECES_ATLAS, TextureAtlas.class);
+
+        titleFont = new BitmapFont();
+        titleFont.getData().setScale(2);
+        titleFont.setColor(1, 1, 1, 1);
+        buttonFont = new BitmapFont();
+        buttonFont.setColor(1, 1, 1, 1);
 
         Pixmap highlightPixmap = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
         highlightPixmap.setColor(1, 1, 1, 1);
@@ -86,87 +165,74 @@ public class Chess extends ApplicationAdapter {
         return highlightTexture;
     }
 
-    public static Texture getPieceTexture(Piece piece) {
-        String key = piece.getColor().name() + "_" + piece.getClass().getSimpleName().toUpperCase();
-        return pieceTextures.get(key);
+    private TextureRegion getPieceRegion(PieceColor color, PieceType type) {
+        return pieceRegions[color.ordinal()][type.ordinal()];
     }
 
-    private List<Position> getValidMoves(Piece piece, Piece[][] board) {
-        List<Position> validMoves = new ArrayList<>();
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                Position pos = new Position(row, col);
-                if (piece.isValidMove(pos, board) && game.isValidMoveInCheck(piece, pos)) {
-                    validMoves.add(pos);
-                }
+    private void onAssetsLoaded() {
+        boardTexture = assets.get(BOARD_TEXTURE, Texture.class);
+        TextureAtlas atlas = assets.get(PIECES_ATLAS, TextureAtlas.class);
+        for (PieceColor color : PieceColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                String name = color.name().toLowerCase() + "_" + type.name().toLowerCase();
+                pieceRegions[color.ordinal()][type.ordinal()] = atlas.findRegion(name);
             }
         }
-        return validMoves;
+        assetsLoaded = true;
     }
 
     @Override
-    public void render() {
-
-        try {
-            if (!gameOver) {
-                boolean whiteCheckmated = game.isCheckmate(PieceColor.WHITE);
-                boolean blackCheckmated = game.isCheckmate(PieceColor.BLACK);
+    public void resize(int width, int height) {
+        // The layer has to match the window, it is rebuilt at the new size on the next frame
+        if (boardLayer != null) {
+            boardLayer.dispose();
+            boardLayer = null;
+        }
+        if (batch != null) {
+            batch.getProjectionMatrix().setToOrtho2D(0, 0, width, height);
+        }
+    }
 
-                if (whiteCheckmated || blackCheckmated) {
-                    gameOver = true;
-                    winner = whiteCheckmated ? PieceColor.BLACK : PieceColor.WHITE;
-                }
+    @Override
+    public void render() {
+        if (!assetsLoaded) {
+            if (!assets.update()) {
+                renderLoadingScreen();
+                // Frames aren't requested by anything else while loading
+                Gdx.graphics.requestRendering();
+                return;
             }
-        } catch (Exception e) {
-            Gdx.app.error("Chess", "Error in render()", e);
+            onAssetsLoaded();
         }
+        allocationCounter.beginFrame();
 
-        handleInput();
-
-        ScreenUtils.clear(0.5f, 0.5f, 0.5f, 0.5f);
-        batch.begin();
+        // The status is only recomputed after a move, not on every frame
+        GameStatus status = game.getStatus();
+        if (!gameOver && status.isGameOver()) {
+            gameOver = true;
+            winner = status.getWinner();
+        }
 
-        // Draw board
         int boardX = Gdx.graphics.getWidth() / 2 - boardSize / 2;
         int boardY = Gdx.graphics.getHeight() / 2 - boardSize / 2;
-        batch.draw(boardTexture, boardX, boardY, boardSize, boardSize);
         float squareSize = (float) boardSize / 8;
+        updateBoardLayer(status, boardX, boardY, squareSize);
 
-        if (game.isInCheck(PieceColor.WHITE)) {
-            Position whiteKingPos = game.getWhiteKingPosition();
-            float x = boardX + (whiteKingPos.getColumn() * squareSize);
-            float y = boardY + ((7 - whiteKingPos.getRow()) * squareSize);
-            batch.setColor(1, 0, 0, 0.5f);
-            batch.draw(getHighlightTexture(), x, y, squareSize, squareSize);
-            batch.setColor(1, 1, 1, 1);
-        }
+        batch.begin();
 
-        if (game.isInCheck(PieceColor.BLACK)) {
-            Position blackKingPos = game.getBlackKingPosition();
-            float x = boardX + (blackKingPos.getColumn() * squareSize);
-            float y = boardY + ((7 - blackKingPos.getRow()) * squareSize);
-            batch.setColor(1, 0, 0, 0.5f);
-            batch.draw(getHighlightTexture(), x, y, squareSize, squareSize);
-            batch.setColor(1, 1, 1, 1);
-        }
+        // The layer covers the whole window, so there is no need to clear the screen or blend it
+        batch.disableBlending();
+        batch.draw(boardLayerRegion, 0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        batch.enableBlending();
 
-        // Coloring selected square
-        if (selectedPosition != null) {
-            float x = boardX + (selectedPosition.getColumn() * squareSize);
-            float y = boardY + ((7 - selectedPosition.getRow()) * squareSize);
-            batch.setColor(1, 1, 0, 0.5f);
-            batch.draw(getHighlightTexture(), x, y, squareSize, squareSize);
-            batch.setColor(1, 1, 1, 1);
-        }
-
-        // Draw pieces
+        // Draw pieces, all from the one atlas texture
         Piece[][] pieces = game.getBoard().getBoard();
         for (int row = 0; row < 8; row++) {
             for (int col = 0; col < 8; col++) {
                 Piece piece = pieces[row][col];
                 if (piece != null) {
-                    Texture pieceTexture = getPieceTexture(piece);
-                    if (pieceTexture != null) {
+                    TextureRegion pieceRegion = getPieceRegion(piece.getColor(), piece.getType());
+                    if (pieceRegion != null) {
                         float x = boardX + (col * squareSize);
                         float y = boardY + ((7 - row) * squareSize);
 
@@ -174,7 +240,7 @@ public class Chess extends ApplicationAdapter {
                         float offsetX = (squareSize - pieceSize) / 2;
                         float offsetY = (squareSize - pieceSize) / 2;
 
-                        batch.draw(pieceTexture,
+                        batch.draw(pieceRegion,
                             x + offsetX,
                             y + offsetY,
                             pieceSize,
@@ -186,11 +252,12 @@ public class Chess extends ApplicationAdapter {
 
         // Display possible moves
         if (selectedPosition != null) {
-            Piece selectedPiece = game.getBoard().getBoard()[selectedPosition.getRow()][selectedPosition.getColumn()];
-            List<Position> validMoves = getValidMoves(selectedPiece, pieces);
-            for (Position move : validMoves) {
-                float moveX = boardX + (move.getColumn() * squareSize) + (squareSize / 2) - (dotTexture.getWidth() / 2);
-                float moveY = boardY + ((7 - move.getRow()) * squareSize) + (squareSize / 2) - (dotTexture.getHeight() / 2);
+            long targets = status.getTargets(selectedPosition.getSquare());
+            while (targets != 0) {
+                int target = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                float moveX = boardX + (Bitboards.column(target) * squareSize) + (squareSize / 2) - (dotTexture.getWidth() / 2);
+                float moveY = boardY + ((7 - Bitboards.row(target)) * squareSize) + (squareSize / 2) - (dotTexture.getHeight() / 2);
                 batch.draw(dotTexture, moveX, moveY);
             }
         }
@@ -203,37 +270,120 @@ public class Chess extends ApplicationAdapter {
             int startY = Gdx.graphics.getHeight() / 2 - buttonSize / 2;
 
             // Draw promotion options
-            batch.draw(getPieceTexture(new Queen(game.getPromotionColor(), game.getPromotionPosition(), game)), startX, startY, buttonSize, buttonSize);
-            batch.draw(getPieceTexture(new Rook(game.getPromotionColor(), game.getPromotionPosition(), game)), startX + buttonSize + buttonSpacing, startY, buttonSize, buttonSize);
-            batch.draw(getPieceTexture(new Bishop(game.getPromotionColor(), game.getPromotionPosition(), game)), startX, startY - buttonSize - buttonSpacing, buttonSize, buttonSize);
-            batch.draw(getPieceTexture(new Knight(game.getPromotionColor(), game.getPromotionPosition(), game)), startX + buttonSize + buttonSpacing, startY - buttonSize - buttonSpacing, buttonSize, buttonSize);
+            PieceColor color = game.getPromotionColor();
+            batch.draw(getPieceRegion(color, PieceType.QUEEN), startX, startY, buttonSize, buttonSize);
+            batch.draw(getPieceRegion(color, PieceType.ROOK), startX + buttonSize + buttonSpacing, startY, buttonSize, buttonSize);
+            batch.draw(getPieceRegion(color, PieceType.BISHOP), startX, startY - buttonSize - buttonSpacing, buttonSize, buttonSize);
+            batch.draw(getPieceRegion(color, PieceType.KNIGHT), startX + buttonSize + buttonSpacing, startY - buttonSize - buttonSpacing, buttonSize, buttonSize);
         }
 
         if (gameOver) {
             renderGameOverScreen();
         }
 
+        if (showAllocations) {
+            renderAllocations();
+        }
+
+        batch.end();
+        allocationCounter.endFrame();
+    }
+
+    // Redraws the board layer only when the selection or the king in check differs from what it holds
+    private void updateBoardLayer(GameStatus status, int boardX, int boardY, float squareSize) {
+        int selection = selectedPosition == null ? -1 : selectedPosition.getSquare();
+        int check = -1;
+        if (status.isInCheck(PieceColor.WHITE)) {
+            check = game.getWhiteKingPosition().getSquare();
+        } else if (status.isInCheck(PieceColor.BLACK)) {
+            check = game.getBlackKingPosition().getSquare();
+        }
+        if (boardLayer == null) {
+            boardLayer = new FrameBuffer(Pixmap.Format.RGBA8888, Gdx.graphics.getWidth(), Gdx.graphics.getHeight(), false);
+            boardLayerRegion = new TextureRegion(boardLayer.getColorBufferTexture());
+            // Frame buffers are stored bottom up
+            boardLayerRegion.flip(false, true);
+            boardLayerDirty = true;
+        }
+        if (!boardLayerDirty && selection == boardLayerSelection && check == boardLayerCheck) {
+            return;
+        }
+
+        boardLayer.begin();
+        ScreenUtils.clear(0.5f, 0.5f, 0.5f, 1f);
+        batch.begin();
+        batch.draw(boardTexture, boardX, boardY, boardSize, boardSize);
+        if (check >= 0) {
+            float x = boardX + (Bitboards.column(check) * squareSize);
+            float y = boardY + ((7 - Bitboards.row(check)) * squareSize);
+            batch.setColor(1, 0, 0, 0.5f);
+            batch.draw(getHighlightTexture(), x, y, squareSize, squareSize);
+            batch.setColor(1, 1, 1, 1);
+        }
+
+        // Coloring selected square
+        if (selection >= 0) {
+            float x = boardX + (Bitboards.column(selection) * squareSize);
+            float y = boardY + ((7 - Bitboards.row(selection)) * squareSize);
+            batch.setColor(1, 1, 0, 0.5f);
+            batch.draw(getHighlightTexture(), x, y, squareSize, squareSize);
+            batch.setColor(1, 1, 1, 1);
+        }
+        batch.end();
+        boardLayer.end();
+
+        boardLayerSelection = selection;
+        boardLayerCheck = check;
+        boardLayerDirty = false;
+    }
+
+    private void renderLoadingScreen() {
+        int barWidth = boardSize;
+        int barHeight = 20;
+        float barX = Gdx.graphics.getWidth() / 2f - barWidth / 2f;
+        float barY = Gdx.graphics.getHeight() / 2f - barHeight / 2f;
+
+        ScreenUtils.clear(0.5f, 0.5f, 0.5f, 1f);
+        batch.begin();
+        batch.setColor(0.3f, 0.3f, 0.3f, 1);
+        batch.draw(highlightTexture, barX, barY, barWidth, barHeight);
+        batch.setColor(1, 1, 1, 1);
+        batch.draw(highlightTexture, barX, barY, barWidth * assets.getProgress(), barHeight);
         batch.end();
     }
 
     @Override
     public void dispose() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                Gdx.app.error("Chess", "Could not close the move journal", e);
+            }
+        }
+        if (console != null) {
+            console.close();
+        }
         batch.dispose();
-        boardTexture.dispose();
-        for (Texture texture : pieceTextures.values()) {
-            texture.dispose();
+        // Disposes the board texture and the piece atlas
+        assets.dispose();
+        if (boardLayer != null) {
+            boardLayer.dispose();
         }
+        dotTexture.dispose();
         if (highlightTexture != null) {
             highlightTexture.dispose();
         }
         gameOverBackground.dispose();
+        titleFont.dispose();
+        buttonFont.dispose();
     }
 
-    private void handleInput() {
+    private void handleClick(int screenX, int screenY, int button) {
         if (!gameOver) {
-            float mouseX = Gdx.input.getX();
-            float mouseY = Gdx.graphics.getHeight() - Gdx.input.getY();
-            if (Gdx.input.isButtonJustPressed(Input.Buttons.LEFT)) {
+            float mouseX = screenX;
+            float mouseY = Gdx.graphics.getHeight() - screenY;
+            if (button == Input.Buttons.LEFT) {
                 int boardX = Gdx.graphics.getWidth() / 2 - boardSize / 2;
                 int boardY = Gdx.graphics.getHeight() / 2 - boardSize / 2;
                 float squareSize = boardSize / 8f;
@@ -244,7 +394,7 @@ public class Chess extends ApplicationAdapter {
                     int col = (int) ((mouseX - boardX) / squareSize);
                     int row = 7 - (int) ((mouseY - boardY) / squareSize);
 
-                    Position clickedPos = new Position(row, col);
+                    Position clickedPos = Position.of(row, col);
                     Piece[][] board = game.getBoard().getBoard();
 
                     if (!isPieceSelected) {
@@ -267,19 +417,19 @@ public class Chess extends ApplicationAdapter {
                                 boolean isKingSide = col > selectedKingPosition.getColumn();
                                 boolean moveSuccessful = game.castle(clickedPiece.getColor(), isKingSide);
                                 if (!moveSuccessful) {
-                                    System.out.println("Roque invalide!");
+                                    report("Roque invalide!");
                                 }
                             } else {
                                 boolean moveSuccessful = game.movePiece(selectedPosition, clickedPos);
                                 if (!moveSuccessful && !game.isWaitingForPromotionSelection()) {
-                                    System.out.println("Mouvement invalide!");
+                                    report("Mouvement invalide!");
                                 }
                             }
                             selectedKingPosition = null;
                         } else {
                             boolean moveSuccessful = game.movePiece(selectedPosition, clickedPos);
                             if (!moveSuccessful && !game.isWaitingForPromotionSelection()) {
-                                System.out.println("Mouvement invalide!");
+                                report("Mouvement invalide!");
                             }
                         }
                         selectedPosition = null;
@@ -289,20 +439,20 @@ public class Chess extends ApplicationAdapter {
             }
 
             // Right click to unselect
-            if (Gdx.input.isButtonJustPressed(Input.Buttons.RIGHT)) {
+            if (button == Input.Buttons.RIGHT) {
                 selectedPosition = null;
                 selectedKingPosition = null;
                 isPieceSelected = false;
             }
 
             // Handle promotion
-            if (game.isWaitingForPromotionSelection() && Gdx.input.isButtonJustPressed(Input.Buttons.LEFT)) {
+            if (game.isWaitingForPromotionSelection() && button == Input.Buttons.LEFT) {
                 handlePromotionSelection(mouseX, mouseY);
             }
         } else {
-            if (Gdx.input.isButtonJustPressed(Input.Buttons.LEFT)) {
-                float mouseX = Gdx.input.getX();
-                float mouseY = Gdx.graphics.getHeight() - Gdx.input.getY();
+            if (button == Input.Buttons.LEFT) {
+                float mouseX = screenX;
+                float mouseY = Gdx.graphics.getHeight() - screenY;
                 int screenHeight = Gdx.graphics.getHeight();
                 int screenWidth = Gdx.graphics.getWidth();
 
@@ -340,31 +490,35 @@ public class Chess extends ApplicationAdapter {
 
         if (mouseX >= startX && mouseX < startX + buttonSize &&
             mouseY >= startY && mouseY < startY + buttonSize) {
-            promotePawn(game.getPromotionPosition(), game.getPromotionColor(), Queen.class);
+            promotePawn(PieceType.QUEEN);
         } else if (mouseX >= startX + buttonSize + buttonSpacing && mouseX < startX + 2 * buttonSize + buttonSpacing &&
             mouseY >= startY && mouseY < startY + buttonSize) {
-            promotePawn(game.getPromotionPosition(), game.getPromotionColor(), Rook.class);
+            promotePawn(PieceType.ROOK);
         } else if (mouseX >= startX && mouseX < startX + buttonSize &&
             mouseY >= startY - buttonSize - buttonSpacing && mouseY < startY - buttonSpacing) {
-            promotePawn(game.getPromotionPosition(), game.getPromotionColor(), Bishop.class);
+            promotePawn(PieceType.BISHOP);
         } else if (mouseX >= startX + buttonSize + buttonSpacing && mouseX < startX + 2 * buttonSize + buttonSpacing &&
             mouseY >= startY - buttonSize - buttonSpacing && mouseY < startY - buttonSpacing) {
-            promotePawn(game.getPromotionPosition(), game.getPromotionColor(), Knight.class);
+            promotePawn(PieceType.KNIGHT);
         }
     }
 
-    private void promotePawn(Position position, PieceColor color, Class<? extends Piece> pieceClass) {
-        try {
-            Piece promotedPiece = pieceClass.getConstructor(PieceColor.class, Position.class, Game.class)
-                .newInstance(color, position, game);
-            game.getBoard().getBoard()[position.getRow()][position.getColumn()] = promotedPiece;
-            System.out.println("Pawn promoted to " + promotedPiece.getClass().getSimpleName());
-            game.setPromoting(false);
-            game.setWaitingForPromotionSelection(false);
-            game.setWhiteTurn(!game.isWhiteTurn());
-        } catch (Exception e) {
-            e.printStackTrace();
-            System.out.println("An error occurred while promoting the pawn: " + e.getMessage());
+    private void promotePawn(PieceType type) {
+        Position position = game.getPromotionPosition();
+        if (game.promote(type)) {
+            Piece promotedPiece = game.getBoard().getPiece(position.getRow(), position.getColumn());
+            report("Pawn promoted to " + promotedPiece.getClass().getSimpleName());
+        } else {
+            report("An error occurred while promoting the pawn");
+        }
+    }
+
+    // Messages go to the console sink when moves are printed, and to the debug log otherwise
+    private void report(String message) {
+        if (console != null) {
+            console.print(message);
+        } else {
+            Gdx.app.debug("Chess", message);
         }
     }
 
@@ -376,14 +530,11 @@ public class Chess extends ApplicationAdapter {
         batch.draw(gameOverBackground, 0, 0, screenWidth, screenHeight);
         batch.setColor(1, 1, 1, 1);
 
-        String winnerText = (winner == PieceColor.WHITE ? "White" : "Black") + " wins!";
-        BitmapFont font = new BitmapFont();
-        font.getData().setScale(2);
-        GlyphLayout layout = new GlyphLayout(font, winnerText);
-        float textX = (screenWidth - layout.width) / 2;
+        String winnerText = winner == null ? STALEMATE_TEXT : winner == PieceColor.WHITE ? WHITE_WINS_TEXT : BLACK_WINS_TEXT;
+        glyphLayout.setText(titleFont, winnerText);
+        float textX = (screenWidth - glyphLayout.width) / 2;
         float textY = screenHeight / 2 + 100;
-        font.setColor(1, 1, 1, 1);
-        font.draw(batch, winnerText, textX, textY);
+        titleFont.draw(batch, glyphLayout, textX, textY);
 
         drawButton("New Game", screenWidth / 2 - BUTTON_WIDTH / 2,
             screenHeight / 2 - BUTTON_HEIGHT / 2);
@@ -395,16 +546,93 @@ public class Chess extends ApplicationAdapter {
         batch.setColor(0.3f, 0.3f, 0.3f, 1);
         batch.draw(highlightTexture, x, y, BUTTON_WIDTH, BUTTON_HEIGHT);
 
-        BitmapFont font = new BitmapFont();
-        GlyphLayout layout = new GlyphLayout(font, text);
-        float textX = x + (BUTTON_WIDTH - layout.width) / 2;
-        float textY = y + BUTTON_HEIGHT / 2 + layout.height / 2;
-        font.setColor(1, 1, 1, 1);
-        font.draw(batch, text, textX, textY);
+        glyphLayout.setText(buttonFont, text);
+        float textX = x + (BUTTON_WIDTH - glyphLayout.width) / 2;
+        float textY = y + BUTTON_HEIGHT / 2 + glyphLayout.height / 2;
+        buttonFont.draw(batch, glyphLayout, textX, textY);
     }
 
-    private void restartGame() {
+    private void renderAllocations() {
+        allocationText.setLength(0);
+        allocationText.append("alloc/frame: ").append(allocationCounter.getLastFrameBytes())
+            .append(" B, avg ").append(allocationCounter.getAverageFrameBytes())
+            .append(" B, max ").append(allocationCounter.getMaxFrameBytes())
+            .append(" B over ").append(allocationCounter.getFrames()).append(" frames");
+        glyphLayout.setText(buttonFont, allocationText);
+        buttonFont.draw(batch, glyphLayout, 10, Gdx.graphics.getHeight() - 10);
+    }
+
+    // Resumes the game of the journal, or starts a new one. A journal that can't be replayed is moved aside.
+    private void openJournal() {
+        Path path = Gdx.files.local(JOURNAL_FILE).file().toPath();
+        Game resumed = null;
+        try {
+            resumed = MoveJournal.replay(path);
+        } catch (IOException e) {
+            Gdx.app.error("Chess", "Could not replay the move journal: " + e.getMessage());
+            try {
+                Files.move(path, path.resolveSibling(JOURNAL_FILE + ".bad"), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException moveError) {
+                Gdx.app.error("Chess", "Could not move the journal aside", moveError);
+            }
+        }
+        try {
+            journal = new MoveJournal(path);
+        } catch (IOException e) {
+            Gdx.app.error("Chess", "Playing without a move journal", e);
+        }
+        if (resumed != null) {
+            game = resumed;
+            listenToMoves();
+        } else {
+            startGame();
+        }
+    }
+
+    private void startGame() {
+        if (journal != null) {
+            checkJournal();
+        }
         game = new Game();
+        listenToMoves();
+        if (journal != null) {
+            journal.startGame(game);
+        }
+    }
+
+    private void listenToMoves() {
+        if (journal == null) {
+            game.setMoveListener(console);
+            return;
+        }
+        game.setMoveListener((movedGame, move, notation) -> {
+            if (journal != null) {
+                journal.onMove(movedGame, move, notation);
+                checkJournal();
+            }
+            if (console != null) {
+                console.onMove(movedGame, move, notation);
+            }
+        });
+    }
+
+    // A journal that failed to write takes no more moves; it is reported once and the game goes on without it
+    private void checkJournal() {
+        IOException failure = journal.getFailure();
+        if (failure == null) {
+            return;
+        }
+        Gdx.app.error("Chess", "Move journal stopped, playing without it", failure);
+        try {
+            journal.close();
+        } catch (IOException e) {
+            // The same failure, already reported
+        }
+        journal = null;
+    }
+
+    private void restartGame() {
+        startGame();
         gameOver = false;
         winner = null;
         selectedPosition = null;
@@ -0,0 +1,106 @@
+package io.github.chess;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Counts the bytes the render thread allocates between beginFrame() and endFrame(), using the per-thread
+ * allocation counter of HotSpot JVMs. On other runtimes, including those without java.lang.management or
+ * com.sun.management, isSupported() is false and every count stays at 0.
+ */
+public class FrameAllocationCounter {
+
+    private final HotSpotThreads threads;
+    // What reading the counter allocates by itself, taken off every frame
+    private long overhead;
+    private long frameStart;
+    private long lastFrameBytes;
+    private long maxFrameBytes;
+    private long totalBytes;
+    private long frames;
+
+    public FrameAllocationCounter() {
+        threads = HotSpotThreads.create();
+        if (threads != null) {
+            long first = threads.allocatedBytes();
+            long second = threads.allocatedBytes();
+            overhead = second - first;
+        }
+    }
+
+    public boolean isSupported() {
+        return threads != null;
+    }
+
+    public void beginFrame() {
+        if (threads != null) {
+            frameStart = threads.allocatedBytes();
+        }
+    }
+
+    public void endFrame() {
+        if (threads == null) {
+            return;
+        }
+        lastFrameBytes = Math.max(0, threads.allocatedBytes() - frameStart - overhead);
+        maxFrameBytes = Math.max(maxFrameBytes, lastFrameBytes);
+        totalBytes += lastFrameBytes;
+        frames++;
+    }
+
+    public void reset() {
+        lastFrameBytes = 0;
+        maxFrameBytes = 0;
+        totalBytes = 0;
+        frames = 0;
+    }
+
+    public long getLastFrameBytes() {
+        return lastFrameBytes;
+    }
+
+    public long getMaxFrameBytes() {
+        return maxFrameBytes;
+    }
+
+    public long getAverageFrameBytes() {
+        return frames == 0 ? 0 : totalBytes / frames;
+    }
+
+    public long getFrames() {
+        return frames;
+    }
+
+    // The only class that names the management types, so that it is the one that fails to link where they are
+    // missing, and only when create() first runs
+    private static class HotSpotThreads {
+
+        private final com.sun.management.ThreadMXBean bean;
+
+        private HotSpotThreads(com.sun.management.ThreadMXBean bean) {
+            this.bean = bean;
+        }
+
+        // Null when the runtime has no per-thread allocation counter
+        static HotSpotThreads create() {
+            try {
+                ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+                if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+                    return null;
+                }
+                com.sun.management.ThreadMXBean hotSpotBean = (com.sun.management.ThreadMXBean) bean;
+                if (!hotSpotBean.isThreadAllocatedMemorySupported()) {
+                    return null;
+                }
+                hotSpotBean.setThreadAllocatedMemoryEnabled(true);
+                return new HotSpotThreads(hotSpotBean);
+            } catch (LinkageError | RuntimeException e) {
+                return null;
+            }
+        }
+
+        long allocatedBytes() {
+            return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+    }
+}
@@ -4,15 +4,21 @@ import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
 import io.github.chess.Chess;
 
+import java.util.Arrays;
+import java.util.List;
+
 /** Launches the desktop (LWJGL3) application. */
 public class Lwjgl3Launcher {
     public static void main(String[] args) {
         if (StartupHelper.startNewJvmIfRequired()) return; // This handles macOS support and helps on Windows.
-        createApplication();
+        List<String> options = Arrays.asList(args);
+        createApplication(options.contains("--continuous"), options.contains("--print-moves"));
     }
 
-    private static Lwjgl3Application createApplication() {
-        return new Lwjgl3Application(new Chess(), getDefaultConfiguration());
+    // The board is only redrawn when something changes, unless --continuous asks for a frame every refresh.
+    // --print-moves writes the notation of every move to the console.
+    private static Lwjgl3Application createApplication(boolean continuousRendering, boolean printMoves) {
+        return new Lwjgl3Application(new Chess(continuousRendering, printMoves), getDefaultConfiguration());
     }
 
     private static Lwjgl3ApplicationConfiguration getDefaultConfiguration() {
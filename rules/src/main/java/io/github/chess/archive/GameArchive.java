@@ -0,0 +1,185 @@
+package io.github.chess.archive;
+
+import io.github.chess.entities.Fen;
+import io.github.chess.entities.Game;
+import io.github.chess.entities.MoveGenerator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read side of the binary game archive written by GameArchiveWriter. The file is memory-mapped and any game is
+ * reached in O(1) through the offset index at its end.
+ *
+ * Layout, big-endian: a 32 byte header (magic, version, game count, index offset), then one record per game,
+ * then the index with the long offset of every record. A record is the ply count (u16), a flags byte (result,
+ * whether a FEN follows), the FEN as length-prefixed ASCII when the game didn't start from the initial position,
+ * and one byte per move: its index in the MoveGenerator.generateLegalMoves order of the position it is played
+ * from, which fits since no position has 256 legal moves. The codes are only meaningful with that generation
+ * order, so a change to it needs a new VERSION. Records never cross a CHUNK_SIZE boundary, so files over 2 GB are
+ * mapped chunk by chunk.
+ */
+public class GameArchive implements Closeable {
+
+    static final int MAGIC = 0x43474152; // "CGAR"
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 32;
+    static final int CHUNK_SHIFT = 30;
+    static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+
+    public static final int RESULT_UNKNOWN = 0;
+    public static final int RESULT_WHITE_WINS = 1;
+    public static final int RESULT_BLACK_WINS = 2;
+    public static final int RESULT_DRAW = 3;
+
+    static final int FLAG_FEN = 4;
+    static final int RESULT_MASK = 3;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final long gameCount;
+    private final long indexOffset;
+    private final Fen startPosition = new Fen();
+    private final Fen fen = new Fen();
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+    public GameArchive(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        long size = channel.size();
+        chunks = new MappedByteBuffer[(int) ((size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT)];
+        for (int i = 0; i < chunks.length; i++) {
+            long start = (long) i << CHUNK_SHIFT;
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(CHUNK_SIZE, size - start));
+        }
+        if (size < HEADER_SIZE || chunks[0].getInt(0) != MAGIC || chunks[0].getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException("Not a game archive: " + path);
+        }
+        gameCount = chunks[0].getLong(8);
+        indexOffset = chunks[0].getLong(16);
+        if (gameCount < 0 || indexOffset < HEADER_SIZE || indexOffset % 8 != 0
+            || gameCount > (size - indexOffset) / 8) {
+            channel.close();
+            throw new IOException("Damaged game archive index: " + path);
+        }
+        startPosition.parse(Fen.START_POSITION);
+    }
+
+    // Replays every game and prints the games/sec, to compare with rules:importPgn on the same games
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: GameArchive <file>");
+            return;
+        }
+        try (GameArchive archive = new GameArchive(Paths.get(args[0]))) {
+            Game game = new Game();
+            long startTime = System.currentTimeMillis();
+            long moves = 0;
+            long errors = 0;
+            for (long i = 0; i < archive.getGameCount(); i++) {
+                if (archive.readGame(i, game)) {
+                    moves += game.getPlyCount();
+                } else {
+                    errors++;
+                }
+            }
+            long time = System.currentTimeMillis() - startTime;
+            System.out.println("games " + archive.getGameCount() + " moves " + moves + " errors " + errors + " time "
+                + time + " ms games/s " + (time == 0 ? 0 : archive.getGameCount() * 1000 / time));
+        }
+    }
+
+    public long getGameCount() {
+        return gameCount;
+    }
+
+    // The archive code of a PGN game termination marker
+    public static int parseResult(String token) {
+        switch (token) {
+            case "1-0":
+                return RESULT_WHITE_WINS;
+            case "0-1":
+                return RESULT_BLACK_WINS;
+            case "1/2-1/2":
+                return RESULT_DRAW;
+            default:
+                return RESULT_UNKNOWN;
+        }
+    }
+
+    public int getPlyCount(long index) {
+        long offset = recordOffset(index);
+        return chunk(offset).getShort(position(offset)) & 0xFFFF;
+    }
+
+    public int getResult(long index) {
+        long offset = recordOffset(index);
+        return chunk(offset).get(position(offset) + 2) & RESULT_MASK;
+    }
+
+    // Sets the game to the start position of the record and plays its moves, each picked from the legal moves of
+    // the game; false if the index is out of range or the record is damaged
+    public boolean readGame(long index, Game game) {
+        if (index < 0 || index >= gameCount) {
+            return false;
+        }
+        long offset = recordOffset(index);
+        if (offset < HEADER_SIZE || offset + 3 > indexOffset) {
+            return false;
+        }
+        MappedByteBuffer chunk = chunk(offset);
+        int pos = position(offset);
+        // Records never cross a chunk boundary, so the whole record has to fit before the end of this chunk
+        int limit = (int) Math.min(chunk.limit(), pos + (indexOffset - offset));
+        if (pos + 3 > limit) {
+            return false;
+        }
+        int plies = chunk.getShort(pos) & 0xFFFF;
+        int flags = chunk.get(pos + 2);
+        pos += 3;
+        if ((flags & FLAG_FEN) != 0) {
+            int length = pos < limit ? chunk.get(pos) & 0xFF : 0;
+            if (length == 0 || pos + 1 + length > limit || !fen.parse(chunk, pos + 1, pos + 1 + length)) {
+                return false;
+            }
+            game.setPosition(fen);
+            pos += 1 + length;
+        } else {
+            game.setPosition(startPosition);
+        }
+        if (pos + plies > limit) {
+            return false;
+        }
+        for (int ply = 0; ply < plies; ply++, pos++) {
+            int code = chunk.get(pos) & 0xFF;
+            if (code >= MoveGenerator.generateLegalMoves(game, moves)) {
+                return false;
+            }
+            game.makeMove(moves[code]);
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private long recordOffset(long index) {
+        long entry = indexOffset + index * 8;
+        return chunk(entry).getLong(position(entry));
+    }
+
+    private MappedByteBuffer chunk(long offset) {
+        return chunks[(int) (offset >>> CHUNK_SHIFT)];
+    }
+
+    private static int position(long offset) {
+        return (int) (offset & (CHUNK_SIZE - 1));
+    }
+}
@@ -0,0 +1,214 @@
+package io.github.chess.archive;
+
+import io.github.chess.entities.Fen;
+import io.github.chess.entities.Game;
+import io.github.chess.entities.GameStatus;
+import io.github.chess.entities.MoveGenerator;
+import io.github.chess.enums.PieceColor;
+import io.github.chess.pgn.PgnError;
+import io.github.chess.pgn.PgnImportResult;
+import io.github.chess.pgn.PgnImporter;
+import io.github.chess.pgn.PgnListener;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes games to the binary archive read by GameArchive, in the order write() is called. The index and the
+ * header are written by close(), so an archive that wasn't closed can't be opened.
+ */
+public class GameArchiveWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int MAX_PLIES = 0xFFFF;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    // File position of the start of the buffer
+    private long flushed = GameArchive.HEADER_SIZE;
+    private long[] offsets = new long[1024];
+    private int gameCount;
+    private int[] moves = new int[256];
+    private byte[] codes = new byte[256];
+    private final int[] legalMoves = new int[MoveGenerator.MAX_MOVES];
+
+    public GameArchiveWriter(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE);
+    }
+
+    // Converts a PGN file, keeping the order of its games; malformed games are reported and left out
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: GameArchiveWriter <file.pgn> <archive>");
+            return;
+        }
+        Path pgn = Paths.get(args[0]);
+        Path archive = Paths.get(args[1]);
+        PgnImportResult result;
+        try (GameArchiveWriter writer = new GameArchiveWriter(archive)) {
+            // One thread, as the parallel import would shuffle the games
+            PgnImporter importer = new PgnImporter(1);
+            importer.setListener(new PgnListener() {
+                @Override
+                public void onGame(Game game, long offset, String gameResult) {
+                    try {
+                        writer.write(game, GameArchive.parseResult(gameResult));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                @Override
+                public void onError(PgnError error) {
+                    System.out.println(error);
+                }
+            });
+            result = importer.importFile(pgn);
+        }
+        long archiveSize = Files.size(archive);
+        System.out.println(result);
+        System.out.println("PGN " + result.getBytes() + " bytes, archive " + archiveSize + " bytes, "
+            + (archiveSize == 0 ? 0 : result.getBytes() / archiveSize) + "x smaller");
+    }
+
+    // For games with no recorded result; it is read from the final position: decisive on checkmate, drawn on
+    // stalemate, unknown otherwise
+    public boolean write(Game game) throws IOException {
+        GameStatus status = game.getStatus();
+        int result = GameArchive.RESULT_UNKNOWN;
+        if (status.isCheckmate()) {
+            result = status.getWinner() == PieceColor.WHITE ? GameArchive.RESULT_WHITE_WINS
+                : GameArchive.RESULT_BLACK_WINS;
+        } else if (status.isStalemate()) {
+            result = GameArchive.RESULT_DRAW;
+        }
+        return write(game, result);
+    }
+
+    // Stores the moves on the game's undo stack and the position they start from, which is found by unmaking
+    // them; playing them again gives each move's index among the legal moves. The game has to be able to unmake
+    // them, so copies made with Game(Game) can't be written. Returns false for games over 65535 plies or with a
+    // move that isn't legal in its position.
+    public boolean write(Game game, int result) throws IOException {
+        int plies = game.getPlyCount();
+        if (plies > MAX_PLIES) {
+            return false;
+        }
+        if (moves.length < plies) {
+            moves = new int[Math.max(plies, moves.length * 2)];
+            codes = new byte[moves.length];
+        }
+        for (int ply = 0; ply < plies; ply++) {
+            moves[ply] = game.getMove(ply);
+        }
+        for (int ply = plies; ply > 0; ply--) {
+            game.unmakeMove();
+        }
+        String fen = game.toFen();
+        boolean legal = true;
+        for (int ply = 0; ply < plies; ply++) {
+            int index = legalIndex(game, moves[ply]);
+            legal &= index >= 0;
+            codes[ply] = (byte) index;
+            game.makeMove(moves[ply]);
+        }
+        if (!legal) {
+            return false;
+        }
+
+        boolean startPosition = fen.equals(Fen.START_POSITION);
+        int size = 3 + (startPosition ? 0 : 1 + fen.length()) + plies;
+        // Records stay inside one chunk so that the reader can map the file chunk by chunk
+        long offset = flushed + buffer.position();
+        long inChunk = offset & (GameArchive.CHUNK_SIZE - 1);
+        if (inChunk + size > GameArchive.CHUNK_SIZE) {
+            pad(GameArchive.CHUNK_SIZE - inChunk);
+            offset = flushed + buffer.position();
+        }
+        if (buffer.remaining() < size) {
+            flush();
+        }
+
+        buffer.putShort((short) plies);
+        buffer.put((byte) ((result & GameArchive.RESULT_MASK) | (startPosition ? 0 : GameArchive.FLAG_FEN)));
+        if (!startPosition) {
+            buffer.put((byte) fen.length());
+            for (int i = 0; i < fen.length(); i++) {
+                buffer.put((byte) fen.charAt(i));
+            }
+        }
+        buffer.put(codes, 0, plies);
+
+        if (gameCount == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[gameCount++] = offset;
+        return true;
+    }
+
+    // The index of the move in the legal move order of the game, or -1 if it isn't legal there
+    private int legalIndex(Game game, int move) {
+        int count = MoveGenerator.generateLegalMoves(game, legalMoves);
+        for (int i = 0; i < count; i++) {
+            if (legalMoves[i] == move) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int getGameCount() {
+        return gameCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            // The index is 8-byte aligned so that no entry crosses a chunk boundary
+            pad((8 - (flushed + buffer.position()) % 8) % 8);
+            long indexOffset = flushed + buffer.position();
+            for (int i = 0; i < gameCount; i++) {
+                if (buffer.remaining() < 8) {
+                    flush();
+                }
+                buffer.putLong(offsets[i]);
+            }
+            flush();
+
+            ByteBuffer header = ByteBuffer.allocate(GameArchive.HEADER_SIZE);
+            header.putInt(GameArchive.MAGIC).putInt(GameArchive.VERSION).putLong(gameCount).putLong(indexOffset);
+            header.clear();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void pad(long bytes) throws IOException {
+        for (long i = 0; i < bytes; i++) {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put((byte) 0);
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            flushed += channel.write(buffer, flushed);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,146 @@
+package io.github.chess.book;
+
+import io.github.chess.entities.Bitboards;
+import io.github.chess.entities.Game;
+import io.github.chess.entities.Move;
+import io.github.chess.entities.MoveGenerator;
+import io.github.chess.enums.PieceType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * Polyglot opening book (.bin). The file is memory-mapped and its 16 byte entries, sorted by key, are binary
+ * searched in place, so a book of any size costs no heap and a lookup touches about log2(entries) pages.
+ * Not thread-safe: each thread needs its own book.
+ */
+public class PolyglotBook implements Closeable {
+
+    // Entry: key (8 bytes), move (2), weight (2), learn (4), big-endian
+    private static final int ENTRY_SIZE = 16;
+    // Chunks are a multiple of the entry size, so no entry is split between two mappings
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final long entryCount;
+    private final PolyglotKeys keys;
+    private final int[] legalMoves = new int[MoveGenerator.MAX_MOVES];
+    private final int[] bookMoves = new int[MoveGenerator.MAX_MOVES];
+    private final int[] bookWeights = new int[MoveGenerator.MAX_MOVES];
+
+    public PolyglotBook(Path path, PolyglotKeys keys) throws IOException {
+        this.keys = keys;
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        long size = channel.size();
+        entryCount = size / ENTRY_SIZE;
+        chunks = new MappedByteBuffer[(int) ((size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT)];
+        for (int i = 0; i < chunks.length; i++) {
+            long start = (long) i << CHUNK_SHIFT;
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(CHUNK_SIZE, size - start));
+        }
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    // Book moves of the position that are legal in it, with weights[i] the weight of moves[i]. Both arrays
+    // should hold MoveGenerator.MAX_MOVES entries. Returns how many were found.
+    public int probe(Game game, int[] moves, int[] weights) {
+        long key = keys.key(game);
+        int legalCount = MoveGenerator.generateLegalMoves(game, legalMoves);
+        int count = 0;
+        for (long entry = firstEntry(key); entry < entryCount && keyAt(entry) == key; entry++) {
+            int move = toMove(game, moveAt(entry), legalCount);
+            if (move != Move.NONE && count < moves.length) {
+                moves[count] = move;
+                weights[count] = weightAt(entry);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // A book move picked with a chance proportional to its weight, or Move.NONE when the position is out of book
+    public int pickMove(Game game, Random random) {
+        int count = probe(game, bookMoves, bookWeights);
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            total += bookWeights[i];
+        }
+        if (total == 0) {
+            return Move.NONE;
+        }
+        int pick = random.nextInt(total);
+        for (int i = 0; i < count; i++) {
+            pick -= bookWeights[i];
+            if (pick < 0) {
+                return bookMoves[i];
+            }
+        }
+        return Move.NONE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Index of the first entry whose key is not below the given one, keys compared as unsigned
+    private long firstEntry(long key) {
+        long low = 0;
+        long high = entryCount;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(keyAt(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Polyglot moves: to file in bits 0-2, to rank 3-5, from file 6-8, from rank 9-11, promotion 12-14.
+    // Castling is written as the king taking its own rook.
+    private int toMove(Game game, int bookMove, int legalCount) {
+        int to = Bitboards.square(7 - ((bookMove >>> 3) & 7), bookMove & 7);
+        int from = Bitboards.square(7 - ((bookMove >>> 9) & 7), (bookMove >>> 6) & 7);
+        int promotion = (bookMove >>> 12) & 7;
+        int piece = game.getBoard().getPieceIndex(from);
+        if (piece != Move.NO_PIECE && piece % 6 == PieceType.KING.ordinal()
+            && Math.abs(Bitboards.column(from) - Bitboards.column(to)) > 1) {
+            to = from + (to > from ? 2 : -2);
+        }
+        for (int i = 0; i < legalCount; i++) {
+            int move = legalMoves[i];
+            if (Move.from(move) == from && Move.to(move) == to
+                && (Move.isPromotion(move) ? Move.promotion(move) % 6 == promotion : promotion == 0)) {
+                return move;
+            }
+        }
+        return Move.NONE;
+    }
+
+    private long keyAt(long entry) {
+        long offset = entry * ENTRY_SIZE;
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].getLong((int) (offset & (CHUNK_SIZE - 1)));
+    }
+
+    private int moveAt(long entry) {
+        long offset = entry * ENTRY_SIZE + 8;
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].getShort((int) (offset & (CHUNK_SIZE - 1))) & 0xFFFF;
+    }
+
+    private int weightAt(long entry) {
+        long offset = entry * ENTRY_SIZE + 10;
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].getShort((int) (offset & (CHUNK_SIZE - 1))) & 0xFFFF;
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.chess.book;
+
+import io.github.chess.entities.Bitboards;
+import io.github.chess.entities.Board;
+import io.github.chess.entities.Game;
+import io.github.chess.entities.Position;
+import io.github.chess.entities.Zobrist;
+import io.github.chess.enums.PieceColor;
+import io.github.chess.enums.PieceType;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Polyglot position keys, built from the 781 Random64 constants of the book format. The constants are read as
+ * text, so the table printed in the Polyglot book format description can be used as it is: any 16 digit
+ * hexadecimal numbers, with or without 0x and suffixes, are picked up in order. The standard table ships with the
+ * rules module as io/github/chess/book/polyglot-random64.txt, for loadResource().
+ */
+public class PolyglotKeys {
+
+    public static final int SIZE = 781;
+    public static final String RESOURCE = "polyglot-random64.txt";
+
+    // Offsets of the parts of the table after the 768 piece-square entries
+    private static final int CASTLING = 768;
+    private static final int EN_PASSANT = 772;
+    private static final int TURN = 780;
+
+    private static final Pattern HEX_NUMBER =
+        Pattern.compile("(?<![0-9A-Fa-f])(?:0[xX])?([0-9A-Fa-f]{16})(?![0-9A-Fa-f])");
+    private static final PieceColor[] COLORS = PieceColor.values();
+    private static final PieceType[] TYPES = PieceType.values();
+
+    private final long[] randoms;
+
+    public PolyglotKeys(long[] randoms) {
+        if (randoms.length != SIZE) {
+            throw new IllegalArgumentException("Expected " + SIZE + " Polyglot constants, got " + randoms.length);
+        }
+        this.randoms = randoms.clone();
+    }
+
+    public static PolyglotKeys load(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.US_ASCII)) {
+            return read(reader, path.toString());
+        }
+    }
+
+    public static PolyglotKeys loadResource() throws IOException {
+        InputStream input = PolyglotKeys.class.getResourceAsStream(RESOURCE);
+        if (input == null) {
+            throw new IOException("Polyglot constants not found on the classpath: " + RESOURCE);
+        }
+        try (Reader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.US_ASCII))) {
+            return read(reader, RESOURCE);
+        }
+    }
+
+    private static PolyglotKeys read(Reader reader, String name) throws IOException {
+        StringBuilder text = new StringBuilder();
+        char[] buffer = new char[8192];
+        int read;
+        while ((read = reader.read(buffer)) > 0) {
+            text.append(buffer, 0, read);
+        }
+        long[] randoms = new long[SIZE];
+        int count = 0;
+        Matcher matcher = HEX_NUMBER.matcher(text);
+        while (count < SIZE && matcher.find()) {
+            randoms[count++] = Long.parseUnsignedLong(matcher.group(1), 16);
+        }
+        if (count < SIZE) {
+            throw new IOException("Only " + count + " of the " + SIZE + " Polyglot constants found in " + name);
+        }
+        return new PolyglotKeys(randoms);
+    }
+
+    // The Polyglot key of the position. Unlike Game.getZobristKey(), the en passant file counts whenever a pawn
+    // of the side to move stands next to the pawn that just moved two squares, legal capture or not.
+    public long key(Game game) {
+        Board board = game.getBoard();
+        long key = 0;
+        for (PieceColor color : COLORS) {
+            for (PieceType type : TYPES) {
+                int kind = type.ordinal() * 2 + (color == PieceColor.WHITE ? 1 : 0);
+                long pieces = board.getPieces(color, type);
+                while (pieces != 0) {
+                    int square = Long.numberOfTrailingZeros(pieces);
+                    pieces &= pieces - 1;
+                    // Polyglot counts ranks from the first one, the board from the eighth
+                    key ^= randoms[64 * kind + 8 * (7 - Bitboards.row(square)) + Bitboards.column(square)];
+                }
+            }
+        }
+
+        int rights = game.getCastlingRights();
+        if ((rights & Zobrist.WHITE_KING_SIDE) != 0) key ^= randoms[CASTLING];
+        if ((rights & Zobrist.WHITE_QUEEN_SIDE) != 0) key ^= randoms[CASTLING + 1];
+        if ((rights & Zobrist.BLACK_KING_SIDE) != 0) key ^= randoms[CASTLING + 2];
+        if ((rights & Zobrist.BLACK_QUEEN_SIDE) != 0) key ^= randoms[CASTLING + 3];
+
+        Position pushed = game.getLastPawnDoubleMove();
+        if (pushed != null) {
+            PieceColor side = game.isWhiteTurn() ? PieceColor.WHITE : PieceColor.BLACK;
+            int square = pushed.getSquare();
+            long neighbours = 0;
+            if (pushed.getColumn() > 0) neighbours |= Bitboards.bit(square - 1);
+            if (pushed.getColumn() < 7) neighbours |= Bitboards.bit(square + 1);
+            if ((neighbours & board.getPieces(side, PieceType.PAWN)) != 0) {
+                key ^= randoms[EN_PASSANT + pushed.getColumn()];
+            }
+        }
+
+        if (game.isWhiteTurn()) {
+            key ^= randoms[TURN];
+        }
+        return key;
+    }
+}
@@ -0,0 +1,151 @@
+package io.github.chess.engine;
+
+import io.github.chess.entities.Board;
+import io.github.chess.entities.Game;
+import io.github.chess.enums.PieceColor;
+import io.github.chess.enums.PieceType;
+
+/**
+ * Static evaluation: material plus piece-square tables, with the king table blended from middlegame to endgame
+ * as pieces come off. Tables are written from white's side with a8 first, the same order as board squares.
+ */
+public final class Evaluator {
+
+    public static final int[] PIECE_VALUES = {100, 320, 330, 500, 900, 0};
+
+    private static final int[] PHASE_WEIGHTS = {0, 1, 1, 2, 4, 0};
+    private static final int MAX_PHASE = 24;
+
+    private static final int[] PAWN_TABLE = {
+        0, 0, 0, 0, 0, 0, 0, 0,
+        50, 50, 50, 50, 50, 50, 50, 50,
+        10, 10, 20, 30, 30, 20, 10, 10,
+        5, 5, 10, 25, 25, 10, 5, 5,
+        0, 0, 0, 20, 20, 0, 0, 0,
+        5, -5, -10, 0, 0, -10, -5, 5,
+        5, 10, 10, -20, -20, 10, 10, 5,
+        0, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    private static final int[] KNIGHT_TABLE = {
+        -50, -40, -30, -30, -30, -30, -40, -50,
+        -40, -20, 0, 0, 0, 0, -20, -40,
+        -30, 0, 10, 15, 15, 10, 0, -30,
+        -30, 5, 15, 20, 20, 15, 5, -30,
+        -30, 0, 15, 20, 20, 15, 0, -30,
+        -30, 5, 10, 15, 15, 10, 5, -30,
+        -40, -20, 0, 5, 5, 0, -20, -40,
+        -50, -40, -30, -30, -30, -30, -40, -50
+    };
+
+    private static final int[] BISHOP_TABLE = {
+        -20, -10, -10, -10, -10, -10, -10, -20,
+        -10, 0, 0, 0, 0, 0, 0, -10,
+        -10, 0, 5, 10, 10, 5, 0, -10,
+        -10, 5, 5, 10, 10, 5, 5, -10,
+        -10, 0, 10, 10, 10, 10, 0, -10,
+        -10, 10, 10, 10, 10, 10, 10, -10,
+        -10, 5, 0, 0, 0, 0, 5, -10,
+        -20, -10, -10, -10, -10, -10, -10, -20
+    };
+
+    private static final int[] ROOK_TABLE = {
+        0, 0, 0, 0, 0, 0, 0, 0,
+        5, 10, 10, 10, 10, 10, 10, 5,
+        -5, 0, 0, 0, 0, 0, 0, -5,
+        -5, 0, 0, 0, 0, 0, 0, -5,
+        -5, 0, 0, 0, 0, 0, 0, -5,
+        -5, 0, 0, 0, 0, 0, 0, -5,
+        -5, 0, 0, 0, 0, 0, 0, -5,
+        0, 0, 0, 5, 5, 0, 0, 0
+    };
+
+    private static final int[] QUEEN_TABLE = {
+        -20, -10, -10, -5, -5, -10, -10, -20,
+        -10, 0, 0, 0, 0, 0, 0, -10,
+        -10, 0, 5, 5, 5, 5, 0, -10,
+        -5, 0, 5, 5, 5, 5, 0, -5,
+        0, 0, 5, 5, 5, 5, 0, -5,
+        -10, 5, 5, 5, 5, 5, 0, -10,
+        -10, 0, 5, 0, 0, 0, 0, -10,
+        -20, -10, -10, -5, -5, -10, -10, -20
+    };
+
+    private static final int[] KING_MIDDLEGAME_TABLE = {
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -20, -30, -30, -40, -40, -30, -30, -20,
+        -10, -20, -20, -20, -20, -20, -20, -10,
+        20, 20, 0, 0, 0, 0, 20, 20,
+        20, 30, 10, 0, 0, 10, 30, 20
+    };
+
+    private static final int[] KING_ENDGAME_TABLE = {
+        -50, -40, -30, -20, -20, -30, -40, -50,
+        -30, -20, -10, 0, 0, -10, -20, -30,
+        -30, -10, 20, 30, 30, 20, -10, -30,
+        -30, -10, 30, 40, 40, 30, -10, -30,
+        -30, -10, 30, 40, 40, 30, -10, -30,
+        -30, -10, 20, 30, 30, 20, -10, -30,
+        -30, -30, 0, 0, 0, 0, -30, -30,
+        -50, -30, -30, -30, -30, -30, -30, -50
+    };
+
+    private static final int[][] TABLES = {PAWN_TABLE, KNIGHT_TABLE, BISHOP_TABLE, ROOK_TABLE, QUEEN_TABLE};
+
+    private Evaluator() {
+    }
+
+    // Score in centipawns from the point of view of the side to move
+    public static int evaluate(Game game) {
+        Board board = game.getBoard();
+        int score = 0;
+        int phase = 0;
+
+        for (PieceType type : PieceType.values()) {
+            if (type == PieceType.KING) {
+                continue;
+            }
+            int[] table = TABLES[type.ordinal()];
+            long white = board.getPieces(PieceColor.WHITE, type);
+            long black = board.getPieces(PieceColor.BLACK, type);
+            int count = Long.bitCount(white) + Long.bitCount(black);
+            phase += PHASE_WEIGHTS[type.ordinal()] * count;
+            score += PIECE_VALUES[type.ordinal()] * (Long.bitCount(white) - Long.bitCount(black));
+            while (white != 0) {
+                score += table[Long.numberOfTrailingZeros(white)];
+                white &= white - 1;
+            }
+            // Black squares are mirrored vertically to read the same table
+            while (black != 0) {
+                score -= table[Long.numberOfTrailingZeros(black) ^ 56];
+                black &= black - 1;
+            }
+        }
+
+        phase = Math.min(phase, MAX_PHASE);
+        long whiteKing = board.getPieces(PieceColor.WHITE, PieceType.KING);
+        long blackKing = board.getPieces(PieceColor.BLACK, PieceType.KING);
+        if (whiteKing != 0) {
+            score += kingScore(Long.numberOfTrailingZeros(whiteKing), phase);
+        }
+        if (blackKing != 0) {
+            score -= kingScore(Long.numberOfTrailingZeros(blackKing) ^ 56, phase);
+        }
+
+        return game.isWhiteTurn() ? score : -score;
+    }
+
+    // Null-move pruning is unsafe without pieces, where zugzwang is common
+    public static boolean hasNonPawnMaterial(Game game, PieceColor color) {
+        Board board = game.getBoard();
+        return (board.getPieces(color) & ~board.getPieces(color, PieceType.PAWN)
+            & ~board.getPieces(color, PieceType.KING)) != 0;
+    }
+
+    private static int kingScore(int square, int phase) {
+        return (KING_MIDDLEGAME_TABLE[square] * phase + KING_ENDGAME_TABLE[square] * (MAX_PHASE - phase)) / MAX_PHASE;
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.chess.engine;
+
+import io.github.chess.entities.Game;
+import io.github.chess.tablebase.Tablebases;
+
+/**
+ * Lazy SMP: the same iterative deepening search runs on several threads, each on its own copy of the game, and
+ * they only share the transposition table. Helpers don't report anything; they fill the table with results the
+ * main search then finds. Half of the helpers search one ply deeper, so the threads don't all walk the same tree.
+ */
+public class ParallelSearch {
+
+    private final Game game;
+    private final TranspositionTable table;
+    private final int threads;
+    private SearchListener listener;
+    private Tablebases tablebases;
+    private volatile Search[] searches;
+    private volatile boolean stopped;
+
+    public ParallelSearch(Game game, TranspositionTable table, int threads) {
+        this.game = game;
+        this.table = table;
+        this.threads = Math.max(1, threads);
+    }
+
+    // Searches with the calling thread as main thread. Node limits apply to each thread separately;
+    // the returned node count is the total of all threads.
+    public SearchResult search(SearchLimits limits) {
+        Search[] current = new Search[threads];
+        current[0] = new Search(new Game(game), table);
+        current[0].setListener(listener);
+        for (int i = 1; i < threads; i++) {
+            current[i] = new Search(new Game(game), table);
+            current[i].setDepthOffset(i % 2);
+        }
+        for (Search search : current) {
+            search.setTablebases(tablebases);
+        }
+        searches = current;
+        // stop() may have come before the searches existed
+        if (stopped) {
+            stop();
+        }
+
+        Thread[] helpers = new Thread[threads - 1];
+        for (int i = 1; i < threads; i++) {
+            Search helper = current[i];
+            helpers[i - 1] = new Thread(() -> helper.search(limits), "search-helper-" + i);
+            helpers[i - 1].setDaemon(true);
+            helpers[i - 1].start();
+        }
+
+        SearchResult result = current[0].search(limits);
+        for (int i = 1; i < threads; i++) {
+            current[i].stop();
+        }
+        long nodes = result.getNodes();
+        for (int i = 0; i < helpers.length; i++) {
+            try {
+                helpers[i].join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            nodes += current[i + 1].getNodes();
+        }
+        searches = null;
+        stopped = false;
+
+        return new SearchResult(result.getBestMove(), result.getScore(), result.getDepth(), nodes,
+            result.getTimeMillis(), result.getPrincipalVariation());
+    }
+
+    // Can be called from another thread while search() runs, or just before it starts
+    public void stop() {
+        stopped = true;
+        Search[] current = searches;
+        if (current != null) {
+            for (Search search : current) {
+                search.stop();
+            }
+        }
+    }
+
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    // Shared by all the threads, as probes are thread-safe
+    public void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+}
@@ -0,0 +1,477 @@
+package io.github.chess.engine;
+
+import io.github.chess.entities.Game;
+import io.github.chess.entities.Move;
+import io.github.chess.entities.MoveGenerator;
+import io.github.chess.enums.PieceColor;
+import io.github.chess.enums.PieceType;
+import io.github.chess.tablebase.Tablebases;
+
+import java.util.Arrays;
+
+/**
+ * Iterative-deepening principal variation search over a {@link Game}. The game is played forwards and backwards
+ * with makeMove/unmakeMove during the search and is left as it was found once search() returns.
+ */
+public class Search {
+
+    public static final int MAX_PLY = 128;
+    public static final int INFINITY = 32000;
+    public static final int MATE = 31000;
+    // Scores beyond this are mates, MATE minus the distance in plies
+    public static final int MATE_BOUND = MATE - MAX_PLY;
+
+    private static final int ASPIRATION_WINDOW = 25;
+    private static final int ASPIRATION_MIN_DEPTH = 5;
+    private static final int CHECK_INTERVAL_MASK = 2047;
+    private static final int HISTORY_LIMIT = 50000;
+
+    private static final int TT_MOVE_SCORE = 1000000;
+    private static final int CAPTURE_SCORE = 100000;
+    private static final int FIRST_KILLER_SCORE = 90000;
+    private static final int SECOND_KILLER_SCORE = 80000;
+
+    private static final int[][] REDUCTIONS = new int[64][64];
+
+    static {
+        for (int depth = 1; depth < 64; depth++) {
+            for (int moveNumber = 1; moveNumber < 64; moveNumber++) {
+                REDUCTIONS[depth][moveNumber] = (int) (0.75 + Math.log(depth) * Math.log(moveNumber) / 2.25);
+            }
+        }
+    }
+
+    private final Game game;
+    private final TranspositionTable table;
+
+    // One move list per ply so that nothing is allocated while searching
+    private final int[][] moves = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final int[][] moveScores = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final int[][] principalVariation = new int[MAX_PLY][MAX_PLY];
+    private final int[] principalVariationLength = new int[MAX_PLY];
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[][] history = new int[12][64];
+
+    private SearchListener listener;
+    private Tablebases tablebases;
+    // Added to every iteration depth, so that helper threads of a ParallelSearch spread over more depths
+    private int depthOffset;
+    private volatile boolean stopped;
+    private long nodes;
+    private long nodeLimit;
+    private long startTime;
+    private long deadline;
+
+    public Search(Game game, TranspositionTable table) {
+        this.game = game;
+        this.table = table;
+    }
+
+    public SearchResult search(SearchLimits limits) {
+        nodes = 0;
+        startTime = System.currentTimeMillis();
+        deadline = limits.getMoveTimeMillis() > 0 ? startTime + limits.getMoveTimeMillis() : Long.MAX_VALUE;
+        nodeLimit = limits.getNodes() > 0 ? limits.getNodes() : Long.MAX_VALUE;
+        int maxDepth = limits.getDepth() > 0 ? Math.min(limits.getDepth(), MAX_PLY - 1) : MAX_PLY - 1;
+
+        table.newSearch();
+        for (int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, Move.NONE);
+        }
+        for (int[] pieceHistory : history) {
+            for (int square = 0; square < 64; square++) {
+                pieceHistory[square] /= 2;
+            }
+        }
+
+        SearchResult result = null;
+        int score = 0;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            int window = ASPIRATION_WINDOW;
+            int alpha = -INFINITY;
+            int beta = INFINITY;
+            if (depth >= ASPIRATION_MIN_DEPTH) {
+                alpha = Math.max(score - window, -INFINITY);
+                beta = Math.min(score + window, INFINITY);
+            }
+
+            // Re-search with a wider window until the score falls inside it
+            while (true) {
+                int value = negamax(depth + depthOffset, alpha, beta, 0, false);
+                if (stopped) {
+                    break;
+                }
+                if (value <= alpha) {
+                    alpha = Math.max(value - window, -INFINITY);
+                } else if (value >= beta) {
+                    beta = Math.min(value + window, INFINITY);
+                } else {
+                    score = value;
+                    break;
+                }
+                window *= 2;
+            }
+
+            // An unfinished iteration is thrown away, the previous one stands
+            if (stopped) {
+                break;
+            }
+
+            int length = principalVariationLength[0];
+            int bestMove = length > 0 ? principalVariation[0][0] : Move.NONE;
+            result = new SearchResult(bestMove, score, depth + depthOffset, nodes, elapsed(),
+                Arrays.copyOf(principalVariation[0], length));
+            if (listener != null) {
+                listener.onIteration(result);
+            }
+
+            // A mate found within the full depth can't be improved on
+            if (bestMove == Move.NONE || Math.abs(score) >= MATE_BOUND && MATE - Math.abs(score) <= depth) {
+                break;
+            }
+            // The next iteration would most likely not finish in the remaining time
+            if (limits.getMoveTimeMillis() > 0 && elapsed() * 2 >= limits.getMoveTimeMillis()) {
+                break;
+            }
+        }
+
+        // Stopped before the first iteration finished: still return a legal move if there is one
+        if (result == null) {
+            int count = MoveGenerator.generateLegalMoves(game, moves[0]);
+            int[] line = count > 0 ? new int[]{moves[0][0]} : new int[0];
+            result = new SearchResult(count > 0 ? moves[0][0] : Move.NONE, 0, 0, nodes, elapsed(), line);
+        }
+        // Cleared on the way out rather than on the way in, so that a stop() sent just before the search started
+        // isn't lost
+        stopped = false;
+        return result;
+    }
+
+    // Can be called from another thread, the search returns its last completed iteration. Called before
+    // search(), it makes the next search return at once.
+    public void stop() {
+        stopped = true;
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    public void setListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    // Positions found in the tablebases aren't searched any further
+    public void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    void setDepthOffset(int depthOffset) {
+        this.depthOffset = depthOffset;
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply, boolean allowNullMove) {
+        principalVariationLength[ply] = ply;
+        // Before quiescence, so that captures into a known ending are scored by the table
+        if (ply > 0 && tablebases != null && Long.bitCount(game.getBoard().getOccupied()) <= Tablebases.MAX_PIECES) {
+            int result = tablebases.probe(game);
+            if (result != Tablebases.NOT_FOUND) {
+                return tablebaseScore(result, ply);
+            }
+        }
+        if (depth <= 0) {
+            return quiescence(alpha, beta, ply);
+        }
+        if (countNode()) {
+            return 0;
+        }
+
+        boolean pvNode = beta - alpha > 1;
+        if (ply > 0) {
+            if (game.isRepetition()) {
+                return 0;
+            }
+            // No line from here can be better than mating right now, or worse than being mated right now
+            alpha = Math.max(alpha, -MATE + ply);
+            beta = Math.min(beta, MATE - ply - 1);
+            if (alpha >= beta) {
+                return alpha;
+            }
+        }
+        if (ply >= MAX_PLY - 1) {
+            return Evaluator.evaluate(game);
+        }
+
+        long key = game.getZobristKey();
+        long entry = table.probe(key);
+        int tableMove = Move.NONE;
+        if (entry != 0) {
+            tableMove = TranspositionTable.move(entry);
+            if (!pvNode && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT
+                    || bound == TranspositionTable.BOUND_LOWER && score >= beta
+                    || bound == TranspositionTable.BOUND_UPPER && score <= alpha) {
+                    return score;
+                }
+            }
+        }
+
+        PieceColor color = game.isWhiteTurn() ? PieceColor.WHITE : PieceColor.BLACK;
+        PieceColor enemy = color == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+        boolean inCheck = game.isInCheck(color);
+        if (inCheck) {
+            depth++;
+        }
+
+        // Null move: if passing still fails high, a real move almost certainly does too
+        if (allowNullMove && !pvNode && !inCheck && depth >= 3 && Evaluator.hasNonPawnMaterial(game, color)
+            && Evaluator.evaluate(game) >= beta) {
+            int reduction = 2 + depth / 4;
+            game.makeNullMove();
+            int score = -negamax(depth - 1 - reduction, -beta, -beta + 1, ply + 1, false);
+            game.unmakeNullMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return score >= MATE_BOUND ? beta : score;
+            }
+        }
+
+        int[] plyMoves = moves[ply];
+        int count = MoveGenerator.generateLegalMoves(game, color, plyMoves, 0);
+        if (count == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        scoreMoves(ply, count, tableMove);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = nextMove(ply, i, count);
+            boolean quiet = !Move.isCapture(move) && !Move.isPromotion(move);
+
+            game.makeMove(move);
+            boolean givesCheck = game.isInCheck(enemy);
+            int score;
+            if (i == 0) {
+                score = -negamax(depth - 1, -beta, -alpha, ply + 1, true);
+            } else {
+                // Late quiet moves are searched shallower first and only re-searched if they turn out interesting
+                int reduction = 0;
+                if (depth >= 3 && i >= (pvNode ? 3 : 2) && quiet && !inCheck && !givesCheck
+                    && move != killers[ply][0] && move != killers[ply][1]) {
+                    reduction = Math.min(REDUCTIONS[Math.min(depth, 63)][Math.min(i, 63)], depth - 2);
+                }
+                score = -negamax(depth - 1 - reduction, -alpha - 1, -alpha, ply + 1, true);
+                if (score > alpha && reduction > 0) {
+                    score = -negamax(depth - 1, -alpha - 1, -alpha, ply + 1, true);
+                }
+                if (score > alpha && score < beta) {
+                    score = -negamax(depth - 1, -beta, -alpha, ply + 1, true);
+                }
+            }
+            game.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(ply, move);
+                    if (score >= beta) {
+                        if (quiet) {
+                            updateKillersAndHistory(ply, move, depth);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.BOUND_LOWER
+            : bestScore > originalAlpha ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+        table.store(key, bound == TranspositionTable.BOUND_UPPER ? Move.NONE : bestMove, toTable(bestScore, ply),
+            depth, bound);
+        return bestScore;
+    }
+
+    // Resolves captures until the position is quiet, so the static evaluation isn't taken mid-exchange
+    private int quiescence(int alpha, int beta, int ply) {
+        principalVariationLength[ply] = ply;
+        if (countNode()) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return Evaluator.evaluate(game);
+        }
+
+        PieceColor color = game.isWhiteTurn() ? PieceColor.WHITE : PieceColor.BLACK;
+        boolean inCheck = game.isInCheck(color);
+        int[] plyMoves = moves[ply];
+        int bestScore;
+        int count;
+        if (inCheck) {
+            // Every evasion has to be tried, standing pat isn't an option in check
+            count = MoveGenerator.generateLegalMoves(game, color, plyMoves, 0);
+            if (count == 0) {
+                return -MATE + ply;
+            }
+            bestScore = -INFINITY;
+        } else {
+            int standPat = Evaluator.evaluate(game);
+            if (standPat >= beta) {
+                return standPat;
+            }
+            alpha = Math.max(alpha, standPat);
+            bestScore = standPat;
+            count = MoveGenerator.generateLegalCaptures(game, color, plyMoves, 0);
+        }
+        scoreMoves(ply, count, Move.NONE);
+
+        for (int i = 0; i < count; i++) {
+            int move = nextMove(ply, i, count);
+            // Under-promotions only matter in quiet positions
+            if (!inCheck && Move.isPromotion(move) && Move.promotion(move) % 6 != PieceType.QUEEN.ordinal()) {
+                continue;
+            }
+            game.makeMove(move);
+            int score = -quiescence(-beta, -alpha, ply + 1);
+            game.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(ply, move);
+                    if (score >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    // Counts the node and periodically checks the limits; true when the search has to stop
+    private boolean countNode() {
+        nodes++;
+        if (nodes >= nodeLimit || (nodes & CHECK_INTERVAL_MASK) == 0 && System.currentTimeMillis() >= deadline) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    // Hash move first, then captures by most valuable victim and least valuable attacker, then killers and history
+    private void scoreMoves(int ply, int count, int tableMove) {
+        int[] plyMoves = moves[ply];
+        int[] scores = moveScores[ply];
+        for (int i = 0; i < count; i++) {
+            int move = plyMoves[i];
+            if (move == tableMove) {
+                scores[i] = TT_MOVE_SCORE;
+            } else if (Move.isCapture(move) || Move.isPromotion(move)) {
+                int victim = Move.isCapture(move) ? Evaluator.PIECE_VALUES[Move.captured(move) % 6] : 0;
+                int promotion = Move.isPromotion(move) ? Evaluator.PIECE_VALUES[Move.promotion(move) % 6] : 0;
+                scores[i] = CAPTURE_SCORE + (victim + promotion) * 10 - Evaluator.PIECE_VALUES[Move.piece(move) % 6] / 10;
+            } else if (move == killers[ply][0]) {
+                scores[i] = FIRST_KILLER_SCORE;
+            } else if (move == killers[ply][1]) {
+                scores[i] = SECOND_KILLER_SCORE;
+            } else {
+                scores[i] = history[Move.piece(move)][Move.to(move)];
+            }
+        }
+    }
+
+    // Moves the best remaining move to index i, so moves are only sorted as far as the search gets
+    private int nextMove(int ply, int i, int count) {
+        int[] plyMoves = moves[ply];
+        int[] scores = moveScores[ply];
+        int best = i;
+        for (int j = i + 1; j < count; j++) {
+            if (scores[j] > scores[best]) {
+                best = j;
+            }
+        }
+        int move = plyMoves[best];
+        plyMoves[best] = plyMoves[i];
+        plyMoves[i] = move;
+        int score = scores[best];
+        scores[best] = scores[i];
+        scores[i] = score;
+        return move;
+    }
+
+    private void updatePrincipalVariation(int ply, int move) {
+        int[] line = principalVariation[ply];
+        line[ply] = move;
+        int childLength = principalVariationLength[ply + 1];
+        System.arraycopy(principalVariation[ply + 1], ply + 1, line, ply + 1, childLength - ply - 1);
+        principalVariationLength[ply] = Math.max(childLength, ply + 1);
+    }
+
+    private void updateKillersAndHistory(int ply, int move, int depth) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] pieceHistory = history[Move.piece(move)];
+        pieceHistory[Move.to(move)] += depth * depth;
+        if (pieceHistory[Move.to(move)] > HISTORY_LIMIT) {
+            for (int[] entries : history) {
+                for (int square = 0; square < 64; square++) {
+                    entries[square] /= 2;
+                }
+            }
+        }
+    }
+
+    // Mates are counted from the root like the ones found by searching. Mates further than MAX_PLY from the root
+    // can't be told apart from shorter ones by MATE_BOUND, so they are scored just below it, shorter ones higher.
+    private static int tablebaseScore(int result, int ply) {
+        if (result == Tablebases.DRAW) {
+            return 0;
+        }
+        int distance = ply + Tablebases.pliesToMate(result);
+        int score = distance <= MAX_PLY ? MATE - distance : MATE_BOUND - (distance - MAX_PLY);
+        return Tablebases.isWin(result) ? score : -score;
+    }
+
+    // Mate scores are stored relative to the node rather than the root, so they stay valid at any ply
+    private static int toTable(int score, int ply) {
+        if (score >= MATE_BOUND) {
+            return score + ply;
+        }
+        if (score <= -MATE_BOUND) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE_BOUND) {
+            return score - ply;
+        }
+        if (score <= -MATE_BOUND) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    private long elapsed() {
+        return System.currentTimeMillis() - startTime;
+    }
+}
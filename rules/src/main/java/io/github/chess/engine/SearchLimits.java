@@ -0,0 +1,36 @@
+package io.github.chess.engine;
+
+/** When a search must stop. A value of 0 means no limit; with no limit at all the search runs until stopped. */
+public class SearchLimits {
+
+    private int depth;
+    private long moveTimeMillis;
+    private long nodes;
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public SearchLimits setDepth(int depth) {
+        this.depth = depth;
+        return this;
+    }
+
+    public long getMoveTimeMillis() {
+        return moveTimeMillis;
+    }
+
+    public SearchLimits setMoveTimeMillis(long moveTimeMillis) {
+        this.moveTimeMillis = moveTimeMillis;
+        return this;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public SearchLimits setNodes(long nodes) {
+        this.nodes = nodes;
+        return this;
+    }
+}
@@ -0,0 +1,7 @@
+package io.github.chess.engine;
+
+/** Receives the result of every completed iteration while a search is running. */
+public interface SearchListener {
+
+    void onIteration(SearchResult result);
+}
@@ -0,0 +1,77 @@
+package io.github.chess.engine;
+
+import io.github.chess.entities.Move;
+
+/** Outcome of a completed search iteration. Moves use the {@link Move} encoding. */
+public class SearchResult {
+
+    private final int bestMove;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long timeMillis;
+    private final int[] principalVariation;
+
+    public SearchResult(int bestMove, int score, int depth, long nodes, long timeMillis, int[] principalVariation) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+        this.principalVariation = principalVariation;
+    }
+
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    // Centipawns from the side to move's point of view, or a mate score, see isMate()
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public long getNodesPerSecond() {
+        return timeMillis == 0 ? nodes * 1000 : nodes * 1000 / timeMillis;
+    }
+
+    public int[] getPrincipalVariation() {
+        return principalVariation;
+    }
+
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE_BOUND;
+    }
+
+    // Moves until mate, negative when the side to move gets mated
+    public int getMateIn() {
+        int plies = Search.MATE - Math.abs(score);
+        return score > 0 ? (plies + 1) / 2 : -(plies / 2);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("depth ").append(depth)
+            .append(isMate() ? " mate " + getMateIn() : " cp " + score)
+            .append(" nodes ").append(nodes)
+            .append(" nps ").append(getNodesPerSecond())
+            .append(" time ").append(timeMillis)
+            .append(" pv");
+        for (int move : principalVariation) {
+            builder.append(' ').append(Move.toString(move));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,161 @@
+package io.github.chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of search results, shared by every search thread without locks.
+ * <p>
+ * Entries live in plain {@code long[]} segments, so the table is a handful of objects to the garbage collector
+ * whatever its size. Each bucket holds two entries of two longs: a depth-preferred slot and an always-replace
+ * slot. An entry stores {@code key ^ data} next to {@code data}; a reader only trusts the data when XORing the two
+ * gives back its key, which rejects entries torn by a concurrent write.
+ * <p>
+ * Data layout: bits 0-27 move, 28-43 score, 44-51 depth, 52-53 bound, 54-59 generation.
+ */
+public final class TranspositionTable {
+
+    public static final int BOUND_NONE = 0;
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2;
+    public static final int BOUND_UPPER = 3;
+
+    public static final int DEFAULT_SIZE_MB = 64;
+
+    private static final int LONGS_PER_BUCKET = 4;
+    // 2^25 buckets of 32 bytes, 1 GB per segment
+    private static final int SEGMENT_SHIFT = 25;
+    private static final int MAX_GENERATION = 63;
+
+    private long[][] segments;
+    private long bucketMask;
+    private int segmentMask;
+    private int generation;
+
+    public TranspositionTable(int sizeMb) {
+        resize(sizeMb);
+    }
+
+    // Drops every entry; the size is rounded down to a power of two buckets
+    public void resize(int sizeMb) {
+        long bytes = Math.max(1L, sizeMb) * 1024 * 1024;
+        long buckets = Long.highestOneBit(Math.max(1L, bytes / (LONGS_PER_BUCKET * 8)));
+        long segmentBuckets = Math.min(buckets, 1L << SEGMENT_SHIFT);
+        int segmentCount = (int) (buckets / segmentBuckets);
+
+        segments = null;
+        long[][] newSegments = new long[segmentCount][];
+        for (int i = 0; i < segmentCount; i++) {
+            newSegments[i] = new long[(int) (segmentBuckets * LONGS_PER_BUCKET)];
+        }
+        segments = newSegments;
+        bucketMask = segmentBuckets - 1;
+        segmentMask = segmentCount - 1;
+        generation = 0;
+    }
+
+    public void clear() {
+        for (long[] segment : segments) {
+            Arrays.fill(segment, 0L);
+        }
+        generation = 0;
+    }
+
+    // Called once per search so that entries from earlier searches become the first to be replaced
+    public void newSearch() {
+        generation = (generation + 1) & MAX_GENERATION;
+    }
+
+    public long getSizeBytes() {
+        return (long) segments.length * segments[0].length * 8;
+    }
+
+    // Returns the stored data for the key, or 0 when there is none
+    public long probe(long key) {
+        long[] segment = segmentFor(key);
+        int index = indexFor(key);
+        for (int slot = index; slot < index + LONGS_PER_BUCKET; slot += 2) {
+            long data = segment[slot + 1];
+            if ((segment[slot] ^ data) == key && data != 0) {
+                return data;
+            }
+        }
+        return 0L;
+    }
+
+    public void store(long key, int move, int score, int depth, int bound) {
+        long[] segment = segmentFor(key);
+        int index = indexFor(key);
+
+        long deepData = segment[index + 1];
+        boolean sameKey = (segment[index] ^ deepData) == key;
+        // Keep the best move of a previous search of this position if we have none
+        if (move == 0 && sameKey) {
+            move = move(deepData);
+        }
+        long data = pack(move, score, depth, bound, generation);
+
+        // The depth-preferred slot takes the entry if it's the same position, deeper, or from an older search
+        if (sameKey || deepData == 0 || depth >= depth(deepData) || generation(deepData) != generation) {
+            // Demote the entry being replaced to the always-replace slot when it's still worth keeping
+            if (!sameKey && deepData != 0 && generation(deepData) == generation) {
+                segment[index + 2] = segment[index];
+                segment[index + 3] = deepData;
+            }
+            segment[index] = key ^ data;
+            segment[index + 1] = data;
+        } else {
+            segment[index + 2] = key ^ data;
+            segment[index + 3] = data;
+        }
+    }
+
+    // Permille of depth-preferred slots written during the current search, sampled from the first buckets
+    public int hashfull() {
+        long[] segment = segments[0];
+        int samples = (int) Math.min(1000, bucketMask + 1);
+        int used = 0;
+        for (int bucket = 0; bucket < samples; bucket++) {
+            long data = segment[bucket * LONGS_PER_BUCKET + 1];
+            if (data != 0 && generation(data) == generation) {
+                used++;
+            }
+        }
+        return used * 1000 / samples;
+    }
+
+    public static int move(long data) {
+        return (int) (data & 0xFFFFFFFL);
+    }
+
+    public static int score(long data) {
+        return (short) (data >>> 28);
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 44) & 0xFF);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> 52) & 0x3);
+    }
+
+    private static int generation(long data) {
+        return (int) ((data >>> 54) & MAX_GENERATION);
+    }
+
+    private static long pack(int move, int score, int depth, int bound, int generation) {
+        return (move & 0xFFFFFFFL)
+            | ((long) (score & 0xFFFF) << 28)
+            | ((long) (Math.max(0, Math.min(depth, 255))) << 44)
+            | ((long) bound << 52)
+            | ((long) generation << 54);
+    }
+
+    private long[] segmentFor(long key) {
+        return segments[(int) (key >>> (64 - 16)) & segmentMask];
+    }
+
+    private int indexFor(long key) {
+        return (int) (key & bucketMask) * LONGS_PER_BUCKET;
+    }
+}
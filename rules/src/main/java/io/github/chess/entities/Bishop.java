@@ -0,0 +1,34 @@
+package io.github.chess.entities;
+
+import io.github.chess.enums.PieceColor;
+import io.github.chess.enums.PieceType;
+
+public class Bishop extends Piece {
+
+    public Bishop(PieceColor pieceColor, Position position, Game game) {
+        super(pieceColor, position, game);
+    }
+
+    @Override
+    public PieceType getType() {
+        return PieceType.BISHOP;
+    }
+
+    @Override
+    public boolean isValidMove(int to, Piece[][] board) {
+        int from = position.getSquare();
+        if ((Bitboards.bishopAttacks(from, 0L) & Bitboards.bit(to)) == 0 || !isPathClear(from, to, board)) {
+            return false; // Move is not diagonal, or there's a piece in the way
+        }
+
+        // Check the destination square for capturing or moving to an empty square
+        Piece destinationPiece = board[Bitboards.row(to)][Bitboards.column(to)];
+        if (destinationPiece == null) {
+            return true; // The destination is empty, move is valid.
+        } else if (destinationPiece.getColor() != this.getColor()) {
+            return true; // The destination has an opponent's piece, capture is valid.
+        }
+
+        return false; // The destination has a piece of the same color, move is invalid.
+    }
+}
@@ -0,0 +1,228 @@
+package io.github.chess.entities;
+
+import io.github.chess.enums.PieceColor;
+
+/**
+ * Precomputed attack tables. Squares are numbered {@code row * 8 + column}, so square 0 is a8 and 63 is h1,
+ * matching the layout of {@link Board#getBoard()}. Sliding attacks use fancy magic bitboards.
+ */
+public final class Bitboards {
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private static final int[][] KNIGHT_JUMPS = {{2, 1}, {2, -1}, {-2, 1}, {-2, -1}, {1, 2}, {1, -2}, {-1, 2}, {-1, -2}};
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    // Indexed by PieceColor.ordinal(): the squares a pawn of that color attacks from a square
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+    // Squares strictly between two aligned squares, and the whole line through them, for checks and pins
+    private static final long[][] BETWEEN = new long[64][64];
+    private static final long[][] LINE = new long[64][64];
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] ROOK_OFFSETS = new int[64];
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final int[] BISHOP_OFFSETS = new int[64];
+    private static final long[] ROOK_TABLE = new long[102400];
+    private static final long[] BISHOP_TABLE = new long[5248];
+
+    // Found offline by a sparse random search; each one maps every relevant occupancy of its square
+    // to a table slot without destructive collisions
+    private static final long[] ROOK_MAGICS = {
+        0x008000908064C000L, 0x0040200040001000L, 0x0180100080A0010AL, 0x8880041000800800L,
+        0x1200100201200804L, 0x0200020004011008L, 0x2180010000800600L, 0x0200005088210204L,
+        0x0400800040008021L, 0x0400400020005000L, 0x8240801000200080L, 0x8611001004200900L,
+        0x008180800C001800L, 0x0100800200800400L, 0x0A02000102000408L, 0x8020802300104280L,
+        0x0080004000402000L, 0xE010104000402000L, 0x0800808010002000L, 0xA280210008100100L,
+        0x0001818014000800L, 0xA002010100080400L, 0x0080240001020870L, 0x0001020004048845L,
+        0x0081826280004004L, 0x2020810900284000L, 0x0200100080802000L, 0x0200080080100080L,
+        0x8083080100100500L, 0x4406000901000400L, 0x0005020080800100L, 0x0090204200008114L,
+        0x0010400094800420L, 0x0900804000802002L, 0x0201001841002000L, 0x4100080080801000L,
+        0x4540040080800800L, 0x0002001004040020L, 0x0281195814001002L, 0x1240800040800100L,
+        0x0880042000524004L, 0x02C080410206002CL, 0x0801200241050010L, 0x8400080010008080L,
+        0x0008000500090010L, 0x0082009084020008L, 0x4012000108020004L, 0x9000104D08860004L,
+        0x2004204114800100L, 0x0148802112400300L, 0x0202842000100880L, 0x001B080080900080L,
+        0x001A002008100600L, 0x0004008004020080L, 0x5181000600040300L, 0x0000044401128A00L,
+        0x8044110480002441L, 0x2008110084402202L, 0x90806005090010C1L, 0x000420310A004A42L,
+        0x0023001004020801L, 0x0882001008040102L, 0x000230088118020CL, 0x0000019025040042L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+        0x0045010808008680L, 0x2002080204004898L, 0x0210009A10400006L, 0x0824050200810200L,
+        0x0006061105004090L, 0x00010108C0000000L, 0x0814040282104004L, 0x0012012201106800L,
+        0x10823014100C1040L, 0x0080C2088802808CL, 0x0281108410404000L, 0x0101212041826200L,
+        0x0020141028221058L, 0x2201020202200202L, 0x000082A801482000L, 0x0000008401411044L,
+        0x0007103014300404L, 0x0002091110010100L, 0x42140012040C0808L, 0x0800808802004020L,
+        0x90C4004210140000L, 0x0800200900A01000L, 0x00D0400201108810L, 0x80820183814412A0L,
+        0x00A01008202202B4L, 0x01C2021A09500402L, 0x0084440208042400L, 0x800400400C090100L,
+        0xBA10040010802100L, 0xD182009006005000L, 0x5011021001009004L, 0x0020420200510400L,
+        0x0292104000468800L, 0x00043009091C0500L, 0x0280441000020025L, 0x0042820080080080L,
+        0x0440101010010040L, 0x1000900100808080L, 0x0108108120089800L, 0x0044010200012682L,
+        0xC002500420900400L, 0x0040482210710800L, 0x0002060024000200L, 0x0281020A44000800L,
+        0xA0021200A4000200L, 0x0001301000840840L, 0x2868500108444220L, 0x0004111041000200L,
+        0x8044020842080200L, 0x0000220104210200L, 0x0000021201044000L, 0x0000280884040028L,
+        0x4012114010858003L, 0x0000081004082B88L, 0x3892700508208002L, 0x00220A041B060400L,
+        0x0812020284014881L, 0x010434A282103100L, 0x0490400824020800L, 0x4A20002C00208800L,
+        0x000000A011020200L, 0x4002940A02482202L, 0x5100100202140406L, 0x02102000840540C1L
+    };
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            int row = square >>> 3;
+            int column = square & 7;
+            for (int[] jump : KNIGHT_JUMPS) {
+                KNIGHT_ATTACKS[square] |= bitIfOnBoard(row + jump[0], column + jump[1]);
+            }
+            for (int dRow = -1; dRow <= 1; dRow++) {
+                for (int dColumn = -1; dColumn <= 1; dColumn++) {
+                    if (dRow != 0 || dColumn != 0) {
+                        KING_ATTACKS[square] |= bitIfOnBoard(row + dRow, column + dColumn);
+                    }
+                }
+            }
+            // White pawns move towards row 0, black pawns towards row 7
+            PAWN_ATTACKS[PieceColor.WHITE.ordinal()][square] = bitIfOnBoard(row - 1, column - 1) | bitIfOnBoard(row - 1, column + 1);
+            PAWN_ATTACKS[PieceColor.BLACK.ordinal()][square] = bitIfOnBoard(row + 1, column - 1) | bitIfOnBoard(row + 1, column + 1);
+        }
+
+        initMagics(ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_OFFSETS, ROOK_TABLE);
+        initMagics(BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_OFFSETS, BISHOP_TABLE);
+
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                if (from == to) {
+                    continue;
+                }
+                long ends = bit(from) | bit(to);
+                if ((rookAttacks(from, 0L) & bit(to)) != 0) {
+                    BETWEEN[from][to] = rookAttacks(from, bit(to)) & rookAttacks(to, bit(from));
+                    LINE[from][to] = (rookAttacks(from, 0L) & rookAttacks(to, 0L)) | ends;
+                } else if ((bishopAttacks(from, 0L) & bit(to)) != 0) {
+                    BETWEEN[from][to] = bishopAttacks(from, bit(to)) & bishopAttacks(to, bit(from));
+                    LINE[from][to] = (bishopAttacks(from, 0L) & bishopAttacks(to, 0L)) | ends;
+                }
+            }
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    public static int square(int row, int column) {
+        return (row << 3) | column;
+    }
+
+    public static int row(int square) {
+        return square >>> 3;
+    }
+
+    public static int column(int square) {
+        return square & 7;
+    }
+
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    public static long pawnAttacks(PieceColor color, int square) {
+        return PAWN_ATTACKS[color.ordinal()][square];
+    }
+
+    public static long rookAttacks(int square, long occupied) {
+        int index = (int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square]);
+        return ROOK_TABLE[ROOK_OFFSETS[square] + index];
+    }
+
+    public static long bishopAttacks(int square, long occupied) {
+        int index = (int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square]);
+        return BISHOP_TABLE[BISHOP_OFFSETS[square] + index];
+    }
+
+    public static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    // Empty unless the squares share a rank, file or diagonal
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    // The full rank, file or diagonal through both squares, or empty when they aren't aligned
+    public static long line(int from, int to) {
+        return LINE[from][to];
+    }
+
+    private static long bitIfOnBoard(int row, int column) {
+        if (row < 0 || row > 7 || column < 0 || column > 7) {
+            return 0L;
+        }
+        return bit(square(row, column));
+    }
+
+    // Walks each ray until it leaves the board or hits a blocker, the blocker square being included
+    private static long slidingAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0L;
+        for (int[] direction : directions) {
+            int row = row(square) + direction[0];
+            int column = column(square) + direction[1];
+            while (row >= 0 && row < 8 && column >= 0 && column < 8) {
+                long bit = bit(square(row, column));
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    // Relevant occupancy: the rays without their last square, since a blocker there changes nothing
+    private static long relevantMask(int square, int[][] directions) {
+        long mask = 0L;
+        for (int[] direction : directions) {
+            int row = row(square) + direction[0];
+            int column = column(square) + direction[1];
+            while (row + direction[0] >= 0 && row + direction[0] < 8 &&
+                column + direction[1] >= 0 && column + direction[1] < 8) {
+                mask |= bit(square(row, column));
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    private static void initMagics(int[][] directions, long[] masks, long[] magics, int[] shifts, int[] offsets, long[] table) {
+        int offset = 0;
+        for (int square = 0; square < 64; square++) {
+            long mask = relevantMask(square, directions);
+            int bits = Long.bitCount(mask);
+            masks[square] = mask;
+            shifts[square] = 64 - bits;
+            offsets[square] = offset;
+
+            // Carry-rippler: enumerate every subset of the mask
+            long subset = 0L;
+            do {
+                int index = (int) ((subset * magics[square]) >>> shifts[square]);
+                table[offset + index] = slidingAttacks(square, subset, directions);
+                subset = (subset - mask) & mask;
+            } while (subset != 0);
+
+            offset += 1 << bits;
+        }
+    }
+}
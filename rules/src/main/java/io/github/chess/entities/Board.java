@@ -0,0 +1,185 @@
+package io.github.chess.entities;
+
+import io.github.chess.enums.PieceColor;
+import io.github.chess.enums.PieceType;
+
+import java.util.Arrays;
+
+public class Board {
+    private Piece[][] board;
+
+    // Bitboards kept in sync with the array, see Bitboards for the square numbering
+    private final long[] pieceBitboards = new long[12];
+    private final long[] colorBitboards = new long[2];
+    private long occupied;
+    // Piece index per square, or Move.NO_PIECE, so move generation never has to touch Piece objects
+    private final int[] pieceIndices = new int[64];
+    // Piece-square part of the Zobrist key, see Game.getZobristKey()
+    private long zobristKey;
+
+    public Board() {
+        this.board = new Piece[8][8];
+        Arrays.fill(pieceIndices, Move.NO_PIECE);
+    }
+
+    public Piece[][] getBoard() {
+        return board;
+    }
+
+    public Piece getPiece(int row, int column) {
+        return board[row][column];
+    }
+
+    public Piece getPiece(int square) {
+        return board[Bitboards.row(square)][Bitboards.column(square)];
+    }
+
+    public int getPieceIndex(int square) {
+        return pieceIndices[square];
+    }
+
+    public void setPiece(int row, int column, Piece piece) {
+        setPiece(Bitboards.square(row, column), piece);
+    }
+
+    // Every write to the board must go through here so the bitboards stay in sync
+    public void setPiece(int square, Piece piece) {
+        int row = Bitboards.row(square);
+        int column = Bitboards.column(square);
+        long bit = Bitboards.bit(square);
+        Piece previous = board[row][column];
+        if (previous != null) {
+            pieceBitboards[previous.getIndex()] &= ~bit;
+            colorBitboards[previous.getColor().ordinal()] &= ~bit;
+            zobristKey ^= Zobrist.piece(previous.getIndex(), square);
+        }
+        board[row][column] = piece;
+        pieceIndices[square] = Move.NO_PIECE;
+        if (piece != null) {
+            pieceBitboards[piece.getIndex()] |= bit;
+            colorBitboards[piece.getColor().ordinal()] |= bit;
+            pieceIndices[square] = piece.getIndex();
+            zobristKey ^= Zobrist.piece(piece.getIndex(), square);
+        }
+        occupied = colorBitboards[0] | colorBitboards[1];
+    }
+
+    public long getPieces(PieceColor color, PieceType type) {
+        return pieceBitboards[color.ordinal() * 6 + type.ordinal()];
+    }
+
+    public long getPieces(PieceColor color) {
+        return colorBitboards[color.ordinal()];
+    }
+
+    public long getOccupied() {
+        return occupied;
+    }
+
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    public boolean isSquareAttacked(int square, PieceColor byColor) {
+        PieceColor defender = byColor == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+        // A pawn of the defending color on this square would attack exactly the enemy pawns that attack it
+        if ((Bitboards.pawnAttacks(defender, square) & getPieces(byColor, PieceType.PAWN)) != 0) {
+            return true;
+        }
+        if ((Bitboards.knightAttacks(square) & getPieces(byColor, PieceType.KNIGHT)) != 0) {
+            return true;
+        }
+        if ((Bitboards.kingAttacks(square) & getPieces(byColor, PieceType.KING)) != 0) {
+            return true;
+        }
+        long queens = getPieces(byColor, PieceType.QUEEN);
+        if ((Bitboards.rookAttacks(square, occupied) & (getPieces(byColor, PieceType.ROOK) | queens)) != 0) {
+            return true;
+        }
+        return (Bitboards.bishopAttacks(square, occupied) & (getPieces(byColor, PieceType.BISHOP) | queens)) != 0;
+    }
+
+    // Pieces of a color attacking the square, given an occupancy so callers can look through pieces
+    public long getAttackers(int square, PieceColor byColor, long occupied) {
+        PieceColor defender = byColor == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+        long queens = getPieces(byColor, PieceType.QUEEN);
+        return (Bitboards.pawnAttacks(defender, square) & getPieces(byColor, PieceType.PAWN))
+            | (Bitboards.knightAttacks(square) & getPieces(byColor, PieceType.KNIGHT))
+            | (Bitboards.kingAttacks(square) & getPieces(byColor, PieceType.KING))
+            | (Bitboards.rookAttacks(square, occupied) & (getPieces(byColor, PieceType.ROOK) | queens))
+            | (Bitboards.bishopAttacks(square, occupied) & (getPieces(byColor, PieceType.BISHOP) | queens));
+    }
+
+    // Enemy pieces giving check to the king on the square
+    public long getCheckers(int kingSquare, PieceColor kingColor) {
+        PieceColor enemy = kingColor == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+        return getAttackers(kingSquare, enemy, occupied);
+    }
+
+    // Own pieces that are the only thing between the king and an enemy slider
+    public long getPinned(int kingSquare, PieceColor kingColor) {
+        PieceColor enemy = kingColor == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+        long queens = getPieces(enemy, PieceType.QUEEN);
+        // Sliders that would see the king if no piece were in the way
+        long snipers = (Bitboards.rookAttacks(kingSquare, 0L) & (getPieces(enemy, PieceType.ROOK) | queens))
+            | (Bitboards.bishopAttacks(kingSquare, 0L) & (getPieces(enemy, PieceType.BISHOP) | queens));
+        long pinned = 0L;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = Bitboards.between(kingSquare, sniper) & occupied;
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & colorBitboards[kingColor.ordinal()];
+            }
+        }
+        return pinned;
+    }
+
+    // Every square attacked by a color, given an occupancy
+    public long getAttackedSquares(PieceColor byColor, long occupied) {
+        int base = byColor.ordinal() * 6;
+        long attacked = 0L;
+        long pawns = pieceBitboards[base + PieceType.PAWN.ordinal()];
+        while (pawns != 0) {
+            attacked |= Bitboards.pawnAttacks(byColor, Long.numberOfTrailingZeros(pawns));
+            pawns &= pawns - 1;
+        }
+        long knights = pieceBitboards[base + PieceType.KNIGHT.ordinal()];
+        while (knights != 0) {
+            attacked |= Bitboards.knightAttacks(Long.numberOfTrailingZeros(knights));
+            knights &= knights - 1;
+        }
+        long queens = pieceBitboards[base + PieceType.QUEEN.ordinal()];
+        long diagonals = pieceBitboards[base + PieceType.BISHOP.ordinal()] | queens;
+        while (diagonals != 0) {
+            attacked |= Bitboards.bishopAttacks(Long.numberOfTrailingZeros(diagonals), occupied);
+            diagonals &= diagonals - 1;
+        }
+        long straights = pieceBitboards[base + PieceType.ROOK.ordinal()] | queens;
+        while (straights != 0) {
+            attacked |= Bitboards.rookAttacks(Long.numberOfTrailingZeros(straights), occupied);
+            straights &= straights - 1;
+        }
+        long kings = pieceBitboards[base + PieceType.KING.ordinal()];
+        if (kings != 0) {
+            attacked |= Bitboards.kingAttacks(Long.numberOfTrailingZeros(kings));
+        }
+        return attacked;
+    }
+
+    public boolean movePiece(Position start, Position end) {
+        return movePiece(start.getSquare(), end.getSquare());
+    }
+
+    // False if there is no piece on the start square
+    public boolean movePiece(int start, int end) {
+        Piece piece = getPiece(start);
+        if (piece == null) {
+            return false;
+        }
+        setPiece(start, null);
+        setPiece(end, piece);
+        piece.setPosition(Position.of(end));
+        return true;
+    }
+}
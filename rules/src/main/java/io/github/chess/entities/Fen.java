@@ -0,0 +1,219 @@
+package io.github.chess.entities;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Position in Forsyth-Edwards Notation, parsed in place from a CharSequence or an ASCII ByteBuffer without
+ * splitting it into strings. A Fen can be reused for any number of positions; Game.setPosition(Fen) loads it.
+ */
+public class Fen {
+
+    public static final String START_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    // Piece letters in piece index order, black first as in Board
+    static final String PIECE_LETTERS = "pnbrqkPNBRQK";
+
+    // Piece index per square, or Move.NO_PIECE
+    final int[] pieces = new int[64];
+    boolean whiteTurn;
+    // Mask of the Zobrist castling constants
+    int castlingRights;
+    // Square behind a pawn that just moved two squares, or -1
+    int enPassantSquare;
+    int halfmoveClock;
+    int fullmoveNumber;
+
+    // The text being parsed, one of the two is set for the duration of parse()
+    private CharSequence chars;
+    private ByteBuffer bytes;
+    private int index;
+    private int end;
+
+    public boolean parse(CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    // Parses text[start, end), so that a record can be read straight out of a larger buffer
+    public boolean parse(CharSequence text, int start, int end) {
+        chars = text;
+        boolean valid = parse(start, end);
+        chars = null;
+        return valid;
+    }
+
+    // Reads buffer[position, limit) with absolute gets; the buffer position is left alone
+    public boolean parse(ByteBuffer buffer) {
+        return parse(buffer, buffer.position(), buffer.limit());
+    }
+
+    public boolean parse(ByteBuffer buffer, int start, int end) {
+        bytes = buffer;
+        boolean valid = parse(start, end);
+        bytes = null;
+        return valid;
+    }
+
+    // False when the text is not a FEN record; the fields are then left in an unspecified state.
+    // The clocks can be left out, as in EPD records, and anything after them is ignored.
+    private boolean parse(int start, int end) {
+        index = start;
+        this.end = end;
+        skipSpaces();
+        return parsePlacement() && parseSpaces() && parseSideToMove() && parseSpaces() && parseCastling()
+            && parseSpaces() && parseEnPassant() && parseClocks();
+    }
+
+    private boolean parsePlacement() {
+        Arrays.fill(pieces, Move.NO_PIECE);
+        int whiteKings = 0;
+        int blackKings = 0;
+        for (int row = 0; row < 8; row++) {
+            if (row > 0 && next() != '/') {
+                return false;
+            }
+            int col = 0;
+            while (col < 8) {
+                char c = next();
+                if (c >= '1' && c <= '8') {
+                    col += c - '0';
+                    continue;
+                }
+                int piece = PIECE_LETTERS.indexOf(c);
+                if (piece < 0) {
+                    return false;
+                }
+                // Pawns can't stand on the first or last rank
+                if (piece % 6 == 0 && (row == 0 || row == 7)) {
+                    return false;
+                }
+                if (piece == 5) {
+                    blackKings++;
+                } else if (piece == 11) {
+                    whiteKings++;
+                }
+                pieces[Bitboards.square(row, col++)] = piece;
+            }
+            if (col != 8) {
+                return false;
+            }
+        }
+        return whiteKings == 1 && blackKings == 1;
+    }
+
+    private boolean parseSideToMove() {
+        char c = next();
+        whiteTurn = c == 'w';
+        return c == 'w' || c == 'b';
+    }
+
+    private boolean parseCastling() {
+        castlingRights = 0;
+        char c = next();
+        if (c == '-') {
+            return true;
+        }
+        while (true) {
+            switch (c) {
+                case 'K':
+                    castlingRights |= Zobrist.WHITE_KING_SIDE;
+                    break;
+                case 'Q':
+                    castlingRights |= Zobrist.WHITE_QUEEN_SIDE;
+                    break;
+                case 'k':
+                    castlingRights |= Zobrist.BLACK_KING_SIDE;
+                    break;
+                case 'q':
+                    castlingRights |= Zobrist.BLACK_QUEEN_SIDE;
+                    break;
+                default:
+                    return false;
+            }
+            if (index == end || isSpace(peek())) {
+                return true;
+            }
+            c = next();
+        }
+    }
+
+    private boolean parseEnPassant() {
+        enPassantSquare = -1;
+        char file = next();
+        if (file == '-') {
+            return true;
+        }
+        char rank = next();
+        if (file < 'a' || file > 'h' || rank != (whiteTurn ? '6' : '3')) {
+            return false;
+        }
+        enPassantSquare = Bitboards.square('8' - rank, file - 'a');
+        return true;
+    }
+
+    private boolean parseClocks() {
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        if (index == end) {
+            return true;
+        }
+        if (!isSpace(peek())) {
+            return false;
+        }
+        skipSpaces();
+        if (index == end || !isDigit(peek())) {
+            return true;
+        }
+        halfmoveClock = parseNumber();
+        skipSpaces();
+        if (index < end && isDigit(peek())) {
+            fullmoveNumber = Math.max(1, parseNumber());
+        }
+        return true;
+    }
+
+    private int parseNumber() {
+        int value = 0;
+        while (index < end && isDigit(peek())) {
+            // Clamped rather than overflowing on absurd input
+            value = Math.min(value * 10 + (next() - '0'), 1_000_000);
+        }
+        return value;
+    }
+
+    private boolean parseSpaces() {
+        if (index == end || !isSpace(peek())) {
+            return false;
+        }
+        skipSpaces();
+        return index < end;
+    }
+
+    private void skipSpaces() {
+        while (index < end && isSpace(peek())) {
+            index++;
+        }
+    }
+
+    // Returns 0 past the end, which no parse step accepts
+    private char next() {
+        if (index == end) {
+            return 0;
+        }
+        char c = peek();
+        index++;
+        return c;
+    }
+
+    private char peek() {
+        return chars != null ? chars.charAt(index) : (char) (bytes.get(index) & 0xFF);
+    }
+
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,844 @@
+package io.github.chess.entities;
+
+import io.github.chess.enums.PieceColor;
+import io.github.chess.enums.PieceType;
+
+import java.util.Arrays;
+
+public class Game {
+
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+    private static final String FILES = "abcdefgh";
+    // By piece type, for the algebraic notation
+    private static final String PIECE_LETTERS = "PNBRQK";
+    // Piece indices, see Board
+    private static final int BLACK_PAWN = 0;
+    private static final int BLACK_ROOK = 3;
+    private static final int BLACK_KING = 5;
+    private static final int WHITE_PAWN = 6;
+    private static final int WHITE_ROOK = 9;
+    private static final int WHITE_KING = 11;
+
+    private final Board board;
+    private boolean whiteTurn = true;
+    private Position whiteKingPosition;
+    private Position blackKingPosition;
+    private Position enPassantTarget;
+    private Position lastPawnDoubleMove;
+    private Position promotionPosition;
+    private PieceColor promotionColor;
+    private boolean isPromoting = false;
+    private boolean waitingForPromotionSelection = false;
+    private boolean whiteKingMoved = false;
+    private boolean blackKingMoved = false;
+    private boolean whiteRookAMoved = false;
+    private boolean whiteRookHMoved = false;
+    private boolean blackRookAMoved = false;
+    private boolean blackRookHMoved = false;
+    private Position pendingPromotionFrom;
+    private final int[] moveBuffer = new int[MoveGenerator.MAX_MOVES];
+    private UndoEntry[] undoStack = new UndoEntry[256];
+    private int undoCount = 0;
+    // Side to move, castling and en passant part of the Zobrist key; the board holds the piece part
+    private long stateKey;
+    private long enPassantKey;
+    // Moves since the last capture or pawn move, and the move number that starts at 1 and grows after black moves
+    private int halfmoveClock = 0;
+    private int fullmoveNumber = 1;
+    private final GameStatus status = new GameStatus();
+    // Reused by loadFen()
+    private Fen fenParser;
+    private MoveListener moveListener;
+
+    public Game() {
+        for (int i = 0; i < undoStack.length; i++) {
+            undoStack[i] = new UndoEntry();
+        }
+        this.board = new Board();
+        initializeBoard();
+        updateKingPositions();
+        stateKey = Zobrist.castling(getCastlingRights());
+    }
+
+    // Independent copy of the position with its own board and pieces, so that another thread can search it.
+    // The copy keeps the repetition history but can't unmake the moves played before it was made.
+    public Game(Game other) {
+        for (int i = 0; i < undoStack.length; i++) {
+            undoStack[i] = new UndoEntry();
+        }
+        this.board = new Board();
+        Piece[][] pieces = other.board.getBoard();
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                Piece piece = pieces[row][col];
+                if (piece != null) {
+                    board.setPiece(row, col, createPiece(piece.getType(), piece.getColor(), Position.of(row, col)));
+                }
+            }
+        }
+        updateKingPositions();
+
+        whiteTurn = other.whiteTurn;
+        enPassantTarget = other.enPassantTarget;
+        lastPawnDoubleMove = other.lastPawnDoubleMove;
+        promotionPosition = other.promotionPosition;
+        promotionColor = other.promotionColor;
+        isPromoting = other.isPromoting;
+        waitingForPromotionSelection = other.waitingForPromotionSelection;
+        pendingPromotionFrom = other.pendingPromotionFrom;
+        whiteKingMoved = other.whiteKingMoved;
+        blackKingMoved = other.blackKingMoved;
+        whiteRookAMoved = other.whiteRookAMoved;
+        whiteRookHMoved = other.whiteRookHMoved;
+        blackRookAMoved = other.blackRookAMoved;
+        blackRookHMoved = other.blackRookHMoved;
+        stateKey = other.stateKey;
+        enPassantKey = other.enPassantKey;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+
+        while (undoStack.length < other.undoCount) {
+            growUndoStack();
+        }
+        for (int i = 0; i < other.undoCount; i++) {
+            undoStack[i].zobristKey = other.undoStack[i].zobristKey;
+            undoStack[i].move = other.undoStack[i].move;
+        }
+        undoCount = other.undoCount;
+    }
+
+    private void initializeBoard() {
+        // Initializing pieces
+        for (int col = 0; col < 8; col++) {
+            board.setPiece(1, col, new Pawn(PieceColor.BLACK, Position.of(1, col), this));
+            board.setPiece(6, col, new Pawn(PieceColor.WHITE, Position.of(6, col), this));
+        }
+
+        board.setPiece(0, 0, new Rook(PieceColor.BLACK, Position.of(0, 0), this));
+        board.setPiece(0, 7, new Rook(PieceColor.BLACK, Position.of(0, 7), this));
+        board.setPiece(7, 0, new Rook(PieceColor.WHITE, Position.of(7, 0), this));
+        board.setPiece(7, 7, new Rook(PieceColor.WHITE, Position.of(7, 7), this));
+
+        board.setPiece(0, 1, new Knight(PieceColor.BLACK, Position.of(0, 1), this));
+        board.setPiece(0, 6, new Knight(PieceColor.BLACK, Position.of(0, 6), this));
+        board.setPiece(7, 1, new Knight(PieceColor.WHITE, Position.of(7, 1), this));
+        board.setPiece(7, 6, new Knight(PieceColor.WHITE, Position.of(7, 6), this));
+
+        board.setPiece(0, 2, new Bishop(PieceColor.BLACK, Position.of(0, 2), this));
+        board.setPiece(0, 5, new Bishop(PieceColor.BLACK, Position.of(0, 5), this));
+        board.setPiece(7, 2, new Bishop(PieceColor.WHITE, Position.of(7, 2), this));
+        board.setPiece(7, 5, new Bishop(PieceColor.WHITE, Position.of(7, 5), this));
+
+        board.setPiece(0, 3, new Queen(PieceColor.BLACK, Position.of(0, 3), this));
+        board.setPiece(7, 3, new Queen(PieceColor.WHITE, Position.of(7, 3), this));
+
+        board.setPiece(0, 4, new King(PieceColor.BLACK, Position.of(0, 4), this));
+        board.setPiece(7, 4, new King(PieceColor.WHITE, Position.of(7, 4), this));
+    }
+
+    public boolean movePiece(Position from, Position to) {
+        return movePiece(from.getSquare(), to.getSquare());
+    }
+
+    public boolean movePiece(int from, int to) {
+        if (waitingForPromotionSelection) {
+            return false;
+        }
+
+        int move = findLegalMove(from, to, PieceType.QUEEN);
+        if (move == Move.NONE) {
+            return false;
+        }
+
+        // Check for pawn promotion, the move is played once the piece has been chosen
+        if (Move.isPromotion(move)) {
+            pendingPromotionFrom = Position.of(from);
+            promotionPosition = Position.of(to);
+            promotionColor = whiteTurn ? PieceColor.WHITE : PieceColor.BLACK;
+            isPromoting = true;
+            waitingForPromotionSelection = true;
+            return false;
+        }
+
+        // Notation needs the position from before the move, and is only worked out for a listener
+        String notation = moveListener == null ? null : getAlgebraicNotation(move);
+        makeMove(move);
+        if (moveListener != null) {
+            moveListener.onMove(this, move, notation);
+        }
+        return true;
+    }
+
+    public boolean promote(PieceType type) {
+        if (!waitingForPromotionSelection) {
+            return false;
+        }
+
+        int from = pendingPromotionFrom.getSquare();
+        int to = promotionPosition.getSquare();
+        int move = findLegalMove(from, to, type);
+        if (move == Move.NONE) {
+            return false;
+        }
+
+        String notation = moveListener == null ? null : getAlgebraicNotation(move);
+        makeMove(move);
+        if (moveListener != null) {
+            moveListener.onMove(this, move, notation);
+        }
+
+        pendingPromotionFrom = null;
+        isPromoting = false;
+        waitingForPromotionSelection = false;
+        return true;
+    }
+
+    // Standard algebraic notation of a legal move of the side to move, such as "Nbd7", "exd6", "e8=Q+" or "O-O-O#"
+    public String getAlgebraicNotation(int move) {
+        StringBuilder notation = new StringBuilder(8);
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int type = Move.piece(move) % 6;
+        if (Move.isCastling(move)) {
+            notation.append(to > from ? "O-O" : "O-O-O");
+        } else if (type == PieceType.PAWN.ordinal()) {
+            if (Move.isCapture(move)) {
+                notation.append(FILES.charAt(Bitboards.column(from))).append('x');
+            }
+            appendSquare(notation, to);
+            if (Move.isPromotion(move)) {
+                notation.append('=').append(PIECE_LETTERS.charAt(Move.promotion(move) % 6));
+            }
+        } else {
+            notation.append(PIECE_LETTERS.charAt(type));
+            appendDisambiguation(notation, move);
+            if (Move.isCapture(move)) {
+                notation.append('x');
+            }
+            appendSquare(notation, to);
+        }
+
+        // The status of the position after the move is cached, so the caller playing it next costs nothing more
+        makeMove(move);
+        GameStatus after = getStatus();
+        if (after.isCheckmate()) {
+            notation.append('#');
+        } else if (after.isInCheck(after.getSideToMove())) {
+            notation.append('+');
+        }
+        unmakeMove();
+        return notation.toString();
+    }
+
+    // The file of the moving piece when another piece of its kind can go to the same square, else its rank if that
+    // tells them apart, else both
+    private void appendDisambiguation(StringBuilder notation, int move) {
+        int from = Move.from(move);
+        GameStatus before = getStatus();
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (int i = 0; i < before.getMoveCount(); i++) {
+            int other = before.getMove(i);
+            int otherFrom = Move.from(other);
+            if (otherFrom == from || Move.to(other) != Move.to(move) || Move.piece(other) != Move.piece(move)) {
+                continue;
+            }
+            ambiguous = true;
+            sameFile |= Bitboards.column(otherFrom) == Bitboards.column(from);
+            sameRank |= Bitboards.row(otherFrom) == Bitboards.row(from);
+        }
+        if (ambiguous && (!sameFile || sameRank)) {
+            notation.append(FILES.charAt(Bitboards.column(from)));
+        }
+        if (ambiguous && sameFile) {
+            appendRank(notation, from);
+        }
+    }
+
+    private static void appendSquare(StringBuilder notation, int square) {
+        notation.append(FILES.charAt(Bitboards.column(square)));
+        appendRank(notation, square);
+    }
+
+    private static void appendRank(StringBuilder notation, int square) {
+        notation.append(8 - Bitboards.row(square));
+    }
+
+    // The legal move of the side to move between two squares; promotions resolve to the given piece type
+    private int findLegalMove(int fromSquare, int toSquare, PieceType promotion) {
+        int count = MoveGenerator.generateLegalMoves(this, moveBuffer);
+        for (int i = 0; i < count; i++) {
+            int move = moveBuffer[i];
+            if (Move.from(move) == fromSquare && Move.to(move) == toSquare &&
+                (!Move.isPromotion(move) || Move.promotion(move) % 6 == promotion.ordinal())) {
+                return move;
+            }
+        }
+        return Move.NONE;
+    }
+
+    // Plays a move produced by MoveGenerator. The previous state is pushed on the undo stack so that
+    // unmakeMove() can restore it without rescanning the board.
+    public void makeMove(int move) {
+        if (undoCount == undoStack.length) {
+            growUndoStack();
+        }
+        int from = Move.from(move);
+        int to = Move.to(move);
+        Piece piece = board.getPiece(from);
+        PieceColor color = piece.getColor();
+        int capturedSquare = Move.isEnPassant(move) ? to + (color == PieceColor.WHITE ? 8 : -8) : to;
+
+        UndoEntry undo = undoStack[undoCount++];
+        undo.zobristKey = getZobristKey();
+        undo.move = move;
+        undo.piece = piece;
+        undo.fromPosition = piece.getPosition();
+        undo.captured = board.getPiece(capturedSquare);
+        undo.enPassantTarget = enPassantTarget;
+        undo.lastPawnDoubleMove = lastPawnDoubleMove;
+        undo.whiteKingPosition = whiteKingPosition;
+        undo.blackKingPosition = blackKingPosition;
+        undo.whiteKingMoved = whiteKingMoved;
+        undo.blackKingMoved = blackKingMoved;
+        undo.whiteRookAMoved = whiteRookAMoved;
+        undo.whiteRookHMoved = whiteRookHMoved;
+        undo.blackRookAMoved = blackRookAMoved;
+        undo.blackRookHMoved = blackRookHMoved;
+        undo.stateKey = stateKey;
+        undo.enPassantKey = enPassantKey;
+        undo.halfmoveClock = halfmoveClock;
+        int castlingRights = getCastlingRights();
+        halfmoveClock = undo.captured != null || piece instanceof Pawn ? 0 : halfmoveClock + 1;
+        if (color == PieceColor.BLACK) {
+            fullmoveNumber++;
+        }
+
+        if (undo.captured != null) {
+            board.setPiece(capturedSquare, null);
+        }
+        board.setPiece(from, null);
+
+        Position target = Position.of(to);
+        Piece placed = piece;
+        if (Move.isPromotion(move)) {
+            // Promoted pieces are kept in their undo slot and reused by later moves at the same depth
+            if (undo.promoted == null || undo.promoted.getIndex() != Move.promotion(move)) {
+                undo.promoted = createPiece(PIECE_TYPES[Move.promotion(move) % 6], color, target);
+            }
+            placed = undo.promoted;
+        }
+        board.setPiece(to, placed);
+        placed.setPosition(target);
+
+        if (Move.isCastling(move)) {
+            // The rook stands in the corner of the king's side and lands on the square the king crossed
+            boolean isKingSide = to > from;
+            int rookFrom = isKingSide ? to + 1 : to - 2;
+            int rookTo = isKingSide ? to - 1 : to + 1;
+            Piece rook = board.getPiece(rookFrom);
+            board.setPiece(rookFrom, null);
+            board.setPiece(rookTo, rook);
+            rook.setPosition(Position.of(rookTo));
+        }
+
+        if (piece instanceof King) {
+            if (color == PieceColor.WHITE) {
+                whiteKingPosition = target;
+            } else {
+                blackKingPosition = target;
+            }
+        }
+        updateCastlingRights(from);
+        updateCastlingRights(to);
+
+        stateKey ^= enPassantKey;
+        enPassantKey = 0L;
+        if (Move.isDoublePawnPush(move)) {
+            int enPassantSquare = (from + to) / 2;
+            enPassantTarget = Position.of(enPassantSquare);
+            lastPawnDoubleMove = target;
+            // Only hash the target when an enemy pawn can actually take, so transpositions still match
+            PieceColor enemy = color == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+            if ((Bitboards.pawnAttacks(color, enPassantSquare) & board.getPieces(enemy, PieceType.PAWN)) != 0) {
+                enPassantKey = Zobrist.enPassant(target.getColumn());
+            }
+        } else {
+            enPassantTarget = null;
+            lastPawnDoubleMove = null;
+        }
+
+        stateKey ^= enPassantKey ^ Zobrist.castling(castlingRights) ^ Zobrist.castling(getCastlingRights())
+            ^ Zobrist.blackToMove();
+        whiteTurn = !whiteTurn;
+    }
+
+    public void unmakeMove() {
+        UndoEntry undo = undoStack[--undoCount];
+        int move = undo.move;
+        int from = Move.from(move);
+        int to = Move.to(move);
+
+        if (Move.isCastling(move)) {
+            boolean isKingSide = to > from;
+            int rookFrom = isKingSide ? to + 1 : to - 2;
+            int rookTo = isKingSide ? to - 1 : to + 1;
+            Piece rook = board.getPiece(rookTo);
+            board.setPiece(rookTo, null);
+            board.setPiece(rookFrom, rook);
+            rook.setPosition(Position.of(rookFrom));
+        }
+
+        board.setPiece(to, null);
+        board.setPiece(from, undo.piece);
+        undo.piece.setPosition(undo.fromPosition);
+        if (undo.captured != null) {
+            // The captured piece never had its position changed, so it goes back where it stood
+            board.setPiece(undo.captured.getSquare(), undo.captured);
+        }
+
+        enPassantTarget = undo.enPassantTarget;
+        lastPawnDoubleMove = undo.lastPawnDoubleMove;
+        whiteKingPosition = undo.whiteKingPosition;
+        blackKingPosition = undo.blackKingPosition;
+        whiteKingMoved = undo.whiteKingMoved;
+        blackKingMoved = undo.blackKingMoved;
+        whiteRookAMoved = undo.whiteRookAMoved;
+        whiteRookHMoved = undo.whiteRookHMoved;
+        blackRookAMoved = undo.blackRookAMoved;
+        blackRookHMoved = undo.blackRookHMoved;
+        stateKey = undo.stateKey;
+        enPassantKey = undo.enPassantKey;
+        halfmoveClock = undo.halfmoveClock;
+        if (undo.piece.getColor() == PieceColor.BLACK) {
+            fullmoveNumber--;
+        }
+        whiteTurn = !whiteTurn;
+    }
+
+    // Passes the turn without moving, for null-move pruning. Only the side to move and en passant change.
+    public void makeNullMove() {
+        if (undoCount == undoStack.length) {
+            growUndoStack();
+        }
+        UndoEntry undo = undoStack[undoCount++];
+        undo.zobristKey = getZobristKey();
+        undo.move = Move.NONE;
+        undo.enPassantTarget = enPassantTarget;
+        undo.lastPawnDoubleMove = lastPawnDoubleMove;
+        undo.stateKey = stateKey;
+        undo.enPassantKey = enPassantKey;
+
+        stateKey ^= enPassantKey ^ Zobrist.blackToMove();
+        enPassantKey = 0L;
+        enPassantTarget = null;
+        lastPawnDoubleMove = null;
+        whiteTurn = !whiteTurn;
+    }
+
+    public void unmakeNullMove() {
+        UndoEntry undo = undoStack[--undoCount];
+        enPassantTarget = undo.enPassantTarget;
+        lastPawnDoubleMove = undo.lastPawnDoubleMove;
+        stateKey = undo.stateKey;
+        enPassantKey = undo.enPassantKey;
+        whiteTurn = !whiteTurn;
+    }
+
+    // True when the current position already occurred since the last capture or pawn move
+    public boolean isRepetition() {
+        long key = getZobristKey();
+        for (int i = undoCount - 1; i >= 0; i--) {
+            UndoEntry undo = undoStack[i];
+            int move = undo.move;
+            if (move != Move.NONE && (Move.isCapture(move) || Move.piece(move) % 6 == PieceType.PAWN.ordinal())) {
+                return false;
+            }
+            if (undo.zobristKey == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // A move from or to a corner or king square gives up the matching castling rights
+    private void updateCastlingRights(int square) {
+        switch (square) {
+            case 60: // e1
+                whiteKingMoved = true;
+                break;
+            case 56: // a1
+                whiteRookAMoved = true;
+                break;
+            case 63: // h1
+                whiteRookHMoved = true;
+                break;
+            case 4: // e8
+                blackKingMoved = true;
+                break;
+            case 0: // a8
+                blackRookAMoved = true;
+                break;
+            case 7: // h8
+                blackRookHMoved = true;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void growUndoStack() {
+        int size = undoStack.length;
+        undoStack = Arrays.copyOf(undoStack, size * 2);
+        for (int i = size; i < undoStack.length; i++) {
+            undoStack[i] = new UndoEntry();
+        }
+    }
+
+    private Piece createPiece(PieceType type, PieceColor color, Position position) {
+        switch (type) {
+            case QUEEN:
+                return new Queen(color, position, this);
+            case ROOK:
+                return new Rook(color, position, this);
+            case BISHOP:
+                return new Bishop(color, position, this);
+            case KNIGHT:
+                return new Knight(color, position, this);
+            case KING:
+                return new King(color, position, this);
+            default:
+                return new Pawn(color, position, this);
+        }
+    }
+
+    private void updateKingPositions() {
+        Piece[][] pieces = board.getBoard();
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                Piece piece = pieces[row][col];
+                if (piece instanceof King) {
+                    if (piece.getColor() == PieceColor.WHITE) {
+                        whiteKingPosition = Position.of(row, col);
+                    } else {
+                        blackKingPosition = Position.of(row, col);
+                    }
+                }
+            }
+        }
+    }
+
+    public boolean isInCheck(PieceColor kingColor) {
+        Position kingPosition = (kingColor == PieceColor.WHITE) ? whiteKingPosition : blackKingPosition;
+        PieceColor opponent = (kingColor == PieceColor.WHITE) ? PieceColor.BLACK : PieceColor.WHITE;
+        return board.isSquareAttacked(kingPosition.getSquare(), opponent);
+    }
+
+    public boolean isCheckmate(PieceColor kingColor) {
+        if (!isInCheck(kingColor)) {
+            return false;
+        }
+
+        // Checkmate when no legal move gets the king out of check
+        return MoveGenerator.generateLegalMoves(this, kingColor, moveBuffer, 0) == 0;
+    }
+
+    public boolean isValidMoveInCheck(Piece piece, Position newPos) {
+        return isValidMoveInCheck(piece, newPos.getSquare());
+    }
+
+    public boolean isValidMoveInCheck(Piece piece, int to) {
+        if (!piece.isValidMove(to, board.getBoard())) {
+            return false;
+        }
+
+        // The generator only produces moves that leave the king safe, so nothing has to be played to find out
+        int from = piece.getSquare();
+        int count = MoveGenerator.generateLegalMoves(this, piece.getColor(), moveBuffer, 0);
+        for (int i = 0; i < count; i++) {
+            if (Move.from(moveBuffer[i]) == from && Move.to(moveBuffer[i]) == to) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean castle(PieceColor color, boolean isKingSide) {
+        PieceColor sideToMove = whiteTurn ? PieceColor.WHITE : PieceColor.BLACK;
+        if (color != sideToMove || waitingForPromotionSelection) {
+            return false;
+        }
+
+        int count = MoveGenerator.generateLegalMoves(this, moveBuffer);
+        for (int i = 0; i < count; i++) {
+            int move = moveBuffer[i];
+            if (Move.isCastling(move) && (Move.to(move) > Move.from(move)) == isKingSide) {
+                String notation = moveListener == null ? null : getAlgebraicNotation(move);
+                makeMove(move);
+                if (moveListener != null) {
+                    moveListener.onMove(this, move, notation);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean hasCastlingRights(PieceColor color, boolean isKingSide) {
+        if (color == PieceColor.WHITE) {
+            return !whiteKingMoved && !(isKingSide ? whiteRookHMoved : whiteRookAMoved);
+        }
+        return !blackKingMoved && !(isKingSide ? blackRookHMoved : blackRookAMoved);
+    }
+
+    // Castling rights still available, as a mask of the Zobrist castling constants
+    public int getCastlingRights() {
+        int rights = 0;
+        if (hasCastlingRights(PieceColor.WHITE, true)) rights |= Zobrist.WHITE_KING_SIDE;
+        if (hasCastlingRights(PieceColor.WHITE, false)) rights |= Zobrist.WHITE_QUEEN_SIDE;
+        if (hasCastlingRights(PieceColor.BLACK, true)) rights |= Zobrist.BLACK_KING_SIDE;
+        if (hasCastlingRights(PieceColor.BLACK, false)) rights |= Zobrist.BLACK_QUEEN_SIDE;
+        return rights;
+    }
+
+    // Replaces the whole position and clears the move history. Castling rights are only kept while the king and
+    // rook stand on their squares, and the en passant target only behind a pawn that can have just moved there.
+    // Beyond that the position isn't checked, so a side not to move that is in check is taken as it comes.
+    public void setPosition(Fen fen) {
+        // Promoted pieces left in the undo slots may still be on the board, where they could be reused below
+        for (int i = 0; i < undoCount; i++) {
+            undoStack[i].promoted = null;
+        }
+        undoCount = 0;
+
+        for (int square = 0; square < 64; square++) {
+            int index = fen.pieces[square];
+            Piece current = board.getPiece(square);
+            if (index == Move.NO_PIECE) {
+                if (current != null) {
+                    board.setPiece(square, null);
+                }
+            } else if (current == null || current.getIndex() != index) {
+                PieceColor color = index < 6 ? PieceColor.BLACK : PieceColor.WHITE;
+                board.setPiece(square, createPiece(PIECE_TYPES[index % 6], color, Position.of(square)));
+            }
+        }
+        updateKingPositions();
+
+        int rights = fen.castlingRights;
+        if (fen.pieces[60] != WHITE_KING || fen.pieces[63] != WHITE_ROOK) rights &= ~Zobrist.WHITE_KING_SIDE;
+        if (fen.pieces[60] != WHITE_KING || fen.pieces[56] != WHITE_ROOK) rights &= ~Zobrist.WHITE_QUEEN_SIDE;
+        if (fen.pieces[4] != BLACK_KING || fen.pieces[7] != BLACK_ROOK) rights &= ~Zobrist.BLACK_KING_SIDE;
+        if (fen.pieces[4] != BLACK_KING || fen.pieces[0] != BLACK_ROOK) rights &= ~Zobrist.BLACK_QUEEN_SIDE;
+        whiteKingMoved = false;
+        blackKingMoved = false;
+        whiteRookHMoved = (rights & Zobrist.WHITE_KING_SIDE) == 0;
+        whiteRookAMoved = (rights & Zobrist.WHITE_QUEEN_SIDE) == 0;
+        blackRookHMoved = (rights & Zobrist.BLACK_KING_SIDE) == 0;
+        blackRookAMoved = (rights & Zobrist.BLACK_QUEEN_SIDE) == 0;
+
+        whiteTurn = fen.whiteTurn;
+        enPassantTarget = null;
+        lastPawnDoubleMove = null;
+        enPassantKey = 0L;
+        int enPassantSquare = fen.enPassantSquare;
+        if (enPassantSquare >= 0) {
+            // The pawn stands one square past the target, seen from the side that pushed it
+            int pawnSquare = enPassantSquare + (whiteTurn ? 8 : -8);
+            int startSquare = enPassantSquare + (whiteTurn ? -8 : 8);
+            PieceColor pusher = whiteTurn ? PieceColor.BLACK : PieceColor.WHITE;
+            PieceColor enemy = whiteTurn ? PieceColor.WHITE : PieceColor.BLACK;
+            if (fen.pieces[pawnSquare] == (whiteTurn ? BLACK_PAWN : WHITE_PAWN)
+                && fen.pieces[enPassantSquare] == Move.NO_PIECE && fen.pieces[startSquare] == Move.NO_PIECE) {
+                enPassantTarget = Position.of(enPassantSquare);
+                lastPawnDoubleMove = Position.of(pawnSquare);
+                if ((Bitboards.pawnAttacks(pusher, enPassantSquare) & board.getPieces(enemy, PieceType.PAWN)) != 0) {
+                    enPassantKey = Zobrist.enPassant(Bitboards.column(enPassantSquare));
+                }
+            }
+        }
+        stateKey = Zobrist.castling(getCastlingRights()) ^ enPassantKey ^ (whiteTurn ? 0L : Zobrist.blackToMove());
+
+        halfmoveClock = fen.halfmoveClock;
+        fullmoveNumber = fen.fullmoveNumber;
+        promotionPosition = null;
+        promotionColor = null;
+        pendingPromotionFrom = null;
+        isPromoting = false;
+        waitingForPromotionSelection = false;
+    }
+
+    // Returns false, leaving the position as it was, when the text isn't valid FEN
+    public boolean loadFen(CharSequence fen) {
+        if (fenParser == null) {
+            fenParser = new Fen();
+        }
+        if (!fenParser.parse(fen)) {
+            return false;
+        }
+        setPosition(fenParser);
+        return true;
+    }
+
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(90);
+        for (int row = 0; row < 8; row++) {
+            if (row > 0) {
+                fen.append('/');
+            }
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                int index = board.getPieceIndex(Bitboards.square(row, col));
+                if (index == Move.NO_PIECE) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                fen.append(Fen.PIECE_LETTERS.charAt(index));
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+        }
+
+        fen.append(whiteTurn ? " w " : " b ");
+        int rights = getCastlingRights();
+        if (rights == 0) {
+            fen.append('-');
+        } else {
+            if ((rights & Zobrist.WHITE_KING_SIDE) != 0) fen.append('K');
+            if ((rights & Zobrist.WHITE_QUEEN_SIDE) != 0) fen.append('Q');
+            if ((rights & Zobrist.BLACK_KING_SIDE) != 0) fen.append('k');
+            if ((rights & Zobrist.BLACK_QUEEN_SIDE) != 0) fen.append('q');
+        }
+        fen.append(' ');
+        if (enPassantTarget == null) {
+            fen.append('-');
+        } else {
+            fen.append((char) ('a' + enPassantTarget.getColumn())).append((char) ('8' - enPassantTarget.getRow()));
+        }
+        return fen.append(' ').append(halfmoveClock).append(' ').append(fullmoveNumber).toString();
+    }
+
+    // Kept up to date by every move with XORs only
+    public long getZobristKey() {
+        return board.getZobristKey() ^ stateKey;
+    }
+
+    // Null for none; search and other makeMove() callers are never reported
+    public void setMoveListener(MoveListener moveListener) {
+        this.moveListener = moveListener;
+    }
+
+    public MoveListener getMoveListener() {
+        return moveListener;
+    }
+
+    // Recomputed only when the position has changed since the last call
+    public GameStatus getStatus() {
+        if (!status.isUpToDate(this)) {
+            status.update(this);
+        }
+        return status;
+    }
+
+    // Moves on the undo stack: every move played since the game started or since setPosition(). A copy made
+    // with Game(Game) counts the moves before it too, without being able to unmake them.
+    public int getPlyCount() {
+        return undoCount;
+    }
+
+    public int getMove(int ply) {
+        return undoStack[ply].move;
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    public boolean isWhiteTurn() {
+        return whiteTurn;
+    }
+
+    public void setWhiteTurn(boolean whiteTurn) {
+        if (this.whiteTurn != whiteTurn) {
+            stateKey ^= Zobrist.blackToMove();
+        }
+        this.whiteTurn = whiteTurn;
+    }
+
+    public Position getWhiteKingPosition() {
+        return whiteKingPosition;
+    }
+
+    public Position getBlackKingPosition() {
+        return blackKingPosition;
+    }
+
+    public Position getEnPassantTarget() {
+        return enPassantTarget;
+    }
+
+    public Position getLastPawnDoubleMove() {
+        return lastPawnDoubleMove;
+    }
+
+    public Position getPromotionPosition() {
+        return promotionPosition;
+    }
+
+    public PieceColor getPromotionColor() {
+        return promotionColor;
+    }
+
+    public boolean isPromoting() {
+        return isPromoting;
+    }
+
+    public void setPromoting(boolean promoting) {
+        isPromoting = promoting;
+    }
+
+    public boolean isWaitingForPromotionSelection() {
+        return waitingForPromotionSelection;
+    }
+
+    public void setWaitingForPromotionSelection(boolean waitingForPromotionSelection) {
+        this.waitingForPromotionSelection = waitingForPromotionSelection;
+    }
+
+    // Everything makeMove() overwrites, one preallocated entry per ply
+    private static class UndoEntry {
+        long zobristKey;
+        int move;
+        Piece piece;
+        Position fromPosition;
+        Piece captured;
+        Piece promoted;
+        Position enPassantTarget;
+        Position lastPawnDoubleMove;
+        Position whiteKingPosition;
+        Position blackKingPosition;
+        boolean whiteKingMoved;
+        boolean blackKingMoved;
+        boolean whiteRookAMoved;
+        boolean whiteRookHMoved;
+        boolean blackRookAMoved;
+        boolean blackRookHMoved;
+        long stateKey;
+        long enPassantKey;
+        int halfmoveClock;
+    }
+}
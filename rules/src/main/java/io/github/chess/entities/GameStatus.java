@@ -0,0 +1,86 @@
+package io.github.chess.entities;
+
+import io.github.chess.enums.PieceColor;
+
+/**
+ * What the current position means for the players: check, checkmate, stalemate and the legal moves from each
+ * square. Computed once per position by {@link Game#getStatus()}, so the UI can read it every frame for free.
+ */
+public class GameStatus {
+
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+    // Target squares of the legal moves from each square, as bitboards
+    private final long[] targets = new long[64];
+    private boolean computed = false;
+    private long key;
+    private PieceColor sideToMove;
+    private boolean inCheck;
+    private int moveCount;
+
+    boolean isUpToDate(Game game) {
+        return computed && key == game.getZobristKey();
+    }
+
+    void update(Game game) {
+        key = game.getZobristKey();
+        sideToMove = game.isWhiteTurn() ? PieceColor.WHITE : PieceColor.BLACK;
+        inCheck = game.isInCheck(sideToMove);
+        moveCount = MoveGenerator.generateLegalMoves(game, sideToMove, moves, 0);
+        for (int square = 0; square < 64; square++) {
+            targets[square] = 0L;
+        }
+        for (int i = 0; i < moveCount; i++) {
+            targets[Move.from(moves[i])] |= Bitboards.bit(Move.to(moves[i]));
+        }
+        computed = true;
+    }
+
+    public PieceColor getSideToMove() {
+        return sideToMove;
+    }
+
+    // Only the side to move can be in check in a legal position
+    public boolean isInCheck(PieceColor color) {
+        return inCheck && color == sideToMove;
+    }
+
+    public boolean isCheckmate() {
+        return inCheck && moveCount == 0;
+    }
+
+    public boolean isStalemate() {
+        return !inCheck && moveCount == 0;
+    }
+
+    public boolean isGameOver() {
+        return moveCount == 0;
+    }
+
+    // The side that gave checkmate, or null when the game isn't won
+    public PieceColor getWinner() {
+        if (!isCheckmate()) {
+            return null;
+        }
+        return sideToMove == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    public int getMove(int index) {
+        return moves[index];
+    }
+
+    public long getTargets(int square) {
+        return targets[square];
+    }
+
+    public boolean isLegal(Position from, Position to) {
+        return isLegal(from.getSquare(), to.getSquare());
+    }
+
+    public boolean isLegal(int from, int to) {
+        return (targets[from] & Bitboards.bit(to)) != 0;
+    }
+}
@@ -1,6 +1,7 @@
 package io.github.chess.entities;
 
 import io.github.chess.enums.PieceColor;
+import io.github.chess.enums.PieceType;
 
 public class King extends Piece {
 
@@ -9,18 +10,20 @@ public class King extends Piece {
     }
 
     @Override
-    public boolean isValidMove(Position newPosition, Piece[][] board) {
-        int rowDiff = Math.abs(position.getRow() - newPosition.getRow());
-        int colDiff = Math.abs(position.getColumn() - newPosition.getColumn());
+    public PieceType getType() {
+        return PieceType.KING;
+    }
 
-        // Kings can move one square in any direction.
-        boolean isOneSquareMove = rowDiff <= 1 && colDiff <= 1 && !(rowDiff == 0 && colDiff == 0);
+    @Override
+    public boolean isValidMove(int to, Piece[][] board) {
+        int from = position.getSquare();
 
-        if (!isOneSquareMove) {
+        // Kings can move one square in any direction.
+        if ((Bitboards.kingAttacks(from) & Bitboards.bit(to)) == 0) {
             return false; // Move is not within one square.
         }
 
-        Piece destinationPiece = board[newPosition.getRow()][newPosition.getColumn()];
+        Piece destinationPiece = board[Bitboards.row(to)][Bitboards.column(to)];
         // The move is valid if the destination is empty or contains an opponent's piece.
         return destinationPiece == null || destinationPiece.getColor() != this.getColor();
     }
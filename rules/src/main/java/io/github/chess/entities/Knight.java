@@ -1,6 +1,7 @@
 package io.github.chess.entities;
 
 import io.github.chess.enums.PieceColor;
+import io.github.chess.enums.PieceType;
 
 public class Knight extends Piece{
 
@@ -9,23 +10,21 @@ public class Knight extends Piece{
     }
 
     @Override
-    public boolean isValidMove(Position newPosition, Piece[][] board) {
-        if (newPosition.equals(this.position)) {
-            return false; // Cannot move to the same position
-        }
+    public PieceType getType() {
+        return PieceType.KNIGHT;
+    }
 
-        int rowDiff = Math.abs(this.position.getRow() - newPosition.getRow());
-        int colDiff = Math.abs(this.position.getColumn() - newPosition.getColumn());
+    @Override
+    public boolean isValidMove(int to, Piece[][] board) {
+        int from = position.getSquare();
 
         // Check for the 'L' shaped move pattern
-        boolean isValidLMove = (rowDiff == 2 && colDiff == 1) || (rowDiff == 1 && colDiff == 2);
-
-        if (!isValidLMove) {
+        if ((Bitboards.knightAttacks(from) & Bitboards.bit(to)) == 0) {
             return false; // Not a valid knight move
         }
 
         // Move is valid if the destination square is empty or contains an opponent's piece
-        Piece targetPiece = board[newPosition.getRow()][newPosition.getColumn()];
+        Piece targetPiece = board[Bitboards.row(to)][Bitboards.column(to)];
         if (targetPiece == null) {
             return true; // The square is empty, move is valid
         } else {
@@ -0,0 +1,88 @@
+package io.github.chess.entities;
+
+/**
+ * Moves packed into an int. Bits 0-5 hold the from square, 6-11 the to square, 12-15 the moving piece,
+ * 16-19 the captured piece, 20-23 the promotion piece and 24-27 the flags. Pieces are stored as their
+ * bitboard index (see {@link Piece#getIndex()}), or {@link #NO_PIECE}.
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+    public static final int NO_PIECE = 12;
+
+    public static final int FLAG_DOUBLE_PAWN_PUSH = 1;
+    public static final int FLAG_EN_PASSANT = 2;
+    public static final int FLAG_CASTLING = 4;
+
+    private static final String FILES = "abcdefgh";
+    private static final char[] PROMOTION_LETTERS = {'p', 'n', 'b', 'r', 'q', 'k'};
+
+    private Move() {
+    }
+
+    public static int encode(int from, int to, int piece, int captured, int promotion, int flags) {
+        return from | (to << 6) | (piece << 12) | (captured << 16) | (promotion << 20) | (flags << 24);
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    public static int piece(int move) {
+        return (move >>> 12) & 0xF;
+    }
+
+    public static int captured(int move) {
+        return (move >>> 16) & 0xF;
+    }
+
+    public static int promotion(int move) {
+        return (move >>> 20) & 0xF;
+    }
+
+    public static int flags(int move) {
+        return move >>> 24;
+    }
+
+    public static boolean isCapture(int move) {
+        return captured(move) != NO_PIECE;
+    }
+
+    public static boolean isPromotion(int move) {
+        return promotion(move) != NO_PIECE;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (flags(move) & FLAG_EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastling(int move) {
+        return (flags(move) & FLAG_CASTLING) != 0;
+    }
+
+    public static boolean isDoublePawnPush(int move) {
+        return (flags(move) & FLAG_DOUBLE_PAWN_PUSH) != 0;
+    }
+
+    // Coordinate notation such as "e2e4" or "e7e8q"
+    public static String toString(int move) {
+        if (move == NONE) {
+            return "0000";
+        }
+        StringBuilder builder = new StringBuilder(5);
+        appendSquare(builder, from(move));
+        appendSquare(builder, to(move));
+        if (isPromotion(move)) {
+            builder.append(PROMOTION_LETTERS[promotion(move) % 6]);
+        }
+        return builder.toString();
+    }
+
+    private static void appendSquare(StringBuilder builder, int square) {
+        builder.append(FILES.charAt(Bitboards.column(square))).append(8 - Bitboards.row(square));
+    }
+}
@@ -0,0 +1,244 @@
+package io.github.chess.entities;
+
+import io.github.chess.enums.PieceColor;
+import io.github.chess.enums.PieceType;
+
+/**
+ * Generates legal moves straight from the board bitboards into a caller-owned buffer, see {@link Move} for
+ * the encoding. Nothing is allocated, so a search can reuse one buffer per ply. Legality comes from the checkers,
+ * pins and king danger squares of the position, so moves don't have to be tried one by one.
+ */
+public final class MoveGenerator {
+
+    // No legal chess position has more than 218 moves
+    public static final int MAX_MOVES = 256;
+
+    private static final PieceType[] PROMOTIONS = {PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT};
+
+    private MoveGenerator() {
+    }
+
+    public static int generateLegalMoves(Game game, int[] moves) {
+        return generateLegalMoves(game, game.isWhiteTurn() ? PieceColor.WHITE : PieceColor.BLACK, moves, 0);
+    }
+
+    // Writes the legal moves of a color from moves[start] onwards and returns how many were written
+    public static int generateLegalMoves(Game game, PieceColor color, int[] moves, int start) {
+        return generate(game, color, moves, start, false);
+    }
+
+    // Same as generateLegalMoves, restricted to captures and promotions, for quiescence search
+    public static int generateLegalCaptures(Game game, PieceColor color, int[] moves, int start) {
+        return generate(game, color, moves, start, true);
+    }
+
+    private static int generate(Game game, PieceColor color, int[] moves, int start, boolean capturesOnly) {
+        Board board = game.getBoard();
+        PieceColor enemy = color == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+        long own = board.getPieces(color);
+        long enemies = board.getPieces(enemy);
+        long occupied = board.getOccupied();
+        // Squares pieces may move to: anywhere but their own pieces, or only onto enemies for captures
+        long targets = capturesOnly ? enemies : ~own;
+        int base = color.ordinal() * 6;
+        int count = start;
+
+        // Looking outward from the king once: who gives check, which pieces are pinned, where the king can't go
+        long kings = board.getPieces(color, PieceType.KING);
+        int kingSquare = kings != 0 ? Long.numberOfTrailingZeros(kings) : -1;
+        long checkers = 0L;
+        long pinned = 0L;
+        long danger = 0L;
+        // Squares any other piece has to move to: anywhere, or onto the checker or between it and the king
+        long evasions = ~0L;
+        if (kingSquare >= 0) {
+            checkers = board.getCheckers(kingSquare, color);
+            pinned = board.getPinned(kingSquare, color);
+            // The king is left out of the occupancy so it can't step back along the ray of a slider checking it
+            danger = board.getAttackedSquares(enemy, occupied & ~kings);
+            if (checkers != 0) {
+                evasions = checkers | Bitboards.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+            }
+        }
+
+        // In double check only the king can move
+        if (Long.bitCount(checkers) < 2) {
+            // Pawns
+            int forward = color == PieceColor.WHITE ? -8 : 8;
+            int startRow = color == PieceColor.WHITE ? 6 : 1;
+            int pawn = base + PieceType.PAWN.ordinal();
+            int enPassantSquare = getEnPassantSquare(game, color);
+            long pawns = board.getPieces(color, PieceType.PAWN);
+            while (pawns != 0) {
+                int from = Long.numberOfTrailingZeros(pawns);
+                pawns &= pawns - 1;
+                long allowed = evasions & pinMask(pinned, kingSquare, from);
+
+                int to = from + forward;
+                boolean promotes = Bitboards.row(to) == 0 || Bitboards.row(to) == 7;
+                if ((occupied & Bitboards.bit(to)) == 0 && (!capturesOnly || promotes)) {
+                    if ((allowed & Bitboards.bit(to)) != 0) {
+                        count = addPawnMove(color, from, to, pawn, Move.NO_PIECE, moves, count);
+                    }
+                    int doubleTo = to + forward;
+                    if (!capturesOnly && Bitboards.row(from) == startRow && (occupied & Bitboards.bit(doubleTo)) == 0
+                        && (allowed & Bitboards.bit(doubleTo)) != 0) {
+                        moves[count++] = Move.encode(from, doubleTo, pawn, Move.NO_PIECE, Move.NO_PIECE,
+                            Move.FLAG_DOUBLE_PAWN_PUSH);
+                    }
+                }
+
+                long attacks = Bitboards.pawnAttacks(color, from);
+                long captures = attacks & enemies & allowed;
+                while (captures != 0) {
+                    int target = Long.numberOfTrailingZeros(captures);
+                    captures &= captures - 1;
+                    count = addPawnMove(color, from, target, pawn, board.getPieceIndex(target), moves, count);
+                }
+
+                // En passant removes two pieces from a rank at once, which pins and check masks don't cover,
+                // so it is still tried on the occupancy
+                if (enPassantSquare >= 0 && (attacks & Bitboards.bit(enPassantSquare)) != 0) {
+                    int capturedPawn = enemy.ordinal() * 6 + PieceType.PAWN.ordinal();
+                    int move = Move.encode(from, enPassantSquare, pawn, capturedPawn, Move.NO_PIECE, Move.FLAG_EN_PASSANT);
+                    if (isLegalEnPassant(board, color, move)) {
+                        moves[count++] = move;
+                    }
+                }
+            }
+
+            // Knights, which can never move along a pin
+            int knight = base + PieceType.KNIGHT.ordinal();
+            long knights = board.getPieces(color, PieceType.KNIGHT) & ~pinned;
+            while (knights != 0) {
+                int from = Long.numberOfTrailingZeros(knights);
+                knights &= knights - 1;
+                count = addTargets(board, from, knight, Bitboards.knightAttacks(from) & targets & evasions, moves, count);
+            }
+
+            // Bishops, rooks and queens
+            int bishop = base + PieceType.BISHOP.ordinal();
+            long bishops = board.getPieces(color, PieceType.BISHOP);
+            while (bishops != 0) {
+                int from = Long.numberOfTrailingZeros(bishops);
+                bishops &= bishops - 1;
+                long allowed = targets & evasions & pinMask(pinned, kingSquare, from);
+                count = addTargets(board, from, bishop, Bitboards.bishopAttacks(from, occupied) & allowed, moves, count);
+            }
+
+            int rook = base + PieceType.ROOK.ordinal();
+            long rooks = board.getPieces(color, PieceType.ROOK);
+            while (rooks != 0) {
+                int from = Long.numberOfTrailingZeros(rooks);
+                rooks &= rooks - 1;
+                long allowed = targets & evasions & pinMask(pinned, kingSquare, from);
+                count = addTargets(board, from, rook, Bitboards.rookAttacks(from, occupied) & allowed, moves, count);
+            }
+
+            int queen = base + PieceType.QUEEN.ordinal();
+            long queens = board.getPieces(color, PieceType.QUEEN);
+            while (queens != 0) {
+                int from = Long.numberOfTrailingZeros(queens);
+                queens &= queens - 1;
+                long allowed = targets & evasions & pinMask(pinned, kingSquare, from);
+                count = addTargets(board, from, queen, Bitboards.queenAttacks(from, occupied) & allowed, moves, count);
+            }
+        }
+
+        // King, including castling
+        if (kingSquare >= 0) {
+            int king = base + PieceType.KING.ordinal();
+            count = addTargets(board, kingSquare, king, Bitboards.kingAttacks(kingSquare) & targets & ~danger, moves,
+                count);
+            if (!capturesOnly && checkers == 0) {
+                count = addCastling(game, color, kingSquare, king, danger, moves, count, true);
+                count = addCastling(game, color, kingSquare, king, danger, moves, count, false);
+            }
+        }
+
+        return count - start;
+    }
+
+    // A pinned piece may only move along the line through its king and the pinning piece
+    private static long pinMask(long pinned, int kingSquare, int from) {
+        return (pinned & Bitboards.bit(from)) != 0 ? Bitboards.line(kingSquare, from) : ~0L;
+    }
+
+    private static int addTargets(Board board, int from, int piece, long targets, int[] moves, int count) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            moves[count++] = Move.encode(from, to, piece, board.getPieceIndex(to), Move.NO_PIECE, 0);
+        }
+        return count;
+    }
+
+    private static int addPawnMove(PieceColor color, int from, int to, int pawn, int captured, int[] moves, int count) {
+        int row = Bitboards.row(to);
+        if (row == 0 || row == 7) {
+            for (PieceType promotion : PROMOTIONS) {
+                moves[count++] = Move.encode(from, to, pawn, captured, color.ordinal() * 6 + promotion.ordinal(), 0);
+            }
+            return count;
+        }
+        moves[count] = Move.encode(from, to, pawn, captured, Move.NO_PIECE, 0);
+        return count + 1;
+    }
+
+    private static int addCastling(Game game, PieceColor color, int kingSquare, int king, long danger, int[] moves,
+                                   int count, boolean isKingSide) {
+        Board board = game.getBoard();
+        int homeRow = color == PieceColor.WHITE ? 7 : 0;
+        if (!game.hasCastlingRights(color, isKingSide) || kingSquare != Bitboards.square(homeRow, 4)) {
+            return count;
+        }
+        int rookSquare = Bitboards.square(homeRow, isKingSide ? 7 : 0);
+        if (board.getPieceIndex(rookSquare) != color.ordinal() * 6 + PieceType.ROOK.ordinal()) {
+            return count;
+        }
+
+        // Every square between king and rook must be empty, and the king may not pass through check
+        int direction = isKingSide ? 1 : -1;
+        if ((Bitboards.between(kingSquare, rookSquare) & board.getOccupied()) != 0) {
+            return count;
+        }
+        long kingPath = Bitboards.between(kingSquare, kingSquare + 3 * direction) | Bitboards.bit(kingSquare);
+        if ((kingPath & danger) != 0) {
+            return count;
+        }
+
+        moves[count] = Move.encode(kingSquare, kingSquare + 2 * direction, king, Move.NO_PIECE, Move.NO_PIECE,
+            Move.FLAG_CASTLING);
+        return count + 1;
+    }
+
+    // Replays the capture on a copy of the occupancy and checks the king against the remaining enemy sliders
+    private static boolean isLegalEnPassant(Board board, PieceColor color, int move) {
+        long kings = board.getPieces(color, PieceType.KING);
+        if (kings == 0) {
+            return true;
+        }
+        int kingSquare = Long.numberOfTrailingZeros(kings);
+        long capturedBit = Bitboards.bit(Move.to(move) + (color == PieceColor.WHITE ? 8 : -8));
+        long toBit = Bitboards.bit(Move.to(move));
+        long occupied = (board.getOccupied() & ~Bitboards.bit(Move.from(move)) & ~capturedBit) | toBit;
+        PieceColor enemy = color == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+        // Captured pieces can't attack any more, and the capturing pawn now shields the target square
+        return (board.getAttackers(kingSquare, enemy, occupied) & ~capturedBit & ~toBit) == 0;
+    }
+
+    // The en passant square, if the color can actually capture there: the target must sit behind an enemy pawn
+    private static int getEnPassantSquare(Game game, PieceColor color) {
+        Position target = game.getEnPassantTarget();
+        if (target == null || target.getRow() != (color == PieceColor.WHITE ? 2 : 5)) {
+            return -1;
+        }
+        int square = target.getSquare();
+        int pawnSquare = square + (color == PieceColor.WHITE ? 8 : -8);
+        PieceColor enemy = color == PieceColor.WHITE ? PieceColor.BLACK : PieceColor.WHITE;
+        if (game.getBoard().getPieceIndex(pawnSquare) != enemy.ordinal() * 6 + PieceType.PAWN.ordinal()) {
+            return -1;
+        }
+        return square;
+    }
+}
@@ -0,0 +1,8 @@
+package io.github.chess.entities;
+
+/** Told about every move played through Game.movePiece(), promote() and castle(), right after it is made. */
+public interface MoveListener {
+
+    // Notation is the standard algebraic notation of the move, see Game.getAlgebraicNotation()
+    void onMove(Game game, int move, String notation);
+}
@@ -1,6 +1,7 @@
 package io.github.chess.entities;
 
 import io.github.chess.enums.PieceColor;
+import io.github.chess.enums.PieceType;
 
 public class Pawn extends Piece {
 
@@ -9,15 +10,22 @@ public class Pawn extends Piece {
     }
 
     @Override
-    public boolean isValidMove(Position newPosition, Piece[][] board) {
+    public PieceType getType() {
+        return PieceType.PAWN;
+    }
+
+    @Override
+    public boolean isValidMove(int square, Piece[][] board) {
+        int row = Bitboards.row(square);
+        int column = Bitboards.column(square);
         int forwardDirection = pieceColor == PieceColor.WHITE ? -1 : 1;
-        int rowDiff = (newPosition.getRow() - position.getRow()) * forwardDirection;
-        int columnDiff = newPosition.getColumn() - position.getColumn();
+        int rowDiff = (row - position.getRow()) * forwardDirection;
+        int columnDiff = column - position.getColumn();
 
         // Checking for En Passant
         if (Math.abs(columnDiff) == 1 && rowDiff == 1) {
             Position enPassantTarget = game.getEnPassantTarget();
-            if (enPassantTarget != null && enPassantTarget.equals(newPosition)) {
+            if (enPassantTarget != null && enPassantTarget.getSquare() == square) {
                 Position lastPawnMove = game.getLastPawnDoubleMove();
                 if (lastPawnMove != null) {
                     Piece potentialPawn = board[lastPawnMove.getRow()][lastPawnMove.getColumn()];
@@ -30,22 +38,22 @@ public class Pawn extends Piece {
             }
         }
 
-        if (columnDiff == 0 && rowDiff == 1 && board[newPosition.getRow()][newPosition.getColumn()] == null) {
+        if (columnDiff == 0 && rowDiff == 1 && board[row][column] == null) {
             return true;
         }
 
         boolean isStartingPosition = (pieceColor == PieceColor.WHITE && position.getRow() == 6) ||
             (pieceColor == PieceColor.BLACK && position.getRow() == 1);
         if (columnDiff == 0 && rowDiff == 2 && isStartingPosition &&
-            board[newPosition.getRow()][newPosition.getColumn()] == null) {
+            board[row][column] == null) {
             int middleRow = position.getRow() + forwardDirection;
             if (board[middleRow][position.getColumn()] == null) {
                 return true;
             }
         }
 
-        if (Math.abs(columnDiff) == 1 && rowDiff == 1 && board[newPosition.getRow()][newPosition.getColumn()] != null &&
-            board[newPosition.getRow()][newPosition.getColumn()].pieceColor != this.pieceColor) {
+        if (Math.abs(columnDiff) == 1 && rowDiff == 1 && board[row][column] != null &&
+            board[row][column].pieceColor != this.pieceColor) {
             return true;
         }
 
@@ -0,0 +1,59 @@
+package io.github.chess.entities;
+
+import io.github.chess.enums.PieceColor;
+import io.github.chess.enums.PieceType;
+
+public abstract class Piece {
+    protected Position position;
+    protected PieceColor pieceColor;
+    protected Game game;
+
+    public Piece(PieceColor pieceColor, Position position, Game game) {
+        this.pieceColor = pieceColor;
+        this.position = position;
+        this.game = game;
+    }
+
+    public PieceColor getColor() {
+        return pieceColor;
+    }
+
+    public Position getPosition() {
+        return position;
+    }
+
+    public void setPosition(Position position) {
+        this.position = position;
+    }
+
+    public int getSquare() {
+        return position.getSquare();
+    }
+
+    public abstract PieceType getType();
+
+    // Index of this piece's bitboard in Board, from 0 to 11
+    public int getIndex() {
+        return pieceColor.ordinal() * 6 + getType().ordinal();
+    }
+
+    // Whether the piece moves this way, without looking at checks; see Game.isValidMoveInCheck()
+    public abstract boolean isValidMove(int square, Piece[][] board);
+
+    public boolean isValidMove(Position newPosition, Piece[][] board) {
+        return isValidMove(newPosition.getSquare(), board);
+    }
+
+    // Whether the squares strictly between the two are empty on the given board
+    protected static boolean isPathClear(int from, int to, Piece[][] board) {
+        long path = Bitboards.between(from, to);
+        while (path != 0) {
+            int square = Long.numberOfTrailingZeros(path);
+            path &= path - 1;
+            if (board[Bitboards.row(square)][Bitboards.column(square)] != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
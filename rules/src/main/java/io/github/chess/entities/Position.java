@@ -0,0 +1,69 @@
+package io.github.chess.entities;
+
+/**
+ * A square as a row and a column, row 0 being rank 8, for the code that works with objects rather than square
+ * indices (see Bitboards). Positions are immutable and interned: of() hands out one of 64 shared instances, so
+ * passing squares around as positions never allocates.
+ */
+public final class Position {
+
+    private static final Position[] SQUARES = new Position[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = new Position(square);
+        }
+    }
+
+    private final int row;
+    private final int column;
+    private final int square;
+
+    private Position(int square) {
+        this.square = square;
+        row = Bitboards.row(square);
+        column = Bitboards.column(square);
+    }
+
+    public static Position of(int square) {
+        if (square < 0 || square >= 64) {
+            throw new IllegalArgumentException("Not a square: " + square);
+        }
+        return SQUARES[square];
+    }
+
+    public static Position of(int row, int column) {
+        if (row < 0 || row >= 8 || column < 0 || column >= 8) {
+            throw new IllegalArgumentException("Not a square: row " + row + ", column " + column);
+        }
+        return SQUARES[Bitboards.square(row, column)];
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    public int getSquare() {
+        return square;
+    }
+
+    // Instances are interned, so equal positions are the same object
+    @Override
+    public boolean equals(Object o) {
+        return this == o;
+    }
+
+    @Override
+    public int hashCode() {
+        return square;
+    }
+
+    @Override
+    public String toString() {
+        return "" + (char) ('a' + column) + (8 - row);
+    }
+}
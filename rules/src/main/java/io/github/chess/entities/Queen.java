@@ -0,0 +1,29 @@
+package io.github.chess.entities;
+
+import io.github.chess.enums.PieceColor;
+import io.github.chess.enums.PieceType;
+
+public class Queen extends Piece {
+
+    public Queen(PieceColor pieceColor, Position position, Game game) {
+        super(pieceColor, position, game);
+    }
+
+    @Override
+    public PieceType getType() {
+        return PieceType.QUEEN;
+    }
+
+    @Override
+    public boolean isValidMove(int to, Piece[][] board) {
+        int from = position.getSquare();
+        if ((Bitboards.queenAttacks(from, 0L) & Bitboards.bit(to)) == 0 || !isPathClear(from, to, board)) {
+            return false; // The move is neither straight nor diagonal, or the path is blocked
+        }
+
+        // The move is valid if the destination is empty or contains an opponent's piece
+        Piece destinationPiece = board[Bitboards.row(to)][Bitboards.column(to)];
+        return destinationPiece == null || destinationPiece.getColor() != this.getColor();
+    }
+
+}
@@ -0,0 +1,33 @@
+package io.github.chess.entities;
+
+import io.github.chess.enums.PieceColor;
+import io.github.chess.enums.PieceType;
+
+public class Rook extends Piece{
+
+    public Rook(PieceColor pieceColor, Position position, Game game) {
+        super(pieceColor, position, game);
+    }
+
+    @Override
+    public PieceType getType() {
+        return PieceType.ROOK;
+    }
+
+    @Override
+    public boolean isValidMove(int to, Piece[][] board) {
+        int from = position.getSquare();
+        if ((Bitboards.rookAttacks(from, 0L) & Bitboards.bit(to)) == 0 || !isPathClear(from, to, board)) {
+            return false; // Not on a straight line, or there's a piece in the way
+        }
+
+        Piece destinationPiece = board[Bitboards.row(to)][Bitboards.column(to)];
+        if (destinationPiece == null) {
+            return true; // The destination is empty, move is valid.
+        } else if (destinationPiece.getColor() != this.getColor()) {
+            return true; // The destination has an opponent's piece, capture is valid.
+        }
+
+        return false; // The destination has a piece of the same color, move is invalid.
+    }
+}
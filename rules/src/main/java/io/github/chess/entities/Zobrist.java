@@ -0,0 +1,70 @@
+package io.github.chess.entities;
+
+/**
+ * Random keys for Zobrist hashing. A position key is the XOR of one key per piece on its square, the side
+ * key when black is to move, one key per castling right still available and the file of a capturable
+ * en passant target.
+ */
+public final class Zobrist {
+
+    public static final int WHITE_KING_SIDE = 1;
+    public static final int WHITE_QUEEN_SIDE = 2;
+    public static final int BLACK_KING_SIDE = 4;
+    public static final int BLACK_QUEEN_SIDE = 8;
+
+    private static final long[][] PIECE_SQUARE = new long[12][64];
+    // Indexed by a mask of the castling rights above, so a change of rights is a single XOR
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    private static final long BLACK_TO_MOVE;
+
+    // Fixed seed so keys are stable between runs and can be stored
+    private static long seed = 0x9E3779B97F4A7C15L;
+
+    static {
+        for (int piece = 0; piece < 12; piece++) {
+            for (int square = 0; square < 64; square++) {
+                PIECE_SQUARE[piece][square] = nextRandom();
+            }
+        }
+        long[] rights = {nextRandom(), nextRandom(), nextRandom(), nextRandom()};
+        for (int mask = 0; mask < 16; mask++) {
+            for (int right = 0; right < 4; right++) {
+                if ((mask & (1 << right)) != 0) {
+                    CASTLING[mask] ^= rights[right];
+                }
+            }
+        }
+        for (int file = 0; file < 8; file++) {
+            EN_PASSANT_FILE[file] = nextRandom();
+        }
+        BLACK_TO_MOVE = nextRandom();
+    }
+
+    private Zobrist() {
+    }
+
+    public static long piece(int pieceIndex, int square) {
+        return PIECE_SQUARE[pieceIndex][square];
+    }
+
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    public static long enPassant(int file) {
+        return EN_PASSANT_FILE[file];
+    }
+
+    public static long blackToMove() {
+        return BLACK_TO_MOVE;
+    }
+
+    private static long nextRandom() {
+        // xorshift64*
+        seed ^= seed >>> 12;
+        seed ^= seed << 25;
+        seed ^= seed >>> 27;
+        return seed * 0x2545F4914F6CDD1DL;
+    }
+}
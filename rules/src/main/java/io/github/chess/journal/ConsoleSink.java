@@ -0,0 +1,40 @@
+package io.github.chess.journal;
+
+import io.github.chess.entities.Game;
+import io.github.chess.entities.MoveListener;
+
+import java.io.PrintStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Prints the notation of every move, and any other message handed to print(), on a background thread, so that a
+ * slow console never holds up the game. Lines come out in the order they were handed over.
+ */
+public class ConsoleSink implements MoveListener {
+
+    private final PrintStream output;
+    private final ExecutorService printer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "move-console");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ConsoleSink(PrintStream output) {
+        this.output = output;
+    }
+
+    @Override
+    public void onMove(Game game, int move, String notation) {
+        print(notation);
+    }
+
+    public void print(String line) {
+        printer.execute(() -> output.println(line));
+    }
+
+    // Moves already handed over are still printed
+    public void close() {
+        printer.shutdown();
+    }
+}
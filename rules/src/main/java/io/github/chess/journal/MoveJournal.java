@@ -0,0 +1,318 @@
+package io.github.chess.journal;
+
+import io.github.chess.entities.Game;
+import io.github.chess.entities.MoveGenerator;
+import io.github.chess.entities.MoveListener;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the games played, so that a game cut short by a crash can be resumed exactly. Moves are
+ * appended to a buffer in memory and return at once; a background thread writes whatever has gathered since its
+ * last write and forces it to disk with one sync, so the cost of a sync is shared by all the moves of the batch
+ * (group commit). sync() waits until everything appended so far is on disk. startGame() starts the file over, as
+ * only the game being played is ever replayed. Once a write fails the journal takes no more records, and
+ * getFailure() tells why.
+ *
+ * Layout, little-endian: "CJNL" and a version, then records of a payload length, the CRC-32 of the payload and
+ * the payload. A game record holds the FEN the game starts from; a move record holds the move, the Zobrist key
+ * after it and the clocks, which replay() checks against the replayed game. A record torn by a crash fails its
+ * checksum: it and anything after it are ignored, and cut off when the journal is opened again.
+ */
+public class MoveJournal implements MoveListener, Closeable {
+
+    static final int MAGIC = 0x4C4E4A43; // "CJNL"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_HEADER_SIZE = 8;
+    static final byte GAME_RECORD = 1;
+    static final byte MOVE_RECORD = 2;
+    private static final int MOVE_PAYLOAD_SIZE = 21;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final Thread writer;
+    private final Object lock = new Object();
+    private final CRC32 crc = new CRC32();
+    // Appended to under the lock, swapped with the writer's buffer when it takes a batch
+    private ByteBuffer filling = newBuffer(BUFFER_SIZE);
+    private ByteBuffer writing = newBuffer(BUFFER_SIZE);
+    private long appended;
+    private long durable;
+    private boolean closed;
+    private IOException failure;
+    // Set by startGame(): the writer cuts the file back to its header before the next batch
+    private boolean restart;
+
+    // Creates the journal, or opens it to append after its last whole record
+    public MoveJournal(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                ByteBuffer header = newBuffer(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+                header.flip();
+                while (header.hasRemaining()) {
+                    channel.write(header);
+                }
+            } else {
+                ByteBuffer contents = read(path);
+                channel.truncate(validLength(contents));
+            }
+            channel.position(channel.size());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        writer = new Thread(this::writeBatches, "move-journal");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // The game as of the last whole record, or null if the journal has no game
+    public static Game replay(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return null;
+        }
+        ByteBuffer contents = read(path);
+        int end = validLength(contents);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        Game game = null;
+        int record = 0;
+        for (int position = HEADER_SIZE; position < end; record++) {
+            int length = contents.getInt(position);
+            int payload = position + RECORD_HEADER_SIZE;
+            position = payload + length;
+            if (contents.get(payload) == GAME_RECORD) {
+                byte[] fen = new byte[length - 1];
+                for (int i = 0; i < fen.length; i++) {
+                    fen[i] = contents.get(payload + 1 + i);
+                }
+                game = new Game();
+                if (!game.loadFen(new String(fen, StandardCharsets.US_ASCII))) {
+                    throw new IOException("Invalid position in record " + record + " of " + path);
+                }
+            } else if (game != null) {
+                long key = contents.getLong(payload + 1);
+                int move = contents.getInt(payload + 9);
+                if (!isLegal(game, move, moves)) {
+                    throw new IOException("Illegal move in record " + record + " of " + path);
+                }
+                game.makeMove(move);
+                if (game.getZobristKey() != key || game.getHalfmoveClock() != contents.getInt(payload + 13)
+                    || game.getFullmoveNumber() != contents.getInt(payload + 17)) {
+                    throw new IOException("Journal and replayed game differ at record " + record + " of " + path);
+                }
+            }
+        }
+        return game;
+    }
+
+    // Marks the start of a game; the moves that follow belong to it. Earlier games are dropped from the file.
+    public void startGame(Game game) {
+        byte[] fen = game.toFen().getBytes(StandardCharsets.US_ASCII);
+        synchronized (lock) {
+            if (!isOpen()) {
+                return;
+            }
+            // Records of the previous game that aren't written yet would be cut off anyway
+            filling.clear();
+            restart = true;
+            ByteBuffer buffer = reserve(1 + fen.length);
+            buffer.put(GAME_RECORD).put(fen);
+            commitRecord(buffer, 1 + fen.length);
+        }
+    }
+
+    // Appends the move just played; the game must be the one of the last startGame()
+    @Override
+    public void onMove(Game game, int move, String notation) {
+        synchronized (lock) {
+            if (!isOpen()) {
+                return;
+            }
+            ByteBuffer buffer = reserve(MOVE_PAYLOAD_SIZE);
+            buffer.put(MOVE_RECORD).putLong(game.getZobristKey()).putInt(move).putInt(game.getHalfmoveClock())
+                .putInt(game.getFullmoveNumber());
+            commitRecord(buffer, MOVE_PAYLOAD_SIZE);
+        }
+    }
+
+    // Waits until every record appended so far is on disk
+    public void sync() throws IOException {
+        synchronized (lock) {
+            long target = appended;
+            while (durable < target && failure == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the journal", e);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    // The error that stopped the journal, or null while it is working
+    public IOException getFailure() {
+        synchronized (lock) {
+            return failure;
+        }
+    }
+
+    // Writes what is left, then closes the file
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        synchronized (lock) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    // Records are dropped rather than buffered once nothing will write them, so a full disk can't run memory out
+    private boolean isOpen() {
+        return !closed && failure == null;
+    }
+
+    // Room for a record with this payload in the filling buffer, with its header skipped
+    private ByteBuffer reserve(int payloadLength) {
+        int needed = RECORD_HEADER_SIZE + payloadLength;
+        if (filling.remaining() < needed) {
+            ByteBuffer larger = newBuffer(Math.max(filling.capacity() * 2, filling.position() + needed));
+            filling.flip();
+            larger.put(filling);
+            filling = larger;
+        }
+        filling.position(filling.position() + RECORD_HEADER_SIZE);
+        return filling;
+    }
+
+    // Fills in the header of the record just put after reserve()
+    private void commitRecord(ByteBuffer buffer, int payloadLength) {
+        int payload = buffer.position() - payloadLength;
+        crc.reset();
+        crc.update(buffer.array(), payload, payloadLength);
+        buffer.putInt(payload - RECORD_HEADER_SIZE, payloadLength);
+        buffer.putInt(payload - 4, (int) crc.getValue());
+        appended++;
+        lock.notifyAll();
+    }
+
+    private void writeBatches() {
+        while (true) {
+            long batchEnd;
+            boolean truncate;
+            synchronized (lock) {
+                while (filling.position() == 0 && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (filling.position() == 0 || failure != null) {
+                    return;
+                }
+                ByteBuffer batch = filling;
+                filling = writing;
+                writing = batch;
+                batchEnd = appended;
+                truncate = restart;
+                restart = false;
+            }
+            try {
+                if (truncate) {
+                    channel.truncate(HEADER_SIZE);
+                    channel.position(HEADER_SIZE);
+                }
+                writing.flip();
+                while (writing.hasRemaining()) {
+                    channel.write(writing);
+                }
+                channel.force(false);
+                writing.clear();
+                synchronized (lock) {
+                    durable = batchEnd;
+                    lock.notifyAll();
+                }
+            } catch (IOException e) {
+                synchronized (lock) {
+                    failure = e;
+                    lock.notifyAll();
+                }
+                return;
+            }
+        }
+    }
+
+    private static boolean isLegal(Game game, int move, int[] moves) {
+        int count = MoveGenerator.generateLegalMoves(game, moves);
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ByteBuffer read(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer contents = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        if (bytes.length < HEADER_SIZE || contents.getInt(0) != MAGIC || contents.getInt(4) != VERSION) {
+            throw new IOException("Not a move journal: " + path);
+        }
+        return contents;
+    }
+
+    // Bytes up to the end of the last record that is whole and passes its checksum
+    private static int validLength(ByteBuffer contents) {
+        CRC32 crc = new CRC32();
+        int position = HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= contents.limit()) {
+            int length = contents.getInt(position);
+            int payload = position + RECORD_HEADER_SIZE;
+            if (length < 1 || length > contents.limit() - payload) {
+                break;
+            }
+            crc.reset();
+            crc.update(contents.array(), payload, length);
+            byte type = contents.get(payload);
+            if ((int) crc.getValue() != contents.getInt(position + 4)
+                || type != GAME_RECORD && !(type == MOVE_RECORD && length == MOVE_PAYLOAD_SIZE)) {
+                break;
+            }
+            position = payload + length;
+        }
+        return position;
+    }
+
+    private static ByteBuffer newBuffer(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
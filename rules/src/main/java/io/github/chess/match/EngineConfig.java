@@ -0,0 +1,80 @@
+package io.github.chess.match;
+
+import io.github.chess.engine.SearchLimits;
+
+/**
+ * One side of a match played by the engine's own search: a name, the limits of every search and the size of its
+ * transposition table. Written as "name=base,nodes=20000,depth=0,movetime=0,hash=16", any key left out keeping its
+ * default; without any limit a search stops after 10000 nodes.
+ */
+public class EngineConfig {
+
+    private static final long DEFAULT_NODES = 10000;
+
+    private String name = "engine";
+    private int depth;
+    private long nodes;
+    private long moveTimeMillis;
+    private int hashMb = 16;
+
+    public static EngineConfig parse(String text) {
+        EngineConfig config = new EngineConfig();
+        for (String option : text.split(",")) {
+            int separator = option.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected key=value: " + option);
+            }
+            String key = option.substring(0, separator).trim();
+            String value = option.substring(separator + 1).trim();
+            try {
+                switch (key) {
+                    case "name":
+                        config.name = value;
+                        break;
+                    case "depth":
+                        config.depth = Integer.parseInt(value);
+                        break;
+                    case "nodes":
+                        config.nodes = Long.parseLong(value);
+                        break;
+                    case "movetime":
+                        config.moveTimeMillis = Long.parseLong(value);
+                        break;
+                    case "hash":
+                        config.hashMb = Integer.parseInt(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown engine option: " + key);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a number: " + option, e);
+            }
+        }
+        if (config.depth <= 0 && config.nodes <= 0 && config.moveTimeMillis <= 0) {
+            config.nodes = DEFAULT_NODES;
+        }
+        return config;
+    }
+
+    public MatchEngine createEngine() {
+        return new SearchEngine(this);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getHashMb() {
+        return hashMb;
+    }
+
+    public SearchLimits toLimits() {
+        return new SearchLimits().setDepth(depth).setNodes(nodes).setMoveTimeMillis(moveTimeMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "name=" + name + ",depth=" + depth + ",nodes=" + nodes + ",movetime=" + moveTimeMillis + ",hash="
+            + hashMb;
+    }
+}
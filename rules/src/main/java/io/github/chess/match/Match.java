@@ -0,0 +1,337 @@
+package io.github.chess.match;
+
+import io.github.chess.entities.Board;
+import io.github.chess.entities.Game;
+import io.github.chess.entities.MoveGenerator;
+import io.github.chess.enums.PieceColor;
+import io.github.chess.enums.PieceType;
+import io.github.chess.tablebase.Tablebases;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Plays two engines against each other on a pool of threads, to tell whether a change makes the engine stronger.
+ * Each thread creates its own pair of engines and its own games, so nothing is shared while a game is played; the
+ * threads only meet to take the next opening and to add a finished pair to the totals. Every opening is played
+ * twice with colors swapped, and the match stops once the SPRT accepts one of its hypotheses or after the maximum
+ * number of games.
+ *
+ * Games end on mate, stalemate, the fifty-move rule, threefold repetition or insufficient material, and are
+ * adjudicated when both engines agree one side is lost, when the score stays near zero late in the game, when
+ * the tablebases know the result, or after MAX_PLIES. An engine that plays an illegal move or resigns loses.
+ */
+public class Match {
+
+    public static final int MAX_PLIES = 600;
+    // Both engines have scored the game beyond this for RESIGN_PLIES plies in a row
+    public static final int RESIGN_SCORE = 1000;
+    public static final int RESIGN_PLIES = 6;
+    // Both engines have scored the game within this for DRAW_PLIES plies in a row, after DRAW_MIN_PLY
+    public static final int DRAW_SCORE = 10;
+    public static final int DRAW_PLIES = 10;
+    public static final int DRAW_MIN_PLY = 80;
+
+    private final Supplier<MatchEngine> first;
+    private final Supplier<MatchEngine> second;
+    private final List<String> openings;
+    private final int threads;
+    private Sprt sprt;
+    private int maxGames = Integer.MAX_VALUE;
+    private MatchListener listener;
+    private Tablebases tablebases;
+
+    private final AtomicInteger nextPair = new AtomicInteger();
+    private volatile boolean stopped;
+    private MatchStats stats;
+    private long startTime;
+
+    public Match(Supplier<MatchEngine> first, Supplier<MatchEngine> second, List<String> openings, int threads) {
+        if (openings.isEmpty()) {
+            throw new IllegalArgumentException("No openings");
+        }
+        this.first = first;
+        this.second = second;
+        this.openings = openings;
+        this.threads = Math.max(1, threads);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: Match <engine> <engine> [threads=N] [games=N] [openings=file] [plies=8]"
+                + " [seed=N] [elo0=0] [elo1=5] [alpha=0.05] [beta=0.05] [tablebases=dir]");
+            System.err.println("  engine: name=x,nodes=N,depth=N,movetime=ms,hash=mb");
+            return;
+        }
+        EngineConfig first = EngineConfig.parse(args[0]);
+        EngineConfig second = EngineConfig.parse(args[1]);
+        int threads = Runtime.getRuntime().availableProcessors();
+        int games = 20000;
+        String openingFile = null;
+        int plies = 8;
+        long seed = 1;
+        double elo0 = 0;
+        double elo1 = 5;
+        double alpha = 0.05;
+        double beta = 0.05;
+        String tablebaseDirectory = null;
+        for (int i = 2; i < args.length; i++) {
+            int separator = args[i].indexOf('=');
+            String key = separator < 0 ? args[i] : args[i].substring(0, separator);
+            String value = separator < 0 ? "" : args[i].substring(separator + 1);
+            switch (key) {
+                case "threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                case "games":
+                    games = Integer.parseInt(value);
+                    break;
+                case "openings":
+                    openingFile = value.isEmpty() ? null : value;
+                    break;
+                case "plies":
+                    plies = Integer.parseInt(value);
+                    break;
+                case "seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "elo0":
+                    elo0 = Double.parseDouble(value);
+                    break;
+                case "elo1":
+                    elo1 = Double.parseDouble(value);
+                    break;
+                case "alpha":
+                    alpha = Double.parseDouble(value);
+                    break;
+                case "beta":
+                    beta = Double.parseDouble(value);
+                    break;
+                case "tablebases":
+                    tablebaseDirectory = value.isEmpty() ? null : value;
+                    break;
+                default:
+                    System.err.println("Unknown option: " + args[i]);
+                    return;
+            }
+        }
+
+        // Random openings are drawn for the most pairs the match can play
+        List<String> openings = openingFile != null
+            ? Openings.load(Paths.get(openingFile))
+            : Openings.random(Math.max(1, (games + 1) / 2), plies, seed);
+        Match match = new Match(first::createEngine, second::createEngine, openings, threads);
+        match.setSprt(new Sprt(elo0, elo1, alpha, beta));
+        match.setMaxGames(games);
+        if (tablebaseDirectory != null) {
+            match.setTablebases(new Tablebases(Paths.get(tablebaseDirectory)));
+        }
+        // A line every 20 pairs is enough to follow the test
+        match.setListener(stats -> {
+            if (stats.getGames() % 40 == 0) {
+                System.out.println(stats);
+            }
+        });
+
+        System.out.println(first + " vs " + second + ", " + openings.size() + " openings, " + threads + " threads");
+        MatchStats result = match.run();
+        System.out.println(result);
+        switch (result.getSprtStatus()) {
+            case Sprt.H1_ACCEPTED:
+                System.out.println("H1 accepted: " + first.getName() + " is stronger by at least " + elo1 + " elo");
+                break;
+            case Sprt.H0_ACCEPTED:
+                System.out.println("H0 accepted: " + first.getName() + " isn't stronger by " + elo1 + " elo");
+                break;
+            default:
+                System.out.println("Inconclusive after " + result.getGames() + " games");
+                break;
+        }
+    }
+
+    public void setSprt(Sprt sprt) {
+        this.sprt = sprt;
+    }
+
+    // Rounded up to whole pairs
+    public void setMaxGames(int maxGames) {
+        this.maxGames = maxGames;
+    }
+
+    public void setListener(MatchListener listener) {
+        this.listener = listener;
+    }
+
+    public void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+    }
+
+    // Lets the games being played finish, then run() returns
+    public void stop() {
+        stopped = true;
+    }
+
+    // Plays until the SPRT is decided, maxGames are played or stop() is called, and returns the totals
+    public MatchStats run() {
+        stats = new MatchStats(sprt, threads);
+        nextPair.set(0);
+        stopped = false;
+        startTime = System.currentTimeMillis();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(pool.submit(this::playPairs));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            stopped = true;
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            stopped = true;
+            throw new IllegalStateException("A match thread failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        synchronized (this) {
+            return new MatchStats(stats);
+        }
+    }
+
+    private void playPairs() {
+        MatchEngine engine = first.get();
+        MatchEngine opponent = second.get();
+        Worker worker = new Worker();
+        int maxPairs = (int) Math.min(Integer.MAX_VALUE, ((long) maxGames + 1) / 2);
+        while (!stopped) {
+            int pair = nextPair.getAndIncrement();
+            if (pair >= maxPairs) {
+                break;
+            }
+            String opening = openings.get(pair % openings.size());
+            // Results for the first engine, white in the first game and black in the second
+            int firstResult = worker.play(opening, engine, opponent);
+            int secondResult = -worker.play(opening, opponent, engine);
+
+            MatchStats snapshot;
+            synchronized (this) {
+                stats.addPair(firstResult, secondResult, System.currentTimeMillis() - startTime);
+                if (stats.getSprtStatus() != Sprt.CONTINUE) {
+                    stopped = true;
+                }
+                snapshot = listener != null ? new MatchStats(stats) : null;
+            }
+            if (snapshot != null) {
+                listener.onPair(snapshot);
+            }
+        }
+    }
+
+    // One game at a time on one thread, with buffers reused from game to game
+    private class Worker {
+
+        private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+        // Keys since the last irreversible move, for threefold repetition
+        private final long[] keys = new long[MAX_PLIES + 1];
+
+        // 1 if white wins, -1 if black wins, 0 for a draw
+        int play(String fen, MatchEngine white, MatchEngine black) {
+            Game game = new Game();
+            game.loadFen(fen);
+            white.newGame();
+            black.newGame();
+            int keyCount = 0;
+            keys[keyCount++] = game.getZobristKey();
+            int resignPlies = 0;
+            int drawPlies = 0;
+            int lastScore = 0;
+
+            for (int ply = 0; ply < MAX_PLIES; ply++) {
+                // From the side to move
+                int sign = game.isWhiteTurn() ? 1 : -1;
+                int count = MoveGenerator.generateLegalMoves(game, moves);
+                if (count == 0) {
+                    PieceColor color = game.isWhiteTurn() ? PieceColor.WHITE : PieceColor.BLACK;
+                    return game.isInCheck(color) ? -sign : 0;
+                }
+                if (game.getHalfmoveClock() >= 100 || isInsufficientMaterial(game.getBoard())) {
+                    return 0;
+                }
+                if (tablebases != null) {
+                    int result = tablebases.probe(game);
+                    if (result != Tablebases.NOT_FOUND) {
+                        return result == Tablebases.DRAW ? 0 : Tablebases.isWin(result) ? sign : -sign;
+                    }
+                }
+
+                MatchEngine engine = game.isWhiteTurn() ? white : black;
+                int move = engine.selectMove(game);
+                if (!contains(moves, count, move)) {
+                    return -sign;
+                }
+                game.makeMove(move);
+
+                // Scores from white, kept when they stay on the same side of the board
+                int score = sign * engine.getLastScore();
+                resignPlies = Math.abs(score) >= RESIGN_SCORE && (resignPlies == 0 || (score > 0) == (lastScore > 0))
+                    ? resignPlies + 1 : 0;
+                drawPlies = Math.abs(score) <= DRAW_SCORE ? drawPlies + 1 : 0;
+                lastScore = score;
+                if (resignPlies >= RESIGN_PLIES) {
+                    return score > 0 ? 1 : -1;
+                }
+                if (drawPlies >= DRAW_PLIES && ply >= DRAW_MIN_PLY) {
+                    return 0;
+                }
+
+                if (game.getHalfmoveClock() == 0) {
+                    keyCount = 0;
+                }
+                long key = game.getZobristKey();
+                int repeated = 0;
+                for (int i = 0; i < keyCount; i++) {
+                    if (keys[i] == key) {
+                        repeated++;
+                    }
+                }
+                if (repeated >= 2) {
+                    return 0;
+                }
+                keys[keyCount++] = key;
+            }
+            return 0;
+        }
+
+        private boolean contains(int[] moves, int count, int move) {
+            for (int i = 0; i < count; i++) {
+                if (moves[i] == move) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Bare kings, or a lone minor piece against a king
+        private boolean isInsufficientMaterial(Board board) {
+            int pieces = Long.bitCount(board.getOccupied());
+            if (pieces > 3) {
+                return false;
+            }
+            long minors = 0;
+            for (PieceColor color : PieceColor.values()) {
+                minors |= board.getPieces(color, PieceType.KNIGHT) | board.getPieces(color, PieceType.BISHOP);
+            }
+            return pieces == 2 || minors != 0;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package io.github.chess.match;
+
+import io.github.chess.entities.Game;
+
+/**
+ * A player of a Match. Every worker thread creates its own engines, so an implementation is only ever used by one
+ * thread and needn't be thread-safe.
+ */
+public interface MatchEngine {
+
+    String getName();
+
+    // Called before every game
+    void newGame();
+
+    // The move to play, Move.NONE to resign. The game must be left as it was found.
+    int selectMove(Game game);
+
+    // Centipawns for the side that played the last selected move, used to adjudicate decided games
+    int getLastScore();
+}
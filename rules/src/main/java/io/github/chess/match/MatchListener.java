@@ -0,0 +1,7 @@
+package io.github.chess.match;
+
+/** Told about the running totals of a Match after every finished pair of games, on the thread that played it. */
+public interface MatchListener {
+
+    void onPair(MatchStats stats);
+}
@@ -0,0 +1,136 @@
+package io.github.chess.match;
+
+import java.util.Locale;
+
+/**
+ * Running totals of a Match, from the point of view of its first engine. Match updates one instance under its lock
+ * and hands copies to its listener.
+ */
+public class MatchStats {
+
+    private long wins;
+    private long draws;
+    private long losses;
+    private final long[] pentanomial = new long[5];
+    private final Sprt sprt;
+    private final int threads;
+    private long timeMillis;
+
+    MatchStats(Sprt sprt, int threads) {
+        this.sprt = sprt;
+        this.threads = threads;
+    }
+
+    MatchStats(MatchStats other) {
+        this(other.sprt, other.threads);
+        wins = other.wins;
+        draws = other.draws;
+        losses = other.losses;
+        System.arraycopy(other.pentanomial, 0, pentanomial, 0, pentanomial.length);
+        timeMillis = other.timeMillis;
+    }
+
+    // Results of the two games of a pair for the first engine: 1 win, 0 draw, -1 loss
+    void addPair(int first, int second, long timeMillis) {
+        for (int result : new int[]{first, second}) {
+            if (result > 0) {
+                wins++;
+            } else if (result < 0) {
+                losses++;
+            } else {
+                draws++;
+            }
+        }
+        pentanomial[first + second + 2]++;
+        this.timeMillis = timeMillis;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public long getDraws() {
+        return draws;
+    }
+
+    public long getLosses() {
+        return losses;
+    }
+
+    public long getGames() {
+        return wins + draws + losses;
+    }
+
+    public long[] getPentanomial() {
+        return pentanomial.clone();
+    }
+
+    public double getScore() {
+        long games = getGames();
+        return games == 0 ? 0.5 : (wins + draws / 2.0) / games;
+    }
+
+    public double getElo() {
+        return elo(getScore());
+    }
+
+    // Half the width of the 95% confidence interval of getElo(), from the variance of the pair scores
+    public double getEloError() {
+        long pairs = 0;
+        double sum = 0;
+        double squares = 0;
+        for (int i = 0; i < 5; i++) {
+            pairs += pentanomial[i];
+            sum += pentanomial[i] * (i / 4.0);
+            squares += pentanomial[i] * (i / 4.0) * (i / 4.0);
+        }
+        if (pairs < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double mean = sum / pairs;
+        double deviation = Math.sqrt(Math.max(0, squares / pairs - mean * mean) / pairs);
+        return (elo(mean + 1.96 * deviation) - elo(mean - 1.96 * deviation)) / 2;
+    }
+
+    public double getLlr() {
+        return sprt == null ? 0 : sprt.llr(pentanomial);
+    }
+
+    // One of the Sprt constants, always CONTINUE without a test
+    public int getSprtStatus() {
+        return sprt == null ? Sprt.CONTINUE : sprt.status(getLlr());
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public double getGamesPerMinute() {
+        return timeMillis == 0 ? 0 : getGames() * 60000.0 / timeMillis;
+    }
+
+    // Throughput of one thread; games are searched single-threaded, so one thread is one core
+    public double getGamesPerMinutePerThread() {
+        return getGamesPerMinute() / threads;
+    }
+
+    private static double elo(double score) {
+        score = Math.min(Math.max(score, 1e-6), 1 - 1e-6);
+        return 400 * Math.log10(score / (1 - score));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(String.format(Locale.ROOT,
+            "games %d +%d =%d -%d score %.1f%% elo %.1f +/- %.1f pairs %d %d %d %d %d",
+            getGames(), wins, draws, losses, getScore() * 100, getElo(), getEloError(),
+            pentanomial[0], pentanomial[1], pentanomial[2], pentanomial[3], pentanomial[4]));
+        if (sprt != null) {
+            text.append(String.format(Locale.ROOT, " llr %.2f (%.2f, %.2f)", getLlr(), sprt.getLowerBound(),
+                sprt.getUpperBound()));
+        }
+        text.append(String.format(Locale.ROOT, " games/min %.1f (%.1f per thread)", getGamesPerMinute(),
+            getGamesPerMinutePerThread()));
+        return text.toString();
+    }
+}
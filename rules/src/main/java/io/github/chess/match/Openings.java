@@ -0,0 +1,79 @@
+package io.github.chess.match;
+
+import io.github.chess.entities.Game;
+import io.github.chess.entities.MoveGenerator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Starting positions for a Match, as FEN strings. */
+public final class Openings {
+
+    private Openings() {
+    }
+
+    // One FEN or EPD line per position, blank lines and lines starting with # skipped. EPD lines only have the
+    // four first fields, so the clocks are added.
+    public static List<String> load(Path path) throws IOException {
+        List<String> openings = new ArrayList<>();
+        Game game = new Game();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\\s+");
+                String fen = fields.length >= 6 && isNumber(fields[4]) && isNumber(fields[5])
+                    ? line
+                    : fields.length >= 4 ? fields[0] + " " + fields[1] + " " + fields[2] + " " + fields[3] + " 0 1"
+                    : line;
+                if (!game.loadFen(fen)) {
+                    throw new IOException("Invalid position: " + line);
+                }
+                openings.add(game.toFen());
+            }
+        }
+        return openings;
+    }
+
+    // Positions after this many random legal moves from the start, the same ones for the same seed. Sequences that
+    // end the game are drawn again.
+    public static List<String> random(int count, int plies, long seed) {
+        List<String> openings = new ArrayList<>(count);
+        Random random = new Random(seed);
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        while (openings.size() < count) {
+            Game game = new Game();
+            boolean playable = true;
+            for (int ply = 0; ply < plies && playable; ply++) {
+                int moveCount = MoveGenerator.generateLegalMoves(game, moves);
+                if (moveCount == 0) {
+                    playable = false;
+                } else {
+                    game.makeMove(moves[random.nextInt(moveCount)]);
+                }
+            }
+            if (playable && MoveGenerator.generateLegalMoves(game, moves) > 0) {
+                openings.add(game.toFen());
+            }
+        }
+        return openings;
+    }
+
+    private static boolean isNumber(String field) {
+        for (int i = 0; i < field.length(); i++) {
+            if (!Character.isDigit(field.charAt(i))) {
+                return false;
+            }
+        }
+        return !field.isEmpty();
+    }
+}
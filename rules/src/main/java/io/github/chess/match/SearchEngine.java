@@ -0,0 +1,51 @@
+package io.github.chess.match;
+
+import io.github.chess.engine.Search;
+import io.github.chess.engine.SearchLimits;
+import io.github.chess.engine.SearchResult;
+import io.github.chess.engine.TranspositionTable;
+import io.github.chess.entities.Game;
+
+/** MatchEngine over Search, with one transposition table for the life of the engine, cleared between games. */
+public class SearchEngine implements MatchEngine {
+
+    private final String name;
+    private final SearchLimits limits;
+    private final TranspositionTable table;
+    // A search is bound to its game, so it is created again when the game changes
+    private Game game;
+    private Search search;
+    private int lastScore;
+
+    public SearchEngine(EngineConfig config) {
+        name = config.getName();
+        limits = config.toLimits();
+        table = new TranspositionTable(config.getHashMb());
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void newGame() {
+        table.clear();
+    }
+
+    @Override
+    public int selectMove(Game game) {
+        if (game != this.game) {
+            this.game = game;
+            search = new Search(game, table);
+        }
+        SearchResult result = search.search(limits);
+        lastScore = result.getScore();
+        return result.getBestMove();
+    }
+
+    @Override
+    public int getLastScore() {
+        return lastScore;
+    }
+}
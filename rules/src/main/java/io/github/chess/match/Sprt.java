@@ -0,0 +1,87 @@
+package io.github.chess.match;
+
+/**
+ * Sequential probability ratio test of H0 "the first engine is elo0 stronger" against H1 "it is elo1 stronger",
+ * with false positive rate alpha and false negative rate beta. Games are counted in pairs playing the same opening
+ * with colors swapped, whose scores 0, 1/4, ..., 1 make the pentanomial model: the pair results are far less
+ * noisy than single games, since a lopsided opening cancels out. The log-likelihood ratio is the usual normal
+ * approximation N (s1 - s0) (2s - s0 - s1) / (2 var), for N pairs of mean score s and variance var, and s0, s1 the
+ * scores expected at elo0 and elo1.
+ */
+public class Sprt {
+
+    public static final int CONTINUE = 0;
+    public static final int H0_ACCEPTED = 1;
+    public static final int H1_ACCEPTED = 2;
+
+    private final double elo0;
+    private final double elo1;
+    private final double lowerBound;
+    private final double upperBound;
+
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        if (elo1 <= elo0 || alpha <= 0 || alpha >= 1 || beta <= 0 || beta >= 1) {
+            throw new IllegalArgumentException("Expected elo0 < elo1 and alpha, beta in (0, 1)");
+        }
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        lowerBound = Math.log(beta / (1 - alpha));
+        upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    // Expected score of a player this much stronger than its opponent
+    public static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    // Counts of pairs scoring 0, 1/4, 1/2, 3/4 and 1 for the first engine
+    public double llr(long[] pentanomial) {
+        long pairs = 0;
+        double sum = 0;
+        double squares = 0;
+        for (int i = 0; i < 5; i++) {
+            double score = i / 4.0;
+            pairs += pentanomial[i];
+            sum += pentanomial[i] * score;
+            squares += pentanomial[i] * score * score;
+        }
+        if (pairs == 0) {
+            return 0;
+        }
+        double mean = sum / pairs;
+        double variance = squares / pairs - mean * mean;
+        // A handful of identical pairs has no variance yet
+        if (variance <= 1e-6) {
+            return 0;
+        }
+        double s0 = expectedScore(elo0);
+        double s1 = expectedScore(elo1);
+        return pairs * (s1 - s0) * (2 * mean - s0 - s1) / (2 * variance);
+    }
+
+    public int status(double llr) {
+        if (llr >= upperBound) {
+            return H1_ACCEPTED;
+        }
+        if (llr <= lowerBound) {
+            return H0_ACCEPTED;
+        }
+        return CONTINUE;
+    }
+
+    public double getElo0() {
+        return elo0;
+    }
+
+    public double getElo1() {
+        return elo1;
+    }
+
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    public double getUpperBound() {
+        return upperBound;
+    }
+}
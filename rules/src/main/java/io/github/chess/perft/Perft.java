@@ -0,0 +1,162 @@
+package io.github.chess.perft;
+
+import io.github.chess.entities.Fen;
+import io.github.chess.entities.Game;
+import io.github.chess.entities.MoveGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaves of the legal move tree to a given depth, to check the move generator against published counts
+ * and to measure its speed. Every root move is a fork/join task on its own copy of the game, and so is every move
+ * below it while enough depth is left, so that a few big subtrees don't keep the other threads waiting. Counts
+ * of transpositions can be shared between the tasks through a PerftTable.
+ */
+public class Perft {
+
+    // Tasks with this depth left or less count their subtree on their own thread
+    private static final int SPLIT_DEPTH = 4;
+
+    private final ForkJoinPool pool;
+    private final PerftTable table;
+
+    // Without table when it is null
+    public Perft(int threads, PerftTable table) {
+        pool = new ForkJoinPool(Math.max(1, threads));
+        this.table = table;
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: Perft <depth> [fen|startpos] [threads] [hashMb]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        String fen = args.length > 1 && !args[1].equals("startpos") ? args[1] : Fen.START_POSITION;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int hashMb = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+
+        Game game = new Game();
+        if (!game.loadFen(fen)) {
+            System.err.println("Invalid FEN: " + fen);
+            return;
+        }
+        Perft perft = new Perft(threads, hashMb > 0 ? new PerftTable(hashMb) : null);
+        try {
+            System.out.println(perft.divide(game, depth));
+        } finally {
+            perft.shutdown();
+        }
+    }
+
+    // Leaves below each legal move; the game itself isn't changed
+    public PerftResult divide(Game game, int depth) {
+        long startTime = System.currentTimeMillis();
+        int[] buffer = new int[MoveGenerator.MAX_MOVES];
+        int count = depth > 0 ? MoveGenerator.generateLegalMoves(game, buffer) : 0;
+        int[] moves = new int[count];
+        long[] counts = new long[count];
+        List<Count> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            moves[i] = buffer[i];
+            Count task = new Count(after(game, moves[i]), depth - 1);
+            pool.execute(task);
+            tasks.add(task);
+        }
+        long nodes = depth > 0 ? 0 : 1;
+        for (int i = 0; i < count; i++) {
+            counts[i] = tasks.get(i).join();
+            nodes += counts[i];
+        }
+        return new PerftResult(moves, counts, nodes, System.currentTimeMillis() - startTime);
+    }
+
+    public long count(Game game, int depth) {
+        return divide(game, depth).getNodes();
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    // Single-threaded count, making and unmaking moves on the game. moves[d] holds the moves at d plies left.
+    private long count(Game game, int depth, int[][] moves) {
+        if (depth == 0) {
+            return 1;
+        }
+        long key = 0;
+        if (table != null && depth > 1) {
+            key = game.getZobristKey();
+            long stored = table.probe(key, depth);
+            if (stored >= 0) {
+                return stored;
+            }
+        }
+        int[] list = moves[depth];
+        int count = MoveGenerator.generateLegalMoves(game, list);
+        // The last ply is only counted, not played
+        if (depth == 1) {
+            return count;
+        }
+        long nodes = 0;
+        for (int i = 0; i < count; i++) {
+            game.makeMove(list[i]);
+            nodes += count(game, depth - 1, moves);
+            game.unmakeMove();
+        }
+        if (table != null) {
+            table.store(key, depth, nodes);
+        }
+        return nodes;
+    }
+
+    private static Game after(Game game, int move) {
+        Game copy = new Game(game);
+        copy.makeMove(move);
+        return copy;
+    }
+
+    private final class Count extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Game game;
+        private final int depth;
+
+        Count(Game game, int depth) {
+            this.game = game;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= SPLIT_DEPTH) {
+                return count(game, depth, new int[depth + 1][MoveGenerator.MAX_MOVES]);
+            }
+            long key = game.getZobristKey();
+            if (table != null) {
+                long stored = table.probe(key, depth);
+                if (stored >= 0) {
+                    return stored;
+                }
+            }
+            int[] moves = new int[MoveGenerator.MAX_MOVES];
+            int count = MoveGenerator.generateLegalMoves(game, moves);
+            List<Count> tasks = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                tasks.add(new Count(after(game, moves[i]), depth - 1));
+            }
+            long nodes = 0;
+            for (Count task : invokeAll(tasks)) {
+                nodes += task.join();
+            }
+            if (table != null) {
+                table.store(key, depth, nodes);
+            }
+            return nodes;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.chess.perft;
+
+import io.github.chess.entities.Move;
+
+/** Leaf counts of a perft run, in total and below each root move (the "divide" output). */
+public class PerftResult {
+
+    private final int[] moves;
+    private final long[] counts;
+    private final long nodes;
+    private final long timeMillis;
+
+    public PerftResult(int[] moves, long[] counts, long nodes, long timeMillis) {
+        this.moves = moves;
+        this.counts = counts;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+    }
+
+    public int getMoveCount() {
+        return moves.length;
+    }
+
+    public int getMove(int i) {
+        return moves[i];
+    }
+
+    // Leaf nodes after getMove(i)
+    public long getCount(int i) {
+        return counts[i];
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    public long getNodesPerSecond() {
+        return timeMillis == 0 ? 0 : nodes * 1000 / timeMillis;
+    }
+
+    // One "move: count" line per root move, as other engines print it, then the totals
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < moves.length; i++) {
+            text.append(Move.toString(moves[i])).append(": ").append(counts[i]).append('\n');
+        }
+        return text.append("nodes ").append(nodes).append(" time ").append(timeMillis).append(" ms nodes/s ")
+            .append(getNodesPerSecond()).toString();
+    }
+}
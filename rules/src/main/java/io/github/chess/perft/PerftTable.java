@@ -0,0 +1,45 @@
+package io.github.chess.perft;
+
+/**
+ * Leaf counts of positions already counted, by Zobrist key and remaining depth, shared by the perft threads without
+ * locks. As in TranspositionTable, an entry stores {@code key ^ data} next to {@code data}, so an entry torn by a
+ * concurrent write doesn't give back its key and is ignored. Data is the count in the high 56 bits and the depth
+ * in the low 8; a new entry always replaces the old one.
+ */
+public final class PerftTable {
+
+    // Distinct depths of the same position land in different slots
+    private static final long DEPTH_MIX = 0x9E3779B97F4A7C15L;
+
+    private final long[] entries;
+    private final int mask;
+
+    public PerftTable(int sizeMb) {
+        long entryCount = Long.highestOneBit(Math.max(1L, (long) sizeMb * 1024 * 1024 / 16));
+        // Up to 2^30 longs in one array
+        entryCount = Math.min(entryCount, 1L << 29);
+        entries = new long[(int) entryCount * 2];
+        mask = (int) entryCount - 1;
+    }
+
+    // The leaf count stored for the position at this depth, or -1
+    public long probe(long key, int depth) {
+        int index = indexFor(key, depth);
+        long data = entries[index + 1];
+        if ((entries[index] ^ data) == key && data != 0 && (int) (data & 0xFF) == depth) {
+            return data >>> 8;
+        }
+        return -1;
+    }
+
+    public void store(long key, int depth, long count) {
+        int index = indexFor(key, depth);
+        long data = count << 8 | depth;
+        entries[index] = key ^ data;
+        entries[index + 1] = data;
+    }
+
+    private int indexFor(long key, int depth) {
+        return (int) ((key ^ depth * DEPTH_MIX) & mask) * 2;
+    }
+}
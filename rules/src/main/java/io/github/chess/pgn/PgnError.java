@@ -0,0 +1,32 @@
+package io.github.chess.pgn;
+
+/** A game that could not be replayed, located by the byte offset of its first tag and of the faulty token. */
+public class PgnError {
+
+    private final long gameOffset;
+    private final long offset;
+    private final String message;
+
+    public PgnError(long gameOffset, long offset, String message) {
+        this.gameOffset = gameOffset;
+        this.offset = offset;
+        this.message = message;
+    }
+
+    public long getGameOffset() {
+        return gameOffset;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return "game at byte " + gameOffset + ": " + message + " at byte " + offset;
+    }
+}
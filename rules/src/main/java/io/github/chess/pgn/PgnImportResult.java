@@ -0,0 +1,61 @@
+package io.github.chess.pgn;
+
+import java.util.List;
+
+/** Totals of a PGN import. Only the first errors are kept here; a PgnListener sees every one of them. */
+public class PgnImportResult {
+
+    private final long games;
+    private final long moves;
+    private final long errorCount;
+    private final List<PgnError> errors;
+    private final long bytes;
+    private final long timeMillis;
+
+    public PgnImportResult(long games, long moves, long errorCount, List<PgnError> errors, long bytes,
+                           long timeMillis) {
+        this.games = games;
+        this.moves = moves;
+        this.errorCount = errorCount;
+        this.errors = errors;
+        this.bytes = bytes;
+        this.timeMillis = timeMillis;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    // Ordered by position in the file
+    public List<PgnError> getErrors() {
+        return errors;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    // Games replayed without error per second
+    public long getGamesPerSecond() {
+        return timeMillis == 0 ? 0 : games * 1000 / timeMillis;
+    }
+
+    @Override
+    public String toString() {
+        long megabytesPerSecond = timeMillis == 0 ? 0 : bytes * 1000 / timeMillis >> 20;
+        return "games " + games + " moves " + moves + " errors " + errorCount + " time " + timeMillis
+            + " ms games/s " + getGamesPerSecond() + " MB/s " + megabytesPerSecond;
+    }
+}
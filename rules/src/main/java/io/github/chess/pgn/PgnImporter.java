@@ -0,0 +1,232 @@
+package io.github.chess.pgn;
+
+import io.github.chess.entities.Game;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Replays every game of a PGN file of any size. The file is memory-mapped in segments of at most
+ * MAX_SEGMENT_SIZE bytes that start on game boundaries, and the segments are parsed in parallel, each by its own
+ * PgnParser. Malformed games are reported and skipped, and so is a single game too large for a segment. Run it on
+ * its own with ./gradlew rules:importPgn -Pfile=games.pgn [-Pthreads=N].
+ */
+public class PgnImporter {
+
+    // A mapping can't go past 2 GB, and smaller segments spread the work better
+    private static final long MAX_SEGMENT_SIZE = 256L << 20;
+    private static final int SEGMENTS_PER_THREAD = 4;
+    private static final int SCAN_BUFFER_SIZE = 64 << 10;
+    private static final int MAX_KEPT_ERRORS = 100;
+
+    private final int threads;
+    private final long maxSegmentSize;
+    private PgnListener listener;
+
+    public PgnImporter(int threads) {
+        this(threads, MAX_SEGMENT_SIZE);
+    }
+
+    // A smaller segment size lets tests reach the oversized game case with small files
+    PgnImporter(int threads, long maxSegmentSize) {
+        this.threads = Math.max(1, threads);
+        this.maxSegmentSize = maxSegmentSize;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: PgnImporter <file.pgn> [threads]");
+            return;
+        }
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        PgnImportResult result = new PgnImporter(threads).importFile(Paths.get(args[0]));
+        for (PgnError error : result.getErrors()) {
+            System.out.println(error);
+        }
+        if (result.getErrorCount() > result.getErrors().size()) {
+            System.out.println("... " + (result.getErrorCount() - result.getErrors().size()) + " more errors");
+        }
+        System.out.println(result);
+    }
+
+    public PgnImportResult importFile(Path path) throws IOException {
+        long startTime = System.currentTimeMillis();
+        ErrorCollector collector = new ErrorCollector(listener);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] bounds = findSegments(channel, size);
+            List<Future<PgnParser>> tasks = new ArrayList<>();
+            long skipped = 0;
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                long from = bounds[i];
+                if (bounds[i + 1] - from > maxSegmentSize) {
+                    collector.onError(new PgnError(from, from, "game over " + maxSegmentSize + " bytes, skipped"));
+                    skipped++;
+                    continue;
+                }
+                int length = (int) (bounds[i + 1] - from);
+                tasks.add(executor.submit(() -> {
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+                    PgnParser parser = new PgnParser(collector);
+                    parser.parse(buffer, 0, length, from);
+                    return parser;
+                }));
+            }
+
+            long games = 0;
+            long moves = 0;
+            long errors = skipped;
+            for (Future<PgnParser> task : tasks) {
+                PgnParser parser = task.get();
+                games += parser.getGames();
+                moves += parser.getMoveCount();
+                errors += parser.getErrors();
+            }
+            return new PgnImportResult(games, moves, errors, collector.getErrors(), size,
+                System.currentTimeMillis() - startTime);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("PGN import interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException("PGN import failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public void setListener(PgnListener listener) {
+        this.listener = listener;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    // Segment start offsets followed by the file size. Every start is the first tag of a game, and segments stay
+    // under maxSegmentSize unless they hold a single game that is larger, which the caller skips.
+    private long[] findSegments(FileChannel channel, long size) throws IOException {
+        long target = Math.max(1, Math.min(maxSegmentSize / 2, size / ((long) threads * SEGMENTS_PER_THREAD)));
+        List<Long> bounds = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            bounds.add(start);
+            long limit = Math.min(size, start + maxSegmentSize);
+            long end = start + target >= size ? size : findGameStart(channel, start + target, limit, false);
+            if (end < 0 && limit == size) {
+                end = size;
+            } else if (end < 0) {
+                // The game running past start + target is too large for a segment: it gets one of its own
+                long gameStart = findGameStart(channel, start + 1, start + target, true);
+                if (gameStart > start) {
+                    bounds.add(gameStart);
+                }
+                // Nothing starts before limit; scanning from the same point as above keeps the line state right
+                end = findGameStart(channel, start + target, size, false);
+                end = end < 0 ? size : end;
+            }
+            start = end;
+        }
+        bounds.add(size);
+        long[] segments = new long[bounds.size()];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = bounds.get(i);
+        }
+        return segments;
+    }
+
+    // The first or last game start in [from, limit), or -1 when there is none. A game starts with a '[' opening a
+    // line after one that isn't a tag, so games split with or without blank lines between them.
+    private static long findGameStart(FileChannel channel, long from, long limit, boolean last) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        // from may be in the middle of a line, so the line after it can't be told to follow a tag or not
+        boolean lineStart = false;
+        boolean lineKnown = false;
+        boolean lineIsTag = true;
+        boolean previousLineIsTag = true;
+        long found = -1;
+        long position = from;
+        while (position < limit) {
+            buffer.clear();
+            buffer.limit((int) Math.min(SCAN_BUFFER_SIZE, limit - position));
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte c = buffer.get(i);
+                if (c == '\n') {
+                    previousLineIsTag = !lineKnown || lineIsTag;
+                    lineStart = true;
+                    lineKnown = true;
+                    lineIsTag = false;
+                } else if (lineStart && c != ' ' && c != '\t' && c != '\r') {
+                    lineStart = false;
+                    lineIsTag = c == '[';
+                    if (lineIsTag && !previousLineIsTag) {
+                        found = position + i;
+                        if (!last) {
+                            return found;
+                        }
+                    }
+                }
+            }
+            position += read;
+        }
+        return found;
+    }
+
+    // Keeps the first errors for the result and passes every call on to the user's listener
+    private static class ErrorCollector implements PgnListener {
+
+        private final PgnListener listener;
+        private final List<PgnError> errors = new ArrayList<>();
+
+        ErrorCollector(PgnListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void onGame(Game game, long offset, String result) {
+            if (listener != null) {
+                listener.onGame(game, offset, result);
+            }
+        }
+
+        @Override
+        public void onError(PgnError error) {
+            synchronized (errors) {
+                if (errors.size() < MAX_KEPT_ERRORS) {
+                    errors.add(error);
+                }
+            }
+            if (listener != null) {
+                listener.onError(error);
+            }
+        }
+
+        List<PgnError> getErrors() {
+            synchronized (errors) {
+                List<PgnError> sorted = new ArrayList<>(errors);
+                sorted.sort(Comparator.comparingLong(PgnError::getOffset));
+                return sorted;
+            }
+        }
+    }
+}
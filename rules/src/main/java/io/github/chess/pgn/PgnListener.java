@@ -0,0 +1,17 @@
+package io.github.chess.pgn;
+
+import io.github.chess.entities.Game;
+
+/**
+ * Receives every game of an import. With several threads the calls come from all of them at once, and the
+ * Game is reused for the next game as soon as onGame returns.
+ */
+public interface PgnListener {
+
+    // The game as it stands after its last move; offset is where its first tag starts in the file, and result is
+    // the game termination marker ("1-0", "0-1", "1/2-1/2" or "*"), taken from the Result tag when the move text
+    // has none
+    void onGame(Game game, long offset, String result);
+
+    void onError(PgnError error);
+}
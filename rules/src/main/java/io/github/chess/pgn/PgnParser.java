@@ -0,0 +1,415 @@
+package io.github.chess.pgn;
+
+import io.github.chess.entities.Bitboards;
+import io.github.chess.entities.Fen;
+import io.github.chess.entities.Game;
+import io.github.chess.entities.Move;
+import io.github.chess.entities.MoveGenerator;
+import io.github.chess.enums.PieceType;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Replays the games of a PGN text held in a ByteBuffer. Tokens are read in place with absolute gets, and each SAN
+ * move is matched against the legal moves of the game, so a game is accepted exactly when Game.movePiece would
+ * accept every move of it. Comments, variations and NAGs are skipped. One parser per thread.
+ */
+public class PgnParser {
+
+    private static final String PIECE_LETTERS = "NBRQK";
+    private static final String PROMOTION_LETTERS = "NBRQ";
+    private static final String[] RESULTS = {"1-0", "0-1", "1/2-1/2", "*"};
+    private static final String UNKNOWN_RESULT = "*";
+
+    private final PgnListener listener;
+    private final Game game = new Game();
+    private final Fen startPosition = new Fen();
+    private final Fen fen = new Fen();
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+
+    private ByteBuffer buffer;
+    private int end;
+    // File offset of buffer index 0, for the reports
+    private long baseOffset;
+
+    private boolean inGame;
+    private boolean inMoveText;
+    private boolean failed;
+    private long gameOffset;
+    // One of RESULTS, so that no string is built per game
+    private String result;
+    // Why the last resolveSan() call returned Move.NONE
+    private String resolveError;
+
+    private long games;
+    private long moveCount;
+    private long errors;
+
+    public PgnParser(PgnListener listener) {
+        this.listener = listener;
+        startPosition.parse(Fen.START_POSITION);
+    }
+
+    // Parses buffer[start, end). A game still open at the end is finished, since the end of a file also ends its
+    // last game.
+    public void parse(ByteBuffer buffer, int start, int end, long offset) {
+        this.buffer = buffer;
+        this.end = end;
+        baseOffset = offset;
+        int pos = start;
+        boolean lineStart = true;
+        while (pos < end) {
+            byte c = buffer.get(pos);
+            if (c == '\n') {
+                lineStart = true;
+                pos++;
+                continue;
+            }
+            if (isSpace(c)) {
+                pos++;
+                continue;
+            }
+            boolean atLineStart = lineStart;
+            lineStart = false;
+            if (c == '[') {
+                pos = parseTag(pos);
+            } else if (c == '{') {
+                pos = skipPast(pos + 1, (byte) '}');
+            } else if (c == ';' || c == '%' && atLineStart) {
+                pos = skipToLineEnd(pos);
+            } else if (c == '(') {
+                pos = skipVariation(pos);
+            } else if (c == '}' || c == ')') {
+                // Stray closing bracket, nothing to do with the moves
+                pos++;
+            } else {
+                pos = parseToken(pos);
+            }
+        }
+        if (inGame) {
+            finishGame();
+        }
+        this.buffer = null;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getMoveCount() {
+        return moveCount;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    // [Name "Value"], returns the position after the closing bracket
+    private int parseTag(int pos) {
+        if (inMoveText) {
+            // The previous game had no termination marker
+            finishGame();
+        }
+        if (!inGame) {
+            startGame(pos);
+        }
+
+        int i = skipSpaces(pos + 1);
+        int nameStart = i;
+        while (i < end && isNameChar(buffer.get(i))) {
+            i++;
+        }
+        int nameEnd = i;
+        i = skipSpaces(i);
+        if (i == end || buffer.get(i) != '"') {
+            fail(pos, "malformed tag");
+            return skipToLineEnd(pos);
+        }
+        int valueStart = ++i;
+        while (i < end && buffer.get(i) != '"') {
+            i += buffer.get(i) == '\\' ? 2 : 1;
+        }
+        int valueEnd = Math.min(i, end);
+
+        if (matches(nameStart, nameEnd, "Result")) {
+            String token = findResult(valueStart, valueEnd);
+            if (token != null) {
+                result = token;
+            }
+        } else if (matches(nameStart, nameEnd, "FEN") && !failed) {
+            if (fen.parse(buffer, valueStart, valueEnd)) {
+                game.setPosition(fen);
+            } else {
+                fail(valueStart, "invalid FEN tag");
+            }
+        }
+        return skipPast(valueEnd, (byte) ']');
+    }
+
+    // Move number, move, NAG or game termination marker; returns the position after it
+    private int parseToken(int pos) {
+        int tokenEnd = pos;
+        while (tokenEnd < end && !isDelimiter(buffer.get(tokenEnd))) {
+            tokenEnd++;
+        }
+        if (!inGame) {
+            // Move text without tags
+            startGame(pos);
+        }
+        inMoveText = true;
+
+        String token = findResult(pos, tokenEnd);
+        if (token != null) {
+            result = token;
+            finishGame();
+            return tokenEnd;
+        }
+        if (buffer.get(pos) == '$' || failed) {
+            return tokenEnd;
+        }
+
+        // A move number can be glued to its move, as in "12.e4"; "0-0" is castling though
+        int start = pos;
+        if (isDigit(buffer.get(start)) && !(tokenEnd - start >= 3 && matches(start, start + 3, "0-0"))) {
+            while (start < tokenEnd && isDigit(buffer.get(start))) {
+                start++;
+            }
+            if (start < tokenEnd && buffer.get(start) != '.') {
+                fail(pos, "unreadable move " + text(pos, tokenEnd));
+                return tokenEnd;
+            }
+        }
+        while (start < tokenEnd && buffer.get(start) == '.') {
+            start++;
+        }
+        int moveEnd = tokenEnd;
+        while (moveEnd > start && isAnnotation(buffer.get(moveEnd - 1))) {
+            moveEnd--;
+        }
+        if (moveEnd == start || matches(start, moveEnd, "e.p.")) {
+            return tokenEnd;
+        }
+
+        int move = resolveSan(start, moveEnd);
+        if (move == Move.NONE) {
+            fail(start, resolveError + " " + text(start, tokenEnd));
+            return tokenEnd;
+        }
+        game.makeMove(move);
+        moveCount++;
+        return tokenEnd;
+    }
+
+    // The legal move a SAN move stands for, or Move.NONE with resolveError set
+    private int resolveSan(int start, int end) {
+        int count = MoveGenerator.generateLegalMoves(game, moves);
+        byte first = buffer.get(start);
+        if (first == 'O' || first == '0') {
+            boolean kingSide = matches(start, end, "O-O") || matches(start, end, "0-0");
+            if (!kingSide && !matches(start, end, "O-O-O") && !matches(start, end, "0-0-0")) {
+                resolveError = "unreadable move";
+                return Move.NONE;
+            }
+            for (int i = 0; i < count; i++) {
+                int move = moves[i];
+                if (Move.isCastling(move) && (Move.to(move) > Move.from(move)) == kingSide) {
+                    return move;
+                }
+            }
+            resolveError = "illegal move";
+            return Move.NONE;
+        }
+
+        int i = start;
+        int type = PIECE_LETTERS.indexOf((char) first) + 1;
+        if (type > 0) {
+            i++;
+        }
+        int promotion = -1;
+        if (type == PieceType.PAWN.ordinal()) {
+            int letter = PROMOTION_LETTERS.indexOf((char) buffer.get(end - 1));
+            if (letter >= 0) {
+                promotion = letter + 1;
+                end--;
+                if (end > i && buffer.get(end - 1) == '=') {
+                    end--;
+                }
+            }
+        }
+        if (end - i < 2 || !isFile(buffer.get(end - 2)) || !isRank(buffer.get(end - 1))) {
+            resolveError = "unreadable move";
+            return Move.NONE;
+        }
+        int to = Bitboards.square('8' - buffer.get(end - 1), buffer.get(end - 2) - 'a');
+
+        // Disambiguation by file and/or rank, then an optional capture sign
+        int fromColumn = -1;
+        int fromRow = -1;
+        for (int j = i; j < end - 2; j++) {
+            byte c = buffer.get(j);
+            if (isFile(c)) {
+                fromColumn = c - 'a';
+            } else if (isRank(c)) {
+                fromRow = '8' - c;
+            } else if (c != 'x' && c != ':' && c != '-') {
+                resolveError = "unreadable move";
+                return Move.NONE;
+            }
+        }
+
+        int found = Move.NONE;
+        int matching = 0;
+        for (int j = 0; j < count; j++) {
+            int move = moves[j];
+            int from = Move.from(move);
+            if (Move.to(move) != to || Move.piece(move) % 6 != type
+                || fromColumn >= 0 && Bitboards.column(from) != fromColumn
+                || fromRow >= 0 && Bitboards.row(from) != fromRow
+                || (Move.isPromotion(move) ? Move.promotion(move) % 6 != promotion : promotion >= 0)) {
+                continue;
+            }
+            found = move;
+            matching++;
+        }
+        if (matching == 1) {
+            return found;
+        }
+        resolveError = matching == 0 ? "illegal move" : "ambiguous move";
+        return Move.NONE;
+    }
+
+    private void startGame(int pos) {
+        inGame = true;
+        inMoveText = false;
+        failed = false;
+        gameOffset = baseOffset + pos;
+        result = UNKNOWN_RESULT;
+        game.setPosition(startPosition);
+    }
+
+    private void finishGame() {
+        if (!failed) {
+            games++;
+            if (listener != null) {
+                listener.onGame(game, gameOffset, result);
+            }
+        }
+        inGame = false;
+        inMoveText = false;
+        failed = false;
+    }
+
+    // Only the first problem of a game is reported, the rest of it is skipped
+    private void fail(int pos, String message) {
+        if (failed) {
+            return;
+        }
+        failed = true;
+        errors++;
+        if (listener != null) {
+            listener.onError(new PgnError(gameOffset, baseOffset + pos, message));
+        }
+    }
+
+    private int skipVariation(int pos) {
+        int depth = 0;
+        while (pos < end) {
+            byte c = buffer.get(pos);
+            if (c == '{') {
+                pos = skipPast(pos + 1, (byte) '}');
+                continue;
+            }
+            if (c == ';') {
+                pos = skipToLineEnd(pos);
+                continue;
+            }
+            pos++;
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                break;
+            }
+        }
+        return pos;
+    }
+
+    private int skipPast(int pos, byte terminator) {
+        while (pos < end && buffer.get(pos) != terminator) {
+            pos++;
+        }
+        return Math.min(pos + 1, end);
+    }
+
+    // Stops on the line feed, so that the caller sees the next line start
+    private int skipToLineEnd(int pos) {
+        while (pos < end && buffer.get(pos) != '\n') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private int skipSpaces(int pos) {
+        while (pos < end && isSpace(buffer.get(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private String findResult(int start, int end) {
+        for (String token : RESULTS) {
+            if (matches(start, end, token)) {
+                return token;
+            }
+        }
+        return null;
+    }
+
+    private boolean matches(int start, int end, String text) {
+        if (end - start != text.length()) {
+            return false;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (buffer.get(start + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Only built for error messages
+    private String text(int start, int end) {
+        char[] chars = new char[end - start];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) (buffer.get(start + i) & 0xFF);
+        }
+        return new String(chars);
+    }
+
+    private static boolean isSpace(byte c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    private static boolean isDelimiter(byte c) {
+        return isSpace(c) || c == '{' || c == '}' || c == '(' || c == ')' || c == ';' || c == '[';
+    }
+
+    private static boolean isAnnotation(byte c) {
+        return c == '+' || c == '#' || c == '!' || c == '?';
+    }
+
+    private static boolean isNameChar(byte c) {
+        return c > ' ' && c != '"' && c != ']';
+    }
+
+    private static boolean isDigit(byte c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isFile(byte c) {
+        return c >= 'a' && c <= 'h';
+    }
+
+    private static boolean isRank(byte c) {
+        return c >= '1' && c <= '8';
+    }
+}
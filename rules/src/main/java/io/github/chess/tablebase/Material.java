@@ -0,0 +1,250 @@
+package io.github.chess.tablebase;
+
+import io.github.chess.entities.Move;
+import io.github.chess.enums.PieceColor;
+import io.github.chess.enums.PieceType;
+
+/**
+ * The pieces of one table: the white king, the black king, then up to two other pieces in decreasing piece index
+ * order (see Board), so white before black and queens before pawns. The side with more or stronger pieces is
+ * always white; positions where black has them are looked up with the colors swapped.
+ *
+ * Positions are indexed by side to move and piece squares. The white king is moved by symmetry into the
+ * a1-d1-d4 triangle, or onto the a-d files when there are pawns, so a table has 2 x 10 x 64^(n-1) entries
+ * without pawns and 2 x 32 x 64^(n-1) with them.
+ */
+final class Material {
+
+    static final int MAX_PIECES = 4;
+    static final int WHITE = PieceColor.WHITE.ordinal();
+    static final int BLACK = PieceColor.BLACK.ordinal();
+    static final int WHITE_KING = WHITE * 6 + PieceType.KING.ordinal();
+    static final int BLACK_KING = BLACK * 6 + PieceType.KING.ordinal();
+    // Number of keys, see key()
+    static final int KEYS = 13 * 13;
+
+    private static final String LETTERS = "PNBRQK";
+    private static final int MIRROR_COLUMN = 1;
+    private static final int MIRROR_ROW = 2;
+    private static final int TRANSPOSE = 4;
+
+    // Index of the white king square among the canonical ones, -1 for the others
+    private static final int[] KING_INDEX = new int[64];
+    private static final int[] KING_INDEX_PAWNS = new int[64];
+    private static final int[] KING_SQUARES = new int[10];
+    private static final int[] KING_SQUARES_PAWNS = new int[32];
+
+    static {
+        int count = 0;
+        int countPawns = 0;
+        for (int square = 0; square < 64; square++) {
+            int row = square >>> 3;
+            int column = square & 7;
+            KING_INDEX[square] = -1;
+            KING_INDEX_PAWNS[square] = -1;
+            if (column <= 3) {
+                KING_SQUARES_PAWNS[countPawns] = square;
+                KING_INDEX_PAWNS[square] = countPawns++;
+                if (row >= 4 && 7 - row <= column) {
+                    KING_SQUARES[count] = square;
+                    KING_INDEX[square] = count++;
+                }
+            }
+        }
+    }
+
+    final String name;
+    final int count;
+    // Piece indices in table order, kings first
+    final int[] pieces;
+    final boolean pawns;
+    final int size;
+    private final int[] kingIndex;
+    private final int[] kingSquares;
+
+    private Material(int piece1, int piece2) {
+        count = piece1 == Move.NO_PIECE ? 2 : piece2 == Move.NO_PIECE ? 3 : 4;
+        pieces = new int[count];
+        pieces[0] = WHITE_KING;
+        pieces[1] = BLACK_KING;
+        if (count > 2) pieces[2] = piece1;
+        if (count > 3) pieces[3] = piece2;
+        pawns = isPawn(piece1) || isPawn(piece2);
+        kingIndex = pawns ? KING_INDEX_PAWNS : KING_INDEX;
+        kingSquares = pawns ? KING_SQUARES_PAWNS : KING_SQUARES;
+        size = 2 * kingSquares.length << 6 * (count - 1);
+        name = name(piece1, piece2);
+    }
+
+    // The table holding the two pieces, given in any order and either of them Move.NO_PIECE
+    static Material of(int piece1, int piece2) {
+        if (isFlipped(piece1, piece2)) {
+            piece1 = flip(piece1);
+            piece2 = flip(piece2);
+        }
+        if (before(piece2, piece1)) {
+            return new Material(piece2, piece1);
+        }
+        return new Material(piece1, piece2);
+    }
+
+    // Parses names such as KQvKR; null if the name isn't a table of at most MAX_PIECES pieces
+    static Material parse(String name) {
+        int separator = name.indexOf('v');
+        if (separator < 1 || name.charAt(0) != 'K' || separator + 1 >= name.length()
+            || name.charAt(separator + 1) != 'K') {
+            return null;
+        }
+        int[] found = {Move.NO_PIECE, Move.NO_PIECE};
+        int count = 0;
+        for (int i = 1; i < name.length(); i++) {
+            if (i == separator || i == separator + 1) {
+                continue;
+            }
+            int type = LETTERS.indexOf(name.charAt(i));
+            if (type < 0 || type == PieceType.KING.ordinal() || count == found.length) {
+                return null;
+            }
+            found[count++] = (i < separator ? WHITE : BLACK) * 6 + type;
+        }
+        return of(found[0], found[1]);
+    }
+
+    // Tells the tables apart by their two pieces, sorted with Move.NO_PIECE last
+    static int key(int piece1, int piece2) {
+        return (piece1 == Move.NO_PIECE ? 0 : piece1 + 1) * 13 + (piece2 == Move.NO_PIECE ? 0 : piece2 + 1);
+    }
+
+    int key() {
+        return key(count > 2 ? pieces[2] : Move.NO_PIECE, count > 3 ? pieces[3] : Move.NO_PIECE);
+    }
+
+    // The key of the same pieces with the colors swapped
+    int flippedKey() {
+        int piece1 = count > 2 ? flip(pieces[2]) : Move.NO_PIECE;
+        int piece2 = count > 3 ? flip(pieces[3]) : Move.NO_PIECE;
+        return before(piece2, piece1) ? key(piece2, piece1) : key(piece1, piece2);
+    }
+
+    // Captures and promotions only lead to tables with fewer pieces or fewer pawns, which are generated first
+    int pawnCount() {
+        int pawnCount = 0;
+        for (int i = 2; i < count; i++) {
+            if (isPawn(pieces[i])) {
+                pawnCount++;
+            }
+        }
+        return pawnCount;
+    }
+
+    // Squares of pieces[2] and pieces[3], the ones a table doesn't have ignored
+    int index(int sideToMove, int whiteKing, int blackKing, int square1, int square2) {
+        int flags = transform(whiteKing, blackKing, square1, square2);
+        int index = (sideToMove * kingSquares.length + kingIndex[apply(whiteKing, flags)]) << 6
+            | apply(blackKing, flags);
+        if (count > 2) index = index << 6 | apply(square1, flags);
+        if (count > 3) index = index << 6 | apply(square2, flags);
+        return index;
+    }
+
+    // Fills in the squares in table order and returns the side to move
+    int decode(int index, int[] squares) {
+        for (int i = count - 1; i > 0; i--) {
+            squares[i] = index & 63;
+            index >>>= 6;
+        }
+        squares[0] = kingSquares[index % kingSquares.length];
+        return index / kingSquares.length;
+    }
+
+    static int flip(int piece) {
+        if (piece == Move.NO_PIECE) {
+            return piece;
+        }
+        return piece < 6 ? piece + 6 : piece - 6;
+    }
+
+    // Black has more pieces than white, or as many but a stronger one
+    static boolean isFlipped(int piece1, int piece2) {
+        int white = 0;
+        int black = 0;
+        int strongestWhite = -1;
+        int strongestBlack = -1;
+        for (int piece : new int[]{piece1, piece2}) {
+            if (piece == Move.NO_PIECE) {
+                continue;
+            }
+            if (piece / 6 == WHITE) {
+                white++;
+                strongestWhite = Math.max(strongestWhite, piece % 6);
+            } else {
+                black++;
+                strongestBlack = Math.max(strongestBlack, piece % 6);
+            }
+        }
+        return black > white || black == white && strongestBlack > strongestWhite;
+    }
+
+    // Table order of the non-king pieces: higher piece index first, Move.NO_PIECE last
+    static boolean before(int piece, int other) {
+        return piece != Move.NO_PIECE && (other == Move.NO_PIECE || piece > other);
+    }
+
+    private static boolean isPawn(int piece) {
+        return piece != Move.NO_PIECE && piece % 6 == PieceType.PAWN.ordinal();
+    }
+
+    private static String name(int piece1, int piece2) {
+        StringBuilder white = new StringBuilder("K");
+        StringBuilder black = new StringBuilder("K");
+        for (int piece : new int[]{piece1, piece2}) {
+            if (piece != Move.NO_PIECE) {
+                (piece / 6 == WHITE ? white : black).append(LETTERS.charAt(piece % 6));
+            }
+        }
+        return white + "v" + black;
+    }
+
+    // Mirrors and transposition that bring the white king into its canonical squares. With the king on the a1-h8
+    // diagonal, transposing keeps it there, so the first other piece off the diagonal is moved below it; otherwise
+    // the same position would have two indices and moves into it would only reach one of them.
+    private int transform(int whiteKing, int blackKing, int square1, int square2) {
+        int flags = 0;
+        if ((whiteKing & 7) > 3) {
+            flags |= MIRROR_COLUMN;
+            whiteKing ^= 7;
+        }
+        if (pawns) {
+            return flags;
+        }
+        if (whiteKing >>> 3 < 4) {
+            flags |= MIRROR_ROW;
+            whiteKing ^= 56;
+        }
+        if (7 - (whiteKing >>> 3) > (whiteKing & 7)) {
+            return flags | TRANSPOSE;
+        }
+        if (7 - (whiteKing >>> 3) == (whiteKing & 7)) {
+            for (int i = 1; i < count; i++) {
+                int square = apply(i == 1 ? blackKing : i == 2 ? square1 : square2, flags);
+                int diagonal = 7 - (square >>> 3) - (square & 7);
+                if (diagonal != 0) {
+                    return diagonal > 0 ? flags | TRANSPOSE : flags;
+                }
+            }
+        }
+        return flags;
+    }
+
+    private static int apply(int square, int flags) {
+        if ((flags & MIRROR_COLUMN) != 0) square ^= 7;
+        if ((flags & MIRROR_ROW) != 0) square ^= 56;
+        if ((flags & TRANSPOSE) != 0) square = (7 - (square & 7)) << 3 | (7 - (square >>> 3));
+        return square;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,106 @@
+package io.github.chess.tablebase;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One memory-mapped table. Layout, little-endian: a 32 byte header (magic, version, bits per entry, entry count,
+ * table name as 16 bytes of ASCII), then the entries packed back to back, lowest bits first, and 8 bytes of
+ * padding so that every entry can be read with one unaligned getLong().
+ */
+final class TablebaseFile {
+
+    static final int MAGIC = 0x4C425443; // "CTBL"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int NAME_SIZE = 16;
+    static final String EXTENSION = ".ctb";
+
+    final Material material;
+    private final MappedByteBuffer buffer;
+    private final int bits;
+    private final long mask;
+
+    private TablebaseFile(Material material, MappedByteBuffer buffer, int bits) {
+        this.material = material;
+        this.buffer = buffer;
+        this.bits = bits;
+        mask = (1L << bits) - 1;
+    }
+
+    // The mapping stays valid once the channel is closed
+    static TablebaseFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a tablebase file: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            byte[] name = new byte[NAME_SIZE];
+            for (int i = 0; i < NAME_SIZE; i++) {
+                name[i] = buffer.get(16 + i);
+            }
+            Material material = Material.parse(new String(name, StandardCharsets.US_ASCII).trim());
+            int bits = buffer.getInt(8);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || material == null
+                || bits < 1 || bits > 8 || buffer.getInt(12) != material.size
+                || size < HEADER_SIZE + ((long) material.size * bits + 7) / 8 + 8) {
+                throw new IOException("Not a tablebase file: " + path);
+            }
+            return new TablebaseFile(material, buffer, bits);
+        }
+    }
+
+    // Packs one byte per position into as few bits as the largest value needs
+    static void write(Path path, Material material, byte[] values) throws IOException {
+        int largest = 0;
+        for (byte value : values) {
+            largest = Math.max(largest, value & 0xFF);
+        }
+        int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(largest));
+        ByteBuffer buffer = ByteBuffer.allocate((int) (HEADER_SIZE + ((long) values.length * bits + 7) / 8 + 8))
+            .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(bits).putInt(values.length);
+        byte[] name = material.name.getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < NAME_SIZE; i++) {
+            buffer.put(i < name.length ? name[i] : (byte) ' ');
+        }
+
+        long word = 0;
+        int used = 0;
+        for (byte value : values) {
+            word |= (long) (value & 0xFF) << used;
+            used += bits;
+            if (used >= 56) {
+                for (; used >= 8; used -= 8) {
+                    buffer.put((byte) word);
+                    word >>>= 8;
+                }
+            }
+        }
+        for (; used > 0; used -= 8) {
+            buffer.put((byte) word);
+            word >>>= 8;
+        }
+
+        buffer.clear();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    int read(int index) {
+        long bit = (long) index * bits;
+        return (int) ((buffer.getLong(HEADER_SIZE + (int) (bit >>> 3)) >>> (bit & 7)) & mask);
+    }
+}
@@ -0,0 +1,597 @@
+package io.github.chess.tablebase;
+
+import io.github.chess.entities.Bitboards;
+import io.github.chess.entities.Move;
+import io.github.chess.enums.PieceColor;
+import io.github.chess.enums.PieceType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds the tables read by Tablebases by retrograde analysis. At first only checkmates, stalemates and the
+ * positions whose every move captures or promotes, looked up in the smaller tables, are known. Then, one ply of
+ * distance at a time, the positions one move before a loss just found are wins, and the positions one move before
+ * a win just found are lost once all their moves lead to wins of the opponent. What is left at the end is drawn.
+ * Each pass over the table is shared between the threads by chunks of positions.
+ *
+ * En passant captures and castling are left out, as in the positions the tables are probed for.
+ */
+public class TablebaseGenerator {
+
+    private static final int CHUNK_SIZE = 1 << 14;
+    // Results are stored in a byte, see Tablebases
+    private static final int MAX_RESULT = 255;
+    private static final int NO_WIN = Integer.MAX_VALUE;
+
+    private static final PieceColor[] COLORS = PieceColor.values();
+    private static final int PAWN = PieceType.PAWN.ordinal();
+    private static final int KNIGHT = PieceType.KNIGHT.ordinal();
+    private static final int BISHOP = PieceType.BISHOP.ordinal();
+    private static final int ROOK = PieceType.ROOK.ordinal();
+    private static final int QUEEN = PieceType.QUEEN.ordinal();
+    private static final int KING = PieceType.KING.ordinal();
+
+    private final Path directory;
+    private final Tablebases tablebases;
+    private final ExecutorService executor;
+    private final Worker[] workers;
+
+    // The table being generated. Per position: its result, 0 while unknown; 1 if it can't occur; 1 if it has to be
+    // checked for being lost in this pass; the result of its fastest win by a capture or promotion, if any.
+    private Material material;
+    private byte[] values;
+    private byte[] illegal;
+    private byte[] candidates;
+    private byte[] conversionWins;
+
+    // Tables already in the directory are kept and used for the captures and promotions of the new ones
+    public TablebaseGenerator(Path directory, int threads) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        tablebases = new Tablebases(directory);
+        threads = Math.max(1, threads);
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "tablebase-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker();
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: TablebaseGenerator <directory> [all|KQvK,KRvKP,...] [threads]");
+            return;
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        TablebaseGenerator generator = new TablebaseGenerator(Paths.get(args[0]), threads);
+        try {
+            if (args.length < 2 || args[1].equals("all")) {
+                generator.generateAll();
+            } else {
+                for (String name : args[1].split(",")) {
+                    if (!generator.generate(name.trim())) {
+                        System.err.println("Not a table of at most " + Tablebases.MAX_PIECES + " pieces: " + name);
+                    }
+                }
+            }
+        } finally {
+            generator.shutdown();
+        }
+    }
+
+    // Every table of up to four pieces, smaller ones first
+    public void generateAll() throws IOException {
+        List<Material> all = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (int piece1 = 0; piece1 < 12; piece1++) {
+            // Up to Move.NO_PIECE for the three piece tables
+            for (int piece2 = 0; piece2 <= Move.NO_PIECE; piece2++) {
+                if (piece1 % 6 == KING || piece2 % 6 == KING) {
+                    continue;
+                }
+                Material table = Material.of(piece1, piece2);
+                if (names.add(table.name)) {
+                    all.add(table);
+                }
+            }
+        }
+        all.sort(Comparator.comparingInt((Material table) -> table.count).thenComparingInt(Material::pawnCount));
+        for (Material table : all) {
+            generate(table);
+        }
+    }
+
+    // Generates the table, and first the smaller ones it needs, unless they exist already. False for a bad name.
+    public boolean generate(String name) throws IOException {
+        Material table = Material.parse(name);
+        if (table == null || table.count < 3) {
+            return false;
+        }
+        generate(table);
+        return true;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void generate(Material table) throws IOException {
+        if (tablebases.contains(table)) {
+            return;
+        }
+        for (Material next : conversions(table)) {
+            if (next.count > 2) {
+                generate(next);
+            }
+        }
+
+        long startTime = System.currentTimeMillis();
+        material = table;
+        values = new byte[table.size];
+        illegal = new byte[table.size];
+        candidates = new byte[table.size];
+        conversionWins = new byte[table.size];
+        try {
+            int largest = initialize();
+            for (int plies = 0; plies < largest; plies++) {
+                int result = plies + 1;
+                if (plies % 2 == 0) {
+                    // Losses in this many plies: every move into them wins, one ply later
+                    run((worker, index) -> {
+                        int value = values[index] & 0xFF;
+                        if (value == result) {
+                            worker.load(index);
+                            worker.predecessors(result + 1);
+                        } else if (value == 0 && (conversionWins[index] & 0xFF) == result + 1) {
+                            worker.set(index, result + 1);
+                        }
+                    });
+                } else {
+                    run((worker, index) -> {
+                        if ((values[index] & 0xFF) == result) {
+                            worker.load(index);
+                            worker.predecessors(0);
+                        }
+                    });
+                    run((worker, index) -> {
+                        if (candidates[index] != 0) {
+                            candidates[index] = 0;
+                            if (values[index] == 0 && conversionWins[index] == 0) {
+                                worker.load(index);
+                                worker.evaluate(true);
+                                if (!worker.drawn && worker.bestWin == NO_WIN) {
+                                    worker.set(index, worker.worstLoss + 1);
+                                }
+                            }
+                        }
+                    });
+                }
+                for (Worker worker : workers) {
+                    largest = Math.max(largest, worker.largest);
+                }
+            }
+
+            Path path = directory.resolve(table.name + TablebaseFile.EXTENSION);
+            TablebaseFile.write(path, table, values);
+            tablebases.add(TablebaseFile.open(path));
+            report(System.currentTimeMillis() - startTime);
+        } finally {
+            material = null;
+            values = null;
+            illegal = null;
+            candidates = null;
+            conversionWins = null;
+        }
+    }
+
+    // Finds the positions that can't occur, or are stored under another index as their king is on the diagonal,
+    // then the ones known before any pass. Returns the largest result known.
+    private int initialize() {
+        for (Worker worker : workers) {
+            worker.largest = 0;
+        }
+        run((worker, index) -> {
+            worker.load(index);
+            if (!worker.isLegal() || worker.index() != index) {
+                illegal[index] = 1;
+            }
+        });
+        run((worker, index) -> {
+            if (illegal[index] != 0) {
+                return;
+            }
+            worker.load(index);
+            worker.evaluate(false);
+            if (worker.legalMoves == 0) {
+                if (worker.isInCheck()) {
+                    worker.set(index, 1);
+                }
+            } else if (worker.tableMoves == 0) {
+                if (worker.bestWin != NO_WIN) {
+                    worker.set(index, worker.bestWin + 1);
+                } else if (!worker.drawn) {
+                    worker.set(index, worker.worstLoss + 1);
+                }
+            } else if (worker.bestWin != NO_WIN) {
+                conversionWins[index] = (byte) check(worker.bestWin + 1);
+                worker.largest = Math.max(worker.largest, worker.bestWin + 1);
+            }
+        });
+        int largest = 0;
+        for (Worker worker : workers) {
+            largest = Math.max(largest, worker.largest);
+        }
+        return largest;
+    }
+
+    // Tables reached from this one by a capture or a promotion
+    private static List<Material> conversions(Material table) {
+        List<Material> next = new ArrayList<>();
+        for (int i = 2; i < table.count; i++) {
+            int piece = table.pieces[i];
+            int other = table.count > 3 ? table.pieces[5 - i] : Move.NO_PIECE;
+            next.add(Material.of(other, Move.NO_PIECE));
+            if (piece % 6 == PAWN) {
+                for (int type = KNIGHT; type <= QUEEN; type++) {
+                    next.add(Material.of(piece / 6 * 6 + type, other));
+                    // Promoting with a capture
+                    next.add(Material.of(piece / 6 * 6 + type, Move.NO_PIECE));
+                }
+            }
+        }
+        return next;
+    }
+
+    private void report(long time) {
+        long wins = 0;
+        long losses = 0;
+        long draws = 0;
+        int longest = 0;
+        for (int i = 0; i < values.length; i++) {
+            int value = values[i] & 0xFF;
+            if (illegal[i] != 0) {
+                continue;
+            }
+            if (value == 0) {
+                draws++;
+            } else if (Tablebases.isWin(value)) {
+                wins++;
+            } else {
+                losses++;
+            }
+            longest = Math.max(longest, Tablebases.pliesToMate(value));
+        }
+        System.out.println(material.name + ": " + (wins + losses + draws) + " positions, " + wins + " wins, "
+            + losses + " losses, " + draws + " draws, longest mate " + longest + " plies, " + time + " ms");
+    }
+
+    private static int check(int result) {
+        if (result > MAX_RESULT) {
+            throw new IllegalStateException("Mate too far away to be stored: " + (result - 1) + " plies");
+        }
+        return result;
+    }
+
+    private void run(Pass pass) {
+        int size = material.size;
+        AtomicInteger next = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Worker worker : workers) {
+            tasks.add(() -> {
+                for (int start = next.getAndAdd(CHUNK_SIZE); start < size; start = next.getAndAdd(CHUNK_SIZE)) {
+                    int end = Math.min(start + CHUNK_SIZE, size);
+                    for (int index = start; index < end; index++) {
+                        pass.run(worker, index);
+                    }
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating " + material.name, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private interface Pass {
+        void run(Worker worker, int index);
+    }
+
+    // One per thread, with the position it works on
+    private final class Worker {
+
+        final int[] squares = new int[Material.MAX_PIECES];
+        int sideToMove;
+        long occupied;
+        // Set by evaluate(): legal moves, those that stay in the table, and from the side to move, the plies of
+        // its fastest win and slowest loss and whether a move doesn't lose (or isn't known yet to lose)
+        int legalMoves;
+        int tableMoves;
+        int bestWin;
+        int worstLoss;
+        boolean drawn;
+        // Largest result set in the current pass
+        int largest;
+
+        void load(int index) {
+            sideToMove = material.decode(index, squares);
+            occupied = 0;
+            for (int i = 0; i < material.count; i++) {
+                occupied |= Bitboards.bit(squares[i]);
+            }
+        }
+
+        int index() {
+            return material.index(sideToMove, squares[0], squares[1], squares[2], squares[3]);
+        }
+
+        void set(int index, int result) {
+            values[index] = (byte) check(result);
+            largest = Math.max(largest, result);
+        }
+
+        // Pieces on different squares, no pawn on the first or last rank and the side not to move not in check
+        boolean isLegal() {
+            if (Long.bitCount(occupied) != material.count) {
+                return false;
+            }
+            for (int i = 2; i < material.count; i++) {
+                int row = Bitboards.row(squares[i]);
+                if (material.pieces[i] % 6 == PAWN && (row == 0 || row == 7)) {
+                    return false;
+                }
+            }
+            return !isAttacked(squares[sideToMove == Material.WHITE ? 1 : 0], sideToMove, occupied, -1);
+        }
+
+        boolean isInCheck() {
+            return isAttacked(squares[sideToMove == Material.WHITE ? 0 : 1], sideToMove ^ 1, occupied, -1);
+        }
+
+        // Goes through the legal moves; the positions they lead to in this table are only read if readTable is set
+        void evaluate(boolean readTable) {
+            legalMoves = 0;
+            tableMoves = 0;
+            bestWin = NO_WIN;
+            worstLoss = 0;
+            drawn = false;
+            long own = 0;
+            for (int i = 0; i < material.count; i++) {
+                if (material.pieces[i] / 6 == sideToMove) {
+                    own |= Bitboards.bit(squares[i]);
+                }
+            }
+            long enemies = occupied & ~own;
+
+            for (int i = 0; i < material.count; i++) {
+                int piece = material.pieces[i];
+                if (piece / 6 != sideToMove) {
+                    continue;
+                }
+                int from = squares[i];
+                if (piece % 6 != PAWN) {
+                    long targets = attacks(piece % 6, from, occupied) & ~own;
+                    while (targets != 0) {
+                        int to = Long.numberOfTrailingZeros(targets);
+                        targets &= targets - 1;
+                        int captured = pieceOn(to);
+                        if (captured < 0) {
+                            quietMove(i, to, readTable);
+                        } else {
+                            conversion(i, to, piece, captured);
+                        }
+                    }
+                    continue;
+                }
+
+                int forward = sideToMove == Material.WHITE ? -8 : 8;
+                int to = from + forward;
+                if ((occupied & Bitboards.bit(to)) == 0) {
+                    if (isLastRow(to)) {
+                        promotions(i, to, -1);
+                    } else {
+                        quietMove(i, to, readTable);
+                        int startRow = sideToMove == Material.WHITE ? 6 : 1;
+                        if (Bitboards.row(from) == startRow && (occupied & Bitboards.bit(to + forward)) == 0) {
+                            quietMove(i, to + forward, readTable);
+                        }
+                    }
+                }
+                long captures = Bitboards.pawnAttacks(COLORS[sideToMove], from) & enemies;
+                while (captures != 0) {
+                    to = Long.numberOfTrailingZeros(captures);
+                    captures &= captures - 1;
+                    if (isLastRow(to)) {
+                        promotions(i, to, pieceOn(to));
+                    } else {
+                        conversion(i, to, piece, pieceOn(to));
+                    }
+                }
+            }
+        }
+
+        // Every position of the table from which the side not to move reaches this one without capturing or
+        // promoting. After a loss they are won in the given result, after a win (result 0) they become candidates.
+        void predecessors(int result) {
+            int mover = sideToMove ^ 1;
+            for (int i = 0; i < material.count; i++) {
+                int piece = material.pieces[i];
+                if (piece / 6 != mover) {
+                    continue;
+                }
+                int from = squares[i];
+                if (piece % 6 != PAWN) {
+                    long origins = attacks(piece % 6, from, occupied) & ~occupied;
+                    while (origins != 0) {
+                        int origin = Long.numberOfTrailingZeros(origins);
+                        origins &= origins - 1;
+                        predecessor(i, origin, result);
+                    }
+                    continue;
+                }
+
+                int backward = mover == Material.WHITE ? 8 : -8;
+                int origin = from + backward;
+                int row = Bitboards.row(origin);
+                if (row >= 1 && row <= 6 && (occupied & Bitboards.bit(origin)) == 0) {
+                    predecessor(i, origin, result);
+                    // The pawn moved two squares from its start row
+                    if (row == (mover == Material.WHITE ? 5 : 2)
+                        && (occupied & Bitboards.bit(origin + backward)) == 0) {
+                        predecessor(i, origin + backward, result);
+                    }
+                }
+            }
+        }
+
+        private void predecessor(int piece, int origin, int result) {
+            int from = squares[piece];
+            squares[piece] = origin;
+            int index = material.index(sideToMove ^ 1, squares[0], squares[1], squares[2], squares[3]);
+            squares[piece] = from;
+            if (illegal[index] != 0 || values[index] != 0) {
+                return;
+            }
+            if (result != 0) {
+                set(index, result);
+            } else {
+                candidates[index] = 1;
+            }
+        }
+
+        private void quietMove(int piece, int to, boolean readTable) {
+            int from = squares[piece];
+            squares[piece] = to;
+            int index = material.index(sideToMove ^ 1, squares[0], squares[1], squares[2], squares[3]);
+            squares[piece] = from;
+            // Illegal if it leaves the own king in check
+            if (illegal[index] != 0) {
+                return;
+            }
+            legalMoves++;
+            tableMoves++;
+            if (readTable) {
+                addResult(values[index] & 0xFF);
+            }
+        }
+
+        private void promotions(int piece, int to, int captured) {
+            for (int type = QUEEN; type >= KNIGHT; type--) {
+                conversion(piece, to, sideToMove * 6 + type, captured);
+            }
+        }
+
+        // A capture or promotion, whose result comes from a smaller table
+        private void conversion(int piece, int to, int newPiece, int captured) {
+            int from = squares[piece];
+            squares[piece] = to;
+            int king = squares[sideToMove == Material.WHITE ? 0 : 1];
+            long after = occupied & ~Bitboards.bit(from) | Bitboards.bit(to);
+            if (!isAttacked(king, sideToMove ^ 1, after, captured)) {
+                legalMoves++;
+                addResult(probeAfter(piece, newPiece, captured));
+            }
+            squares[piece] = from;
+        }
+
+        private int probeAfter(int moved, int newPiece, int captured) {
+            int piece1 = Move.NO_PIECE;
+            int square1 = 0;
+            int piece2 = Move.NO_PIECE;
+            int square2 = 0;
+            for (int i = 2; i < material.count; i++) {
+                if (i == captured) {
+                    continue;
+                }
+                int piece = i == moved ? newPiece : material.pieces[i];
+                if (piece1 == Move.NO_PIECE) {
+                    piece1 = piece;
+                    square1 = squares[i];
+                } else {
+                    piece2 = piece;
+                    square2 = squares[i];
+                }
+            }
+            int result = tablebases.probe(sideToMove ^ 1, squares[0], squares[1], piece1, square1, piece2, square2);
+            if (result == Tablebases.NOT_FOUND) {
+                throw new IllegalStateException("Missing table " + Material.of(piece1, piece2).name);
+            }
+            return result;
+        }
+
+        // The result of a move, from the side that has to answer it
+        private void addResult(int result) {
+            if (result == 0) {
+                drawn = true;
+            } else if (Tablebases.isLoss(result)) {
+                bestWin = Math.min(bestWin, Tablebases.pliesToMate(result) + 1);
+            } else {
+                worstLoss = Math.max(worstLoss, Tablebases.pliesToMate(result) + 1);
+            }
+        }
+
+        private boolean isAttacked(int square, int byColor, long occupied, int skipped) {
+            for (int i = 0; i < material.count; i++) {
+                int piece = material.pieces[i];
+                if (i == skipped || piece / 6 != byColor) {
+                    continue;
+                }
+                long attacks = piece % 6 == PAWN ? Bitboards.pawnAttacks(COLORS[byColor], squares[i])
+                    : attacks(piece % 6, squares[i], occupied);
+                if ((attacks & Bitboards.bit(square)) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int pieceOn(int square) {
+            for (int i = 0; i < material.count; i++) {
+                if (squares[i] == square) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static long attacks(int type, int square, long occupied) {
+        if (type == KNIGHT) return Bitboards.knightAttacks(square);
+        if (type == BISHOP) return Bitboards.bishopAttacks(square, occupied);
+        if (type == ROOK) return Bitboards.rookAttacks(square, occupied);
+        if (type == QUEEN) return Bitboards.queenAttacks(square, occupied);
+        return Bitboards.kingAttacks(square);
+    }
+
+    private static boolean isLastRow(int square) {
+        int row = Bitboards.row(square);
+        return row == 0 || row == 7;
+    }
+}
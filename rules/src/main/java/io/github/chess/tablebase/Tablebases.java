@@ -0,0 +1,183 @@
+package io.github.chess.tablebase;
+
+import io.github.chess.entities.Bitboards;
+import io.github.chess.entities.Board;
+import io.github.chess.entities.Game;
+import io.github.chess.entities.Move;
+import io.github.chess.entities.MoveGenerator;
+import io.github.chess.entities.Position;
+import io.github.chess.enums.PieceColor;
+import io.github.chess.enums.PieceType;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Endgame tablebases for positions of up to four pieces, kings included, written by TablebaseGenerator. Every
+ * table file of a directory is memory-mapped; a probe is a few index computations and one read, so it is cheap
+ * enough to be done at every node of a search. Probes are thread-safe.
+ *
+ * A probe returns NOT_FOUND, DRAW, or the distance to mate of the side to move, read with isWin() and
+ * pliesToMate(). Tables know nothing of castling, en passant or the fifty-move rule: positions with castling rights
+ * or an en passant capture aren't probed, and a mate further away than the fifty-move rule allows still counts.
+ */
+public class Tablebases {
+
+    public static final int NOT_FOUND = -1;
+    public static final int DRAW = 0;
+    public static final int MAX_PIECES = Material.MAX_PIECES;
+
+    private final TablebaseFile[] tables = new TablebaseFile[Material.KEYS];
+    // The table under this key has the colors swapped
+    private final boolean[] flipped = new boolean[Material.KEYS];
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+    private int tableCount;
+
+    public Tablebases(Path directory) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + TablebaseFile.EXTENSION)) {
+            for (Path file : files) {
+                add(TablebaseFile.open(file));
+            }
+        }
+    }
+
+    public int getTableCount() {
+        return tableCount;
+    }
+
+    public static boolean isWin(int result) {
+        return result > 0 && (result & 1) == 0;
+    }
+
+    public static boolean isLoss(int result) {
+        return result > 0 && (result & 1) == 1;
+    }
+
+    // Plies until the side to move mates, or is mated: 0 when it is already checkmated
+    public static int pliesToMate(int result) {
+        return result - 1;
+    }
+
+    public int probe(Game game) {
+        Board board = game.getBoard();
+        long occupied = board.getOccupied();
+        if (Long.bitCount(occupied) > MAX_PIECES || game.getCastlingRights() != 0) {
+            return NOT_FOUND;
+        }
+        PieceColor color = game.isWhiteTurn() ? PieceColor.WHITE : PieceColor.BLACK;
+        PieceColor enemy = game.isWhiteTurn() ? PieceColor.BLACK : PieceColor.WHITE;
+        Position target = game.getEnPassantTarget();
+        if (target != null && (Bitboards.pawnAttacks(enemy, target.getSquare())
+            & board.getPieces(color, PieceType.PAWN)) != 0) {
+            return NOT_FOUND;
+        }
+
+        int whiteKing = -1;
+        int blackKing = -1;
+        int piece1 = Move.NO_PIECE;
+        int square1 = 0;
+        int piece2 = Move.NO_PIECE;
+        int square2 = 0;
+        while (occupied != 0) {
+            int square = Long.numberOfTrailingZeros(occupied);
+            occupied &= occupied - 1;
+            int piece = board.getPieceIndex(square);
+            if (piece == Material.WHITE_KING) {
+                whiteKing = square;
+            } else if (piece == Material.BLACK_KING) {
+                blackKing = square;
+            } else if (piece1 == Move.NO_PIECE) {
+                piece1 = piece;
+                square1 = square;
+            } else {
+                piece2 = piece;
+                square2 = square;
+            }
+        }
+        if (whiteKing < 0 || blackKing < 0) {
+            return NOT_FOUND;
+        }
+        return probe(color.ordinal(), whiteKing, blackKing, piece1, square1, piece2, square2);
+    }
+
+    // The legal move with the best result for the side to move: the fastest mate when winning, the slowest when
+    // losing, and otherwise a move that keeps the draw. Move.NONE if one of the positions after its moves can't
+    // be probed. The game is left as it was found, but isn't thread-safe while this runs.
+    public synchronized int bestMove(Game game) {
+        int count = MoveGenerator.generateLegalMoves(game, moves);
+        int bestMove = Move.NONE;
+        int bestScore = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            game.makeMove(moves[i]);
+            int result = probe(game);
+            game.unmakeMove();
+            if (result == NOT_FOUND) {
+                return Move.NONE;
+            }
+            // From the side to move: a loss of the opponent is a win for it
+            int score = result == DRAW ? 0 : isLoss(result) ? 1000 - pliesToMate(result) : pliesToMate(result) - 1000;
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = moves[i];
+            }
+        }
+        return bestMove;
+    }
+
+    // Pieces other than the kings in any order, Move.NO_PIECE for the ones missing
+    int probe(int sideToMove, int whiteKing, int blackKing, int piece1, int square1, int piece2, int square2) {
+        if (Material.before(piece2, piece1)) {
+            int piece = piece1;
+            piece1 = piece2;
+            piece2 = piece;
+            int square = square1;
+            square1 = square2;
+            square2 = square;
+        }
+        if (piece1 == Move.NO_PIECE) {
+            return DRAW;
+        }
+        int key = Material.key(piece1, piece2);
+        TablebaseFile table = tables[key];
+        if (table == null) {
+            return NOT_FOUND;
+        }
+        if (flipped[key]) {
+            int king = whiteKing;
+            whiteKing = blackKing ^ 56;
+            blackKing = king ^ 56;
+            sideToMove ^= 1;
+            piece1 = Material.flip(piece1);
+            square1 ^= 56;
+            piece2 = Material.flip(piece2);
+            square2 ^= 56;
+            if (Material.before(piece2, piece1)) {
+                int square = square1;
+                square1 = square2;
+                square2 = square;
+            }
+        }
+        return table.read(table.material.index(sideToMove, whiteKing, blackKing, square1, square2));
+    }
+
+    // Tables added later replace those already there with the same pieces
+    void add(TablebaseFile table) {
+        int key = table.material.key();
+        if (tables[key] == null) {
+            tableCount++;
+        }
+        tables[key] = table;
+        flipped[key] = false;
+        int flippedKey = table.material.flippedKey();
+        if (flippedKey != key) {
+            tables[flippedKey] = table;
+            flipped[flippedKey] = true;
+        }
+    }
+
+    boolean contains(Material material) {
+        return tables[material.key()] != null;
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.chess.archive;
+
+import io.github.chess.entities.Fen;
+import io.github.chess.entities.Game;
+import io.github.chess.entities.Move;
+import io.github.chess.entities.MoveGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameArchiveTest {
+
+    // White underpromotes to a knight, then black promotes to a queen with check, which the king takes
+    private static final String PROMOTIONS = "r3k3/1P6/8/8/8/8/6p1/4K3 w - - 0 1";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsBackPromotionsAndResults() throws IOException {
+        Path file = directory.resolve("games.cga");
+        Game promotions = load(PROMOTIONS);
+        play(promotions, "b7b8n", "e8e7", "e1f2", "g2g1q", "f2g1", "a8a1");
+        Game mate = load(Fen.START_POSITION);
+        play(mate, "f2f3", "e7e5", "g2g4", "d8h4");
+        try (GameArchiveWriter writer = new GameArchiveWriter(file)) {
+            assertTrue(writer.write(promotions, GameArchive.RESULT_DRAW));
+            // Without a result, the checkmate decides it
+            assertTrue(writer.write(mate));
+        }
+
+        try (GameArchive archive = new GameArchive(file)) {
+            assertEquals(2, archive.getGameCount());
+            Game game = new Game();
+            assertTrue(archive.readGame(0, game));
+            assertEquals(promotions.toFen(), game.toFen());
+            assertEquals(6, archive.getPlyCount(0));
+            assertEquals(GameArchive.RESULT_DRAW, archive.getResult(0));
+            assertEquals(Move.toString(promotions.getMove(0)), Move.toString(game.getMove(0)));
+            assertEquals(Move.toString(promotions.getMove(3)), Move.toString(game.getMove(3)));
+
+            assertTrue(archive.readGame(1, game));
+            assertEquals(mate.toFen(), game.toFen());
+            assertEquals(GameArchive.RESULT_BLACK_WINS, archive.getResult(1));
+
+            assertFalse(archive.readGame(2, game));
+            assertFalse(archive.readGame(-1, game));
+        }
+    }
+
+    @Test
+    void seeksToAnyGameThroughTheIndex() throws IOException {
+        Path file = directory.resolve("random.cga");
+        Random random = new Random(1);
+        List<String> positions = new ArrayList<>();
+        try (GameArchiveWriter writer = new GameArchiveWriter(file)) {
+            int[] moves = new int[MoveGenerator.MAX_MOVES];
+            for (int i = 0; i < 200; i++) {
+                Game game = load(Fen.START_POSITION);
+                int plies = random.nextInt(120);
+                for (int ply = 0; ply < plies; ply++) {
+                    int count = MoveGenerator.generateLegalMoves(game, moves);
+                    if (count == 0) {
+                        break;
+                    }
+                    game.makeMove(moves[random.nextInt(count)]);
+                }
+                assertTrue(writer.write(game, i % 4));
+                positions.add(game.toFen());
+            }
+        }
+
+        try (GameArchive archive = new GameArchive(file)) {
+            Game game = new Game();
+            // Backwards and with a stride, so that no read follows on from the one before
+            for (int i = positions.size() - 1; i >= 0; i -= 7) {
+                assertTrue(archive.readGame(i, game));
+                assertEquals(positions.get(i), game.toFen(), "game " + i);
+                assertEquals(i % 4, archive.getResult(i));
+            }
+        }
+    }
+
+    @Test
+    void rejectsADamagedMove() throws IOException {
+        Path file = directory.resolve("damaged.cga");
+        Game game = load(Fen.START_POSITION);
+        play(game, "e2e4", "e7e5");
+        try (GameArchiveWriter writer = new GameArchiveWriter(file)) {
+            writer.write(game, GameArchive.RESULT_UNKNOWN);
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        // The second move code of the only record, after the ply count, the flags and the first move
+        bytes[GameArchive.HEADER_SIZE + 4] = (byte) 0xFF;
+        Files.write(file, bytes);
+
+        try (GameArchive archive = new GameArchive(file)) {
+            assertFalse(archive.readGame(0, new Game()));
+        }
+    }
+
+    private static Game load(String fen) {
+        Game game = new Game();
+        assertTrue(game.loadFen(fen), fen);
+        return game;
+    }
+
+    private static void play(Game game, String... moves) {
+        int[] legal = new int[MoveGenerator.MAX_MOVES];
+        for (String text : moves) {
+            int count = MoveGenerator.generateLegalMoves(game, legal);
+            int move = Move.NONE;
+            for (int i = 0; i < count; i++) {
+                if (Move.toString(legal[i]).equals(text)) {
+                    move = legal[i];
+                }
+            }
+            assertTrue(move != Move.NONE, text);
+            game.makeMove(move);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.chess.book;
+
+import io.github.chess.entities.Game;
+import io.github.chess.entities.Move;
+import io.github.chess.entities.MoveGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The keys published with the Polyglot book format description
+class PolyglotKeysTest {
+
+    private static final String[][] KEYS = {
+        {"", "463b96181691fc9c"},
+        {"e2e4", "823c9b50fd114196"},
+        {"e2e4 d7d5", "0756b94461c50fb0"},
+        {"e2e4 d7d5 e4e5", "662fafb965db29d4"},
+        {"e2e4 d7d5 e4e5 f7f5", "22a48b5a8e47ff78"},
+        {"e2e4 d7d5 e4e5 f7f5 e1e2", "652a607ca3f242c1"},
+        {"e2e4 d7d5 e4e5 f7f5 e1e2 e8f7", "00fdd303c946bdd9"},
+        {"a2a4 b7b5 h2h4 b5b4 c2c4", "3c8123ea7b067637"},
+        {"a2a4 b7b5 h2h4 b5b4 c2c4 b4c3 a1a2", "5c3f9b829b279560"}
+    };
+
+    @Test
+    void matchesTheReferenceKeys() throws IOException {
+        PolyglotKeys keys = PolyglotKeys.loadResource();
+        for (String[] line : KEYS) {
+            Game game = new Game();
+            if (!line[0].isEmpty()) {
+                play(game, line[0].split(" "));
+            }
+            assertEquals(line[1], String.format("%016x", keys.key(game)), "after '" + line[0] + "'");
+        }
+    }
+
+    @Test
+    void dependsOnlyOnThePosition() throws IOException {
+        PolyglotKeys keys = PolyglotKeys.loadResource();
+        Game game = new Game();
+        // The position after e2e4 d7d5 e4e5 f7f5, with the en passant file that the key includes
+        assertTrue(game.loadFen("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3"));
+        assertEquals("22a48b5a8e47ff78", String.format("%016x", keys.key(game)));
+    }
+
+    private static void play(Game game, String... moves) {
+        int[] legal = new int[MoveGenerator.MAX_MOVES];
+        for (String text : moves) {
+            int count = MoveGenerator.generateLegalMoves(game, legal);
+            int move = Move.NONE;
+            for (int i = 0; i < count; i++) {
+                if (Move.toString(legal[i]).equals(text)) {
+                    move = legal[i];
+                }
+            }
+            assertTrue(move != Move.NONE, text);
+            game.makeMove(move);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.chess.entities;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FenTest {
+
+    private static final String[] POSITIONS = {
+        Fen.START_POSITION,
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+        "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+        "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+        "rnbqkbnr/pppp1ppp/8/8/3Pp3/5N2/PPP1PPPP/RNBQKB1R b Kq d3 0 3",
+        "8/8/8/4k3/8/8/8/4K2R b K - 99 120"
+    };
+
+    @Test
+    void roundTripsFromCharSequence() {
+        Game game = new Game();
+        for (String fen : POSITIONS) {
+            // Not a String, so that the CharSequence path is the one taken
+            assertTrue(game.loadFen(new StringBuilder(fen)), fen);
+            assertEquals(fen, game.toFen());
+        }
+    }
+
+    @Test
+    void roundTripsFromByteBuffer() {
+        Fen parser = new Fen();
+        Game game = new Game();
+        for (String fen : POSITIONS) {
+            byte[] text = fen.getBytes(StandardCharsets.US_ASCII);
+            // The record sits between other bytes, as it does in a mapped file
+            ByteBuffer buffer = ByteBuffer.allocateDirect(text.length + 8);
+            buffer.put("xxxx".getBytes(StandardCharsets.US_ASCII)).put(text)
+                .put("\n[x]".getBytes(StandardCharsets.US_ASCII));
+            buffer.position(1);
+            assertTrue(parser.parse(buffer, 4, 4 + text.length), fen);
+            assertEquals(1, buffer.position());
+            game.setPosition(parser);
+            assertEquals(fen, game.toFen());
+        }
+    }
+
+    @Test
+    void matchesThePositionReachedByMoves() {
+        Game played = new Game();
+        played.loadFen(Fen.START_POSITION);
+        play(played, "e2e4", "c7c5", "g1f3", "d7d6");
+        Game loaded = new Game();
+        assertTrue(loaded.loadFen(played.toFen()));
+        assertEquals(played.toFen(), loaded.toFen());
+        assertEquals(played.getZobristKey(), loaded.getZobristKey());
+    }
+
+    @Test
+    void fillsInMissingClocks() {
+        Game game = new Game();
+        assertTrue(game.loadFen("4k3/8/8/8/8/8/8/4K3 w - -"));
+        assertEquals("4k3/8/8/8/8/8/8/4K3 w - - 0 1", game.toFen());
+    }
+
+    @Test
+    void rejectsInvalidRecords() {
+        Fen parser = new Fen();
+        assertFalse(parser.parse(""));
+        assertFalse(parser.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1"), "seven ranks");
+        assertFalse(parser.parse("rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"), "nine files");
+        assertFalse(parser.parse("rnbq1bnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQ - 0 1"), "no black king");
+        assertFalse(parser.parse("Pnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"), "pawn on the last rank");
+        assertFalse(parser.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1"), "side to move");
+        assertFalse(parser.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KX - 0 1"), "castling");
+        assertFalse(parser.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e3 0 1"), "en passant rank");
+        assertFalse(parser.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w"), "truncated");
+    }
+
+    private static void play(Game game, String... moves) {
+        int[] legal = new int[MoveGenerator.MAX_MOVES];
+        for (String text : moves) {
+            int count = MoveGenerator.generateLegalMoves(game, legal);
+            int move = Move.NONE;
+            for (int i = 0; i < count; i++) {
+                if (Move.toString(legal[i]).equals(text)) {
+                    move = legal[i];
+                }
+            }
+            assertTrue(move != Move.NONE, text);
+            game.makeMove(move);
+        }
+    }
+}
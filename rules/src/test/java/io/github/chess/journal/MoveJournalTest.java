@@ -0,0 +1,105 @@
+package io.github.chess.journal;
+
+import io.github.chess.entities.Bitboards;
+import io.github.chess.entities.Game;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoveJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysTheLastGame() throws IOException {
+        Path path = directory.resolve("journal.bin");
+        assertNull(MoveJournal.replay(path));
+        Game expected;
+        try (MoveJournal journal = new MoveJournal(path)) {
+            Game first = start(journal, "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+            play(first, "e2e4", "e7e5", "g1f3");
+            journal.sync();
+            // Castling and the en passant square have to come back too
+            expected = start(journal, "r3k2r/8/8/8/1p6/8/P7/R3K2R w KQkq - 0 1");
+            play(expected, "e1g1", "e8c8", "a2a4");
+        }
+        assertEquals("2kr3r/8/8/8/Pp6/8/8/R4RK1 b - a3 0 2", expected.toFen());
+        assertEquals(expected.toFen(), MoveJournal.replay(path).toFen());
+        assertEquals(3, MoveJournal.replay(path).getPlyCount());
+    }
+
+    @Test
+    void cutsOffATornLastRecord() throws IOException {
+        Path path = directory.resolve("journal.bin");
+        String afterTwoMoves;
+        try (MoveJournal journal = new MoveJournal(path)) {
+            Game game = start(journal, "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+            play(game, "d2d4", "d7d5");
+            journal.sync();
+            afterTwoMoves = game.toFen();
+            play(game, "c2c4");
+        }
+        // A crash in the middle of writing the last move
+        long whole = Files.size(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(whole - 5);
+        }
+        assertEquals(afterTwoMoves, MoveJournal.replay(path).toFen());
+
+        // Opening it again drops the torn bytes, so the next move follows on from the last whole record
+        try (MoveJournal journal = new MoveJournal(path)) {
+            Game game = MoveJournal.replay(path);
+            assertTrue(Files.size(path) < whole - 5);
+            game.setMoveListener(journal);
+            play(game, "g1f3");
+        }
+        Game replayed = MoveJournal.replay(path);
+        assertEquals(3, replayed.getPlyCount());
+        assertEquals("rnbqkbnr/ppp1pppp/8/3p4/3P4/5N2/PPP1PPPP/RNBQKB1R b KQkq - 1 2", replayed.toFen());
+    }
+
+    @Test
+    void ignoresARecordWithABadChecksum() throws IOException {
+        Path path = directory.resolve("journal.bin");
+        String afterOneMove;
+        try (MoveJournal journal = new MoveJournal(path)) {
+            Game game = start(journal, "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+            play(game, "e2e4");
+            journal.sync();
+            afterOneMove = game.toFen();
+            play(game, "c7c5");
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(path, bytes);
+        assertEquals(afterOneMove, MoveJournal.replay(path).toFen());
+    }
+
+    private static Game start(MoveJournal journal, String fen) {
+        Game game = new Game();
+        assertTrue(game.loadFen(fen), fen);
+        game.setMoveListener(journal);
+        journal.startGame(game);
+        return game;
+    }
+
+    private static void play(Game game, String... moves) {
+        for (String move : moves) {
+            assertTrue(game.movePiece(square(move, 0), square(move, 2)), move);
+        }
+    }
+
+    private static int square(String move, int index) {
+        return Bitboards.square('8' - move.charAt(index + 1), move.charAt(index) - 'a');
+    }
+}
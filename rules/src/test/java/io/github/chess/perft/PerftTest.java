@@ -0,0 +1,85 @@
+package io.github.chess.perft;
+
+import io.github.chess.entities.Fen;
+import io.github.chess.entities.Game;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Published counts of the Chess Programming Wiki perft positions, each checked with and without a PerftTable
+class PerftTest {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final String POSITION_3 = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+    private static final String POSITION_4 = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+    private static final String POSITION_5 = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+    private static final String POSITION_6 = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+
+    @Test
+    void startPosition() {
+        check(Fen.START_POSITION, 5, 4865609);
+    }
+
+    @Test
+    void kiwipete() {
+        check(KIWIPETE, 5, 193690690);
+    }
+
+    @Test
+    void position3() {
+        check(POSITION_3, 5, 674624);
+    }
+
+    @Test
+    void position4() {
+        check(POSITION_4, 5, 15833292);
+    }
+
+    @Test
+    void position5() {
+        check(POSITION_5, 4, 2103487);
+    }
+
+    @Test
+    void position6() {
+        check(POSITION_6, 4, 3894594);
+    }
+
+    @Test
+    void divideLeavesTheGameUnchanged() {
+        Game game = load(KIWIPETE);
+        Perft perft = new Perft(2, null);
+        try {
+            PerftResult result = perft.divide(game, 3);
+            assertEquals(48, result.getMoveCount());
+            long sum = 0;
+            for (int i = 0; i < result.getMoveCount(); i++) {
+                sum += result.getCount(i);
+            }
+            assertEquals(result.getNodes(), sum);
+        } finally {
+            perft.shutdown();
+        }
+        assertEquals(KIWIPETE, game.toFen());
+    }
+
+    private static void check(String fen, int depth, long nodes) {
+        Runtime runtime = Runtime.getRuntime();
+        Perft perft = new Perft(runtime.availableProcessors(), null);
+        Perft hashed = new Perft(runtime.availableProcessors(), new PerftTable(16));
+        try {
+            assertEquals(nodes, perft.count(load(fen), depth), "without table");
+            assertEquals(nodes, hashed.count(load(fen), depth), "with table");
+        } finally {
+            perft.shutdown();
+            hashed.shutdown();
+        }
+    }
+
+    private static Game load(String fen) {
+        Game game = new Game();
+        assertTrue(game.loadFen(fen), fen);
+        return game;
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.chess.pgn;
+
+import io.github.chess.entities.Game;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PgnImporterTest {
+
+    private static final String SCHOLARS_MATE = "[Event \"a\"]\n[Result \"1-0\"]\n\n"
+        + "1. e4 e5 2. Qh5 Nc6 3. Bc4 Nf6 4. Qxf7# 1-0\n\n";
+    private static final String ANNOTATED = "[Event \"b\"]\n[Result \"1/2-1/2\"]\n\n"
+        + "1. e4 {best by test} e5 (1... c5 2. Nf3) 2. Nf3 $1 Nc6 1/2-1/2\n\n";
+    private static final String CASTLING = "[Event \"c\"]\n[FEN \"r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1\"]\n\n"
+        + "1. O-O O-O-O 2. Rf7 *\n\n";
+    private static final String ILLEGAL = "[Event \"d\"]\n[Result \"*\"]\n\n1. e4 e5 2. Ke3 *\n\n";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysEveryGameToItsFinalPosition() throws IOException {
+        Path file = write(SCHOLARS_MATE + ILLEGAL + ANNOTATED + CASTLING);
+        Recorder recorder = new Recorder();
+        PgnImporter importer = new PgnImporter(2);
+        importer.setListener(recorder);
+        PgnImportResult result = importer.importFile(file);
+
+        assertEquals(3, result.getGames());
+        // The moves of the illegal game up to the error count too
+        assertEquals(7 + 2 + 4 + 3, result.getMoves());
+        assertEquals(1, result.getErrorCount());
+        assertEquals(SCHOLARS_MATE.length(), result.getErrors().get(0).getGameOffset());
+
+        List<String> games = recorder.games();
+        assertEquals("r1bqkb1r/pppp1Qpp/2n2n2/4p3/2B1P3/8/PPPP1PPP/RNB1K1NR b KQkq - 0 4 1-0", games.get(0));
+        assertEquals("r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w KQkq - 2 3 1/2-1/2", games.get(1));
+        assertEquals("2kr3r/5R2/8/8/8/8/8/R5K1 b - - 3 2 *", games.get(2));
+    }
+
+    @Test
+    void splitsGamesWithoutBlankLinesBetweenThem() throws IOException {
+        StringBuilder text = new StringBuilder();
+        List<Long> starts = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            starts.add((long) text.length());
+            text.append("[Event \"").append(i).append("\"]\n[Result \"1-0\"]\n")
+                .append("1. e4 e5 2. Qh5 Nc6 3. Bc4 Nf6 4. Qxf7# 1-0\n");
+        }
+        Path file = write(text.toString());
+        Recorder recorder = new Recorder();
+        // Small segments, so that the file is split in many places
+        PgnImporter importer = new PgnImporter(4, 4096);
+        importer.setListener(recorder);
+        PgnImportResult result = importer.importFile(file);
+
+        assertEquals(500, result.getGames());
+        assertEquals(0, result.getErrorCount());
+        assertEquals(starts, new ArrayList<>(recorder.offsets()));
+    }
+
+    @Test
+    void skipsAndReportsAGameLargerThanASegment() throws IOException {
+        StringBuilder comment = new StringBuilder("{");
+        while (comment.length() < 10000) {
+            comment.append("a long comment ");
+        }
+        String large = "[Event \"large\"]\n[Result \"*\"]\n\n1. e4 " + comment + "} e5 *\n\n";
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            text.append(SCHOLARS_MATE);
+        }
+        long largeOffset = text.length();
+        text.append(large);
+        for (int i = 0; i < 50; i++) {
+            text.append(SCHOLARS_MATE);
+        }
+        Path file = write(text.toString());
+        PgnImporter importer = new PgnImporter(2, 4096);
+        PgnImportResult result = importer.importFile(file);
+
+        assertEquals(100, result.getGames());
+        assertEquals(1, result.getErrorCount());
+        PgnError error = result.getErrors().get(0);
+        assertEquals(largeOffset, error.getGameOffset());
+        assertTrue(error.getMessage().contains("skipped"), error.getMessage());
+    }
+
+    private Path write(String text) throws IOException {
+        Path file = directory.resolve("games.pgn");
+        Files.write(file, text.getBytes(StandardCharsets.US_ASCII));
+        return file;
+    }
+
+    // Final position and result of every game, by offset; the calls come from all the import threads
+    private static class Recorder implements PgnListener {
+
+        private final Map<Long, String> games = new TreeMap<>();
+
+        @Override
+        public synchronized void onGame(Game game, long offset, String result) {
+            games.put(offset, game.toFen() + " " + result);
+        }
+
+        @Override
+        public void onError(PgnError error) {
+        }
+
+        synchronized List<String> games() {
+            return new ArrayList<>(games.values());
+        }
+
+        synchronized List<Long> offsets() {
+            return new ArrayList<>(games.keySet());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.chess.server;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * One client socket of a GameServer. The buffers are only used by the selector thread; replies come from the
+ * session actors through a lock-free queue, and the connection is handed to the selector thread to be flushed.
+ */
+final class Connection implements Consumer<String> {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    final SocketChannel channel;
+    final SelectionKey key;
+    final ByteBuffer input = ByteBuffer.allocate(BUFFER_SIZE);
+    final ByteBuffer output = ByteBuffer.allocate(BUFFER_SIZE);
+    final Queue<String> replies = new ConcurrentLinkedQueue<>();
+    // The next reply, encoded but waiting for room in the output buffer
+    byte[] pendingReply;
+    // Requests read but not yet answered and flushed; reading stops while there are too many
+    final AtomicInteger unanswered = new AtomicInteger();
+    // Set while the connection waits in the flush queue of the server
+    final AtomicBoolean flushQueued = new AtomicBoolean();
+    private final GameServer server;
+
+    Connection(SocketChannel channel, SelectionKey key, GameServer server) {
+        this.channel = channel;
+        this.key = key;
+        this.server = server;
+        output.flip();
+    }
+
+    @Override
+    public void accept(String reply) {
+        replies.add(reply);
+        server.requestFlush(this);
+    }
+}
@@ -0,0 +1,231 @@
+package io.github.chess.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Serves the GameSessions line protocol over TCP. A single selector thread does all the socket work: it splits
+ * input into lines, hands them to the sessions and writes back the replies the actors queue, so neither sockets
+ * nor games ever block each other. Sessions outlive the connection that created them, so a client can reconnect
+ * and go on with its games.
+ */
+public class GameServer implements Closeable {
+
+    public static final int DEFAULT_PORT = 7070;
+    // Requests a client can have in flight before the server stops reading from it
+    private static final int MAX_UNANSWERED = 4096;
+
+    private final GameSessions sessions;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Queue<Connection> flushQueue = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    // Port 0 picks a free port, see getPort()
+    public GameServer(GameSessions sessions, int port) throws IOException {
+        this.sessions = sessions;
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress("127.0.0.1", port), 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        thread = new Thread(this::run, "game-server");
+        thread.start();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int maxSessions = args.length > 2 ? Integer.parseInt(args[2]) : GameSessions.DEFAULT_MAX_SESSIONS;
+        GameServer server = new GameServer(new GameSessions(threads, maxSessions), port);
+        System.out.println("Listening on 127.0.0.1:" + server.getPort() + " with " + threads + " threads");
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public GameSessions getSessions() {
+        return sessions;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+        sessions.shutdown();
+    }
+
+    // Called by the actors when they queue a reply
+    void requestFlush(Connection connection) {
+        if (connection.flushQueued.compareAndSet(false, true)) {
+            flushQueue.add(connection);
+            selector.wakeup();
+        }
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                Connection queued;
+                while ((queued = flushQueue.poll()) != null) {
+                    queued.flushQueued.set(false);
+                    try {
+                        flush(queued);
+                    } catch (RuntimeException e) {
+                        drop(queued, e);
+                    }
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Connection connection = (Connection) key.attachment();
+                        // A connection that breaks the server's assumptions is dropped, the others go on
+                        try {
+                            if (key.isReadable()) {
+                                read(connection);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                flush(connection);
+                            }
+                        } catch (RuntimeException e) {
+                            drop(connection, e);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Game server stopped: " + e.getMessage());
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Connection(channel, key, this));
+        }
+    }
+
+    private void read(Connection connection) {
+        ByteBuffer input = connection.input;
+        try {
+            if (connection.channel.read(input) < 0) {
+                disconnect(connection);
+                return;
+            }
+        } catch (IOException e) {
+            disconnect(connection);
+            return;
+        }
+        input.flip();
+        int start = 0;
+        for (int i = input.position(); i < input.limit(); i++) {
+            if (input.get(i) == '\n') {
+                int end = i > start && input.get(i - 1) == '\r' ? i - 1 : i;
+                String line = new String(input.array(), start, end - start, StandardCharsets.US_ASCII);
+                start = i + 1;
+                if (!line.trim().isEmpty()) {
+                    connection.unanswered.incrementAndGet();
+                    sessions.handle(line, connection);
+                }
+            }
+        }
+        input.position(start);
+        input.compact();
+        // A line that fills the whole buffer will never end
+        if (!input.hasRemaining()) {
+            disconnect(connection);
+            return;
+        }
+        if (connection.unanswered.get() >= MAX_UNANSWERED) {
+            connection.key.interestOps(connection.key.interestOps() & ~SelectionKey.OP_READ);
+        }
+    }
+
+    // Moves queued replies into the output buffer and writes as much as the socket takes. A reply only goes in
+    // whole; one that doesn't fit waits for the socket to drain the buffer.
+    private void flush(Connection connection) {
+        if (!connection.key.isValid()) {
+            return;
+        }
+        ByteBuffer output = connection.output;
+        output.compact();
+        while (true) {
+            if (connection.pendingReply == null) {
+                String reply = connection.replies.poll();
+                if (reply == null) {
+                    break;
+                }
+                connection.pendingReply = (reply + "\n").getBytes(StandardCharsets.US_ASCII);
+            }
+            if (connection.pendingReply.length > output.remaining()) {
+                if (output.position() == 0) {
+                    throw new IllegalStateException("Reply longer than the output buffer");
+                }
+                break;
+            }
+            output.put(connection.pendingReply);
+            connection.pendingReply = null;
+            connection.unanswered.decrementAndGet();
+        }
+        output.flip();
+        try {
+            connection.channel.write(output);
+        } catch (IOException e) {
+            disconnect(connection);
+            return;
+        }
+        boolean pending = output.hasRemaining() || connection.pendingReply != null || !connection.replies.isEmpty();
+        int ops = pending ? SelectionKey.OP_WRITE : 0;
+        if (connection.unanswered.get() < MAX_UNANSWERED) {
+            ops |= SelectionKey.OP_READ;
+        }
+        connection.key.interestOps(ops);
+    }
+
+    private void drop(Connection connection, RuntimeException e) {
+        System.err.println("Dropping a connection: " + e);
+        disconnect(connection);
+    }
+
+    private void disconnect(Connection connection) {
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            // Already gone
+        }
+    }
+}
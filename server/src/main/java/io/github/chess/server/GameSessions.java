@@ -0,0 +1,200 @@
+package io.github.chess.server;
+
+import io.github.chess.entities.Game;
+import io.github.chess.entities.Move;
+import io.github.chess.entities.MoveGenerator;
+import io.github.chess.enums.PieceColor;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * The hosted games and the line protocol that drives them, apart from any transport. Every request is one line
+ * "tag command [arguments]" and gets exactly one reply "tag ok [result]" or "tag error message", where the tag is
+ * any word the client chooses to match replies to requests; replies for different sessions may come back in any
+ * order. Words are at most MAX_WORD_LENGTH characters long, since replies echo them.
+ *
+ * new [fen]            starts a game and replies its id
+ * move id e2e4         plays a move in UCI notation and replies playing, checkmate, stalemate or fifty
+ * moves id             replies the legal moves
+ * fen id               replies the position
+ * close id             ends the session
+ * count                replies the number of sessions
+ *
+ * Lookups go through a ConcurrentHashMap and the game work runs on the session's actor, so the thread reading
+ * requests never waits on a game.
+ */
+public class GameSessions {
+
+    public static final int DEFAULT_MAX_SESSIONS = 100000;
+    // Longer than any word of a FEN
+    public static final int MAX_WORD_LENGTH = 80;
+    private static final int MAX_FEN_LENGTH = 128;
+
+    private final ConcurrentHashMap<Long, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final AtomicInteger sessionCount = new AtomicInteger();
+    private final ExecutorService workers;
+    private final int maxSessions;
+
+    public GameSessions(int threads, int maxSessions) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "session-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxSessions = maxSessions;
+    }
+
+    public int size() {
+        return sessionCount.get();
+    }
+
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    // Reply is called once, on the calling thread or on a worker
+    public void handle(String line, Consumer<String> reply) {
+        String[] tokens = line.trim().split("\\s+");
+        if (tokens.length < 2) {
+            reply.accept((tokens[0].isEmpty() ? "-" : tokens[0]) + " error expected tag and command");
+            return;
+        }
+        String tag = tokens[0];
+        if (tag.length() > MAX_WORD_LENGTH) {
+            reply.accept("- error tag too long");
+            return;
+        }
+        for (int i = 1; i < tokens.length; i++) {
+            if (tokens[i].length() > MAX_WORD_LENGTH) {
+                reply.accept(tag + " error word too long");
+                return;
+            }
+        }
+        String command = tokens[1];
+        if (command.equals("new")) {
+            // Whatever follows the tag and the command is the FEN, spaces included
+            String afterTag = line.trim().substring(tag.length()).trim();
+            String fen = afterTag.substring(command.length()).trim();
+            if (fen.length() > MAX_FEN_LENGTH) {
+                reply.accept(tag + " error invalid fen");
+                return;
+            }
+            create(tag, fen, reply);
+            return;
+        }
+        if (command.equals("count")) {
+            reply.accept(tag + " ok " + size());
+            return;
+        }
+        if (tokens.length < 3) {
+            reply.accept(tag + " error expected a session id");
+            return;
+        }
+        Session session = find(tokens[2]);
+        if (session == null) {
+            reply.accept(tag + " error no session " + tokens[2]);
+            return;
+        }
+        SessionRequest request;
+        switch (command) {
+            case "move":
+                if (tokens.length < 4) {
+                    reply.accept(tag + " error expected a move");
+                    return;
+                }
+                String text = tokens[3];
+                request = (game, state) -> reply.accept(tag + play(game, state, text));
+                break;
+            case "moves":
+                request = (game, state) -> reply.accept(tag + legalMoves(game, state));
+                break;
+            case "fen":
+                request = (game, state) -> reply.accept(tag + (state.closed ? " error closed" : " ok " + game.toFen()));
+                break;
+            case "close":
+                if (sessions.remove(session.getId(), session)) {
+                    sessionCount.decrementAndGet();
+                }
+                // Requests already in the mailbox are answered as closed
+                request = (game, state) -> {
+                    state.closed = true;
+                    reply.accept(tag + " ok");
+                };
+                break;
+            default:
+                reply.accept(tag + " error unknown command " + command);
+                return;
+        }
+        if (!session.submit(request)) {
+            reply.accept(tag + " error busy");
+        }
+    }
+
+    // The game is set up on a worker so that a long FEN doesn't hold up the caller
+    private void create(String tag, String fen, Consumer<String> reply) {
+        if (sessionCount.incrementAndGet() > maxSessions) {
+            sessionCount.decrementAndGet();
+            reply.accept(tag + " error too many sessions");
+            return;
+        }
+        workers.execute(() -> {
+            Game game = new Game();
+            if (!fen.isEmpty() && !game.loadFen(fen)) {
+                sessionCount.decrementAndGet();
+                reply.accept(tag + " error invalid fen");
+                return;
+            }
+            long id = nextId.getAndIncrement();
+            sessions.put(id, new Session(id, game, workers));
+            reply.accept(tag + " ok " + id);
+        });
+    }
+
+    private Session find(String id) {
+        try {
+            return sessions.get(Long.parseLong(id));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String play(Game game, SessionState state, String text) {
+        if (state.closed) {
+            return " error closed";
+        }
+        int count = MoveGenerator.generateLegalMoves(game, state.moves);
+        for (int i = 0; i < count; i++) {
+            if (Move.toString(state.moves[i]).equals(text)) {
+                game.makeMove(state.moves[i]);
+                return " ok " + status(game, state);
+            }
+        }
+        return " error illegal move " + text;
+    }
+
+    private static String legalMoves(Game game, SessionState state) {
+        if (state.closed) {
+            return " error closed";
+        }
+        int count = MoveGenerator.generateLegalMoves(game, state.moves);
+        StringBuilder builder = new StringBuilder(" ok");
+        for (int i = 0; i < count; i++) {
+            builder.append(' ').append(Move.toString(state.moves[i]));
+        }
+        return builder.toString();
+    }
+
+    private static String status(Game game, SessionState state) {
+        if (MoveGenerator.generateLegalMoves(game, state.moves) == 0) {
+            return game.isInCheck(game.isWhiteTurn() ? PieceColor.WHITE : PieceColor.BLACK) ? "checkmate" : "stalemate";
+        }
+        return game.getHalfmoveClock() >= 100 ? "fifty" : "playing";
+    }
+}
@@ -0,0 +1,295 @@
+package io.github.chess.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts a GameServer and plays many games against it at once from the same JVM, over loopback sockets. Every
+ * client connection runs its share of the games with one request in flight per game: ask for the legal moves,
+ * play a random one, and start a new game when one ends. Reports request throughput and latency percentiles,
+ * measured from writing a request to reading its reply.
+ */
+public class LoadGenerator {
+
+    // Games longer than this are closed and started again
+    private static final int MAX_PLIES = 200;
+    private static final int NEW = 0;
+    private static final int MOVES = 1;
+    private static final int MOVE = 2;
+    private static final int CLOSE = 3;
+
+    private final int port;
+    private final int games;
+    private final int connections;
+    private volatile boolean stopping;
+
+    public LoadGenerator(int port, int games, int connections) {
+        this.port = port;
+        this.games = games;
+        this.connections = Math.max(1, Math.min(connections, games));
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        try (GameServer server = new GameServer(new GameSessions(threads, Math.max(games,
+            GameSessions.DEFAULT_MAX_SESSIONS)), 0)) {
+            System.out.println(games + " games over " + connections + " connections for " + seconds + " s, "
+                + threads + " server threads");
+            System.out.println(new LoadGenerator(server.getPort(), games, connections).run(seconds, server));
+        }
+    }
+
+    // Plays for this long, then lets every game close
+    public Report run(int seconds, GameServer server) throws InterruptedException {
+        List<Client> clients = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            // The games are shared out as evenly as possible
+            int count = games / connections + (i < games % connections ? 1 : 0);
+            Client client = new Client(count, i);
+            clients.add(client);
+            Thread thread = new Thread(client, "load-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+        }
+        long startTime = System.nanoTime();
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+        int sessions = server != null ? server.getSessions().size() : -1;
+        long elapsed = System.nanoTime() - startTime;
+        stopping = true;
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Report report = new Report(elapsed, sessions);
+        for (Client client : clients) {
+            report.add(client);
+        }
+        return report;
+    }
+
+    private final class Client implements Runnable {
+
+        private final int count;
+        private final long[] ids;
+        private final int[] plies;
+        // The request each game waits the reply of
+        private final int[] pending;
+        private final long[] sentAt;
+        private final Random random;
+        final Latencies latencies = new Latencies();
+        long requests;
+        long moves;
+        long finishedGames;
+        long errors;
+        String failure;
+
+        Client(int count, long seed) {
+            this.count = count;
+            ids = new long[count];
+            plies = new int[count];
+            pending = new int[count];
+            sentAt = new long[count];
+            random = new Random(seed);
+        }
+
+        @Override
+        public void run() {
+            try (Socket socket = new Socket("127.0.0.1", port)) {
+                socket.setTcpNoDelay(true);
+                BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.US_ASCII), 64 * 1024);
+                BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(),
+                    StandardCharsets.US_ASCII), 64 * 1024);
+                for (int i = 0; i < count; i++) {
+                    send(writer, i, NEW, "new");
+                }
+                int open = count;
+                while (open > 0) {
+                    if (!reader.ready()) {
+                        writer.flush();
+                    }
+                    String line = reader.readLine();
+                    if (line == null) {
+                        failure = "server closed the connection";
+                        return;
+                    }
+                    String[] tokens = line.split(" ");
+                    int game = Integer.parseInt(tokens[0]);
+                    latencies.record(System.nanoTime() - sentAt[game]);
+                    if (!handle(writer, game, tokens)) {
+                        open--;
+                    }
+                }
+            } catch (IOException e) {
+                failure = e.getMessage();
+            }
+        }
+
+        // Sends the next request of the game; false once the game is closed for good
+        private boolean handle(BufferedWriter writer, int game, String[] tokens) throws IOException {
+            boolean ok = tokens[1].equals("ok");
+            if (!ok) {
+                errors++;
+            }
+            switch (pending[game]) {
+                case NEW:
+                    if (!ok) {
+                        return false;
+                    }
+                    ids[game] = Long.parseLong(tokens[2]);
+                    plies[game] = 0;
+                    send(writer, game, MOVES, "moves " + ids[game]);
+                    break;
+                case MOVES:
+                    if (!ok || tokens.length == 2 || stopping) {
+                        send(writer, game, CLOSE, "close " + ids[game]);
+                    } else {
+                        String move = tokens[2 + random.nextInt(tokens.length - 2)];
+                        send(writer, game, MOVE, "move " + ids[game] + " " + move);
+                    }
+                    break;
+                case MOVE:
+                    moves++;
+                    plies[game]++;
+                    if (ok && tokens[2].equals("playing") && plies[game] < MAX_PLIES && !stopping) {
+                        send(writer, game, MOVES, "moves " + ids[game]);
+                    } else {
+                        send(writer, game, CLOSE, "close " + ids[game]);
+                    }
+                    break;
+                default:
+                    finishedGames++;
+                    if (stopping) {
+                        return false;
+                    }
+                    send(writer, game, NEW, "new");
+                    break;
+            }
+            return true;
+        }
+
+        private void send(BufferedWriter writer, int game, int request, String line) throws IOException {
+            writer.write(Integer.toString(game));
+            writer.write(' ');
+            writer.write(line);
+            writer.write('\n');
+            pending[game] = request;
+            sentAt[game] = System.nanoTime();
+            requests++;
+        }
+    }
+
+    // Counts of latencies in buckets of 1/16 of a power of two of nanoseconds, so within about 6% of the value
+    static final class Latencies {
+
+        private static final int SUB_BUCKETS = 16;
+        private final long[] counts = new long[64 * SUB_BUCKETS];
+        private long total;
+        private long max;
+
+        void record(long nanos) {
+            counts[bucket(Math.max(1, nanos))]++;
+            total++;
+            max = Math.max(max, nanos);
+        }
+
+        void add(Latencies other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            total += other.total;
+            max = Math.max(max, other.max);
+        }
+
+        // Lowest value of the bucket the percentile falls in
+        long percentile(double percentile) {
+            long rank = (long) Math.ceil(total * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && counts[i] > 0) {
+                    return lowest(i);
+                }
+            }
+            return max;
+        }
+
+        long getMax() {
+            return max;
+        }
+
+        private static int bucket(long nanos) {
+            int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+            if (exponent < 4) {
+                return (int) nanos;
+            }
+            return exponent * SUB_BUCKETS + (int) (nanos >>> (exponent - 4) & (SUB_BUCKETS - 1));
+        }
+
+        private static long lowest(int bucket) {
+            int exponent = bucket / SUB_BUCKETS;
+            if (exponent < 4) {
+                return bucket;
+            }
+            return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - 4);
+        }
+    }
+
+    public static final class Report {
+
+        private final long elapsedNanos;
+        private final int sessions;
+        private final Latencies latencies = new Latencies();
+        private long requests;
+        private long moves;
+        private long finishedGames;
+        private long errors;
+        private final List<String> failures = new ArrayList<>();
+
+        Report(long elapsedNanos, int sessions) {
+            this.elapsedNanos = elapsedNanos;
+            this.sessions = sessions;
+        }
+
+        void add(Client client) {
+            latencies.add(client.latencies);
+            requests += client.requests;
+            moves += client.moves;
+            finishedGames += client.finishedGames;
+            errors += client.errors;
+            if (client.failure != null) {
+                failures.add(client.failure);
+            }
+        }
+
+        @Override
+        public String toString() {
+            double seconds = elapsedNanos / 1e9;
+            String text = String.format(Locale.ROOT,
+                "sessions %d requests %d (%.0f/s) moves %d (%.0f/s) games %d errors %d%n"
+                    + "latency p50 %.2f ms p99 %.2f ms p99.9 %.2f ms max %.2f ms",
+                sessions, requests, requests / seconds, moves, moves / seconds, finishedGames, errors,
+                latencies.percentile(50) / 1e6, latencies.percentile(99) / 1e6, latencies.percentile(99.9) / 1e6,
+                latencies.getMax() / 1e6);
+            return failures.isEmpty() ? text : text + System.lineSeparator() + "failed connections: " + failures;
+        }
+    }
+}
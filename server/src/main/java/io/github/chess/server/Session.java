@@ -0,0 +1,64 @@
+package io.github.chess.server;
+
+import io.github.chess.entities.Game;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One hosted game, confined to an actor: requests go into a lock-free mailbox and are run one at a time on the
+ * shared worker pool, so the Game is only touched by one thread at a time and needs no lock. Thousands of sessions
+ * share a few threads; a session is only scheduled while it has mail, and gives its thread back after BATCH
+ * requests so that a busy client can't hold up the others.
+ */
+final class Session implements Runnable {
+
+    // Requests run before the session goes to the back of the pool queue
+    private static final int BATCH = 16;
+    // Requests waiting beyond this are refused, which bounds the latency of the ones accepted
+    static final int MAX_PENDING = 64;
+
+    private final long id;
+    private final Game game;
+    private final Executor executor;
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    // Requests in the mailbox plus the one running; the session is scheduled while it isn't zero
+    private final AtomicInteger pending = new AtomicInteger();
+    private final SessionState state = new SessionState();
+
+    Session(long id, Game game, Executor executor) {
+        this.id = id;
+        this.game = game;
+        this.executor = executor;
+    }
+
+    long getId() {
+        return id;
+    }
+
+    // Runs the request on the session's game later; false if the mailbox is full
+    boolean submit(SessionRequest request) {
+        if (pending.get() >= MAX_PENDING) {
+            return false;
+        }
+        // Added before counted, so the actor always finds as many requests as it was told about
+        mailbox.add(() -> request.run(game, state));
+        if (pending.getAndIncrement() == 0) {
+            executor.execute(this);
+        }
+        return true;
+    }
+
+    @Override
+    public void run() {
+        for (int i = 0; i < BATCH; i++) {
+            mailbox.poll().run();
+            if (pending.decrementAndGet() == 0) {
+                return;
+            }
+        }
+        executor.execute(this);
+    }
+}
@@ -0,0 +1,9 @@
+package io.github.chess.server;
+
+import io.github.chess.entities.Game;
+
+/** Work on a session's game, run on the session's actor. */
+interface SessionRequest {
+
+    void run(Game game, SessionState state);
+}
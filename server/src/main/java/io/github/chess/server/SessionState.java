@@ -0,0 +1,10 @@
+package io.github.chess.server;
+
+import io.github.chess.entities.MoveGenerator;
+
+/** Per-session scratch kept next to the game and only used on the session's actor. */
+final class SessionState {
+
+    final int[] moves = new int[MoveGenerator.MAX_MOVES];
+    boolean closed;
+}
@@ -0,0 +1,436 @@
+package io.github.chess.uci;
+
+import io.github.chess.book.PolyglotBook;
+import io.github.chess.book.PolyglotKeys;
+import io.github.chess.engine.ParallelSearch;
+import io.github.chess.engine.SearchLimits;
+import io.github.chess.engine.SearchResult;
+import io.github.chess.engine.TranspositionTable;
+import io.github.chess.entities.Game;
+import io.github.chess.entities.Move;
+import io.github.chess.entities.MoveGenerator;
+import io.github.chess.tablebase.Tablebases;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Universal Chess Interface front-end over stdin/stdout. Commands are read on the main thread and searches run on a
+ * worker thread, so that isready and stop are answered while the engine is thinking.
+ */
+public class UciEngine {
+
+    private static final String NAME = "Chess";
+    private static final String AUTHOR = "Mickael Desclaux";
+    private static final int MAX_HASH_MB = 65536;
+    private static final int MAX_THREADS = 256;
+    // Kept back on every move for the GUI and the JVM, in milliseconds
+    private static final long MOVE_OVERHEAD = 50;
+    // Moves the remaining time is shared over when the GUI doesn't send movestogo
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+
+    private final BufferedReader input;
+    private final PrintStream output;
+    private final TranspositionTable table = new TranspositionTable(TranspositionTable.DEFAULT_SIZE_MB);
+    private final int[] moves = new int[MoveGenerator.MAX_MOVES];
+    private Game game = new Game();
+    private int threads = 1;
+
+    // Polyglot book, opened on the first go after the options change
+    private boolean ownBook;
+    private String bookFile = "";
+    // Text file with the Polyglot constants; empty for the table shipped with the rules module
+    private String bookKeys = "";
+    private PolyglotBook book;
+    private boolean bookChanged;
+    private final Random random = new Random();
+    private Tablebases tablebases;
+
+    private Thread searchThread;
+    private volatile ParallelSearch search;
+    // An infinite search holds back its best move until stop, even when it ends earlier
+    private final Object stopLock = new Object();
+    private boolean stopRequested;
+
+    public UciEngine(BufferedReader input, PrintStream output) {
+        this.input = input;
+        this.output = output;
+    }
+
+    public static void main(String[] args) throws IOException {
+        new UciEngine(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)), System.out).run();
+    }
+
+    public void run() throws IOException {
+        String line;
+        while ((line = input.readLine()) != null) {
+            String[] tokens = line.trim().split("\\s+");
+            if (!handle(tokens)) {
+                break;
+            }
+        }
+        stopAndWait();
+    }
+
+    // Returns false on quit
+    private boolean handle(String[] tokens) {
+        switch (tokens[0]) {
+            case "uci":
+                send("id name " + NAME);
+                send("id author " + AUTHOR);
+                send("option name Hash type spin default " + TranspositionTable.DEFAULT_SIZE_MB + " min 1 max "
+                    + MAX_HASH_MB);
+                send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                send("option name OwnBook type check default false");
+                send("option name BookFile type string default <empty>");
+                send("option name BookKeys type string default <empty>");
+                send("option name TablebasePath type string default <empty>");
+                send("uciok");
+                break;
+            case "isready":
+                send("readyok");
+                break;
+            case "setoption":
+                stopAndWait();
+                setOption(tokens);
+                break;
+            case "ucinewgame":
+                stopAndWait();
+                table.clear();
+                game = new Game();
+                break;
+            case "position":
+                stopAndWait();
+                setPosition(tokens);
+                break;
+            case "go":
+                stopAndWait();
+                go(tokens);
+                break;
+            case "stop":
+                stop();
+                break;
+            case "quit":
+                closeBook();
+                return false;
+            default:
+                // Unknown commands and the ones this engine has no use for (debug, register, ponderhit) are ignored
+                break;
+        }
+        return true;
+    }
+
+    // setoption name <name> [value <value>], where both the name and the value can contain spaces
+    private void setOption(String[] tokens) {
+        StringBuilder name = new StringBuilder();
+        StringBuilder value = new StringBuilder();
+        StringBuilder current = null;
+        for (int i = 1; i < tokens.length; i++) {
+            if (tokens[i].equals("name")) {
+                current = name;
+            } else if (tokens[i].equals("value")) {
+                current = value;
+            } else if (current != null) {
+                if (current.length() > 0) {
+                    current.append(' ');
+                }
+                current.append(tokens[i]);
+            }
+        }
+        String option = name.toString();
+        String text = value.toString().equals("<empty>") ? "" : value.toString();
+        if (option.equalsIgnoreCase("Hash")) {
+            table.resize(clamp(parseInt(text, TranspositionTable.DEFAULT_SIZE_MB), 1, MAX_HASH_MB));
+        } else if (option.equalsIgnoreCase("Threads")) {
+            threads = clamp(parseInt(text, 1), 1, MAX_THREADS);
+        } else if (option.equalsIgnoreCase("OwnBook")) {
+            ownBook = text.equalsIgnoreCase("true");
+        } else if (option.equalsIgnoreCase("BookFile")) {
+            bookFile = text;
+            bookChanged = true;
+        } else if (option.equalsIgnoreCase("BookKeys")) {
+            bookKeys = text;
+            bookChanged = true;
+        } else if (option.equalsIgnoreCase("TablebasePath")) {
+            setTablebasePath(text);
+        }
+    }
+
+    // position (startpos | fen <fen>) [moves <move>...]
+    private void setPosition(String[] tokens) {
+        if (tokens.length < 2) {
+            return;
+        }
+        int i = 2;
+        if (tokens[1].equals("startpos")) {
+            game = new Game();
+        } else if (tokens[1].equals("fen")) {
+            StringBuilder fen = new StringBuilder();
+            for (; i < tokens.length && !tokens[i].equals("moves"); i++) {
+                fen.append(tokens[i]).append(' ');
+            }
+            Game loaded = new Game();
+            if (!loaded.loadFen(fen)) {
+                send("info string invalid fen " + fen.toString().trim());
+                return;
+            }
+            game = loaded;
+        } else {
+            return;
+        }
+        if (i < tokens.length && tokens[i].equals("moves")) {
+            for (i++; i < tokens.length; i++) {
+                if (!playMove(tokens[i])) {
+                    send("info string illegal move " + tokens[i]);
+                    return;
+                }
+            }
+        }
+    }
+
+    private boolean playMove(String text) {
+        int count = MoveGenerator.generateLegalMoves(game, moves);
+        for (int i = 0; i < count; i++) {
+            if (Move.toString(moves[i]).equals(text)) {
+                game.makeMove(moves[i]);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // go [depth n] [nodes n] [movetime ms] [wtime ms] [btime ms] [winc ms] [binc ms] [movestogo n] [infinite]
+    private void go(String[] tokens) {
+        boolean infinite = false;
+        for (String token : tokens) {
+            infinite |= token.equals("infinite");
+        }
+        if (ownBook && !infinite) {
+            int move = bookMove();
+            if (move != Move.NONE) {
+                send("info string book move");
+                send("bestmove " + Move.toString(move));
+                return;
+            }
+        }
+
+        SearchLimits limits = new SearchLimits();
+        long whiteTime = -1;
+        long blackTime = -1;
+        long whiteIncrement = 0;
+        long blackIncrement = 0;
+        int movesToGo = 0;
+        for (int i = 1; i < tokens.length; i++) {
+            boolean hasValue = i + 1 < tokens.length;
+            switch (tokens[i]) {
+                case "depth":
+                    if (hasValue) {
+                        limits.setDepth(parseInt(tokens[++i], 0));
+                    }
+                    break;
+                case "nodes":
+                    if (hasValue) {
+                        limits.setNodes(parseLong(tokens[++i], 0));
+                    }
+                    break;
+                case "movetime":
+                    if (hasValue) {
+                        limits.setMoveTimeMillis(parseLong(tokens[++i], 0));
+                    }
+                    break;
+                case "wtime":
+                    if (hasValue) {
+                        whiteTime = parseLong(tokens[++i], -1);
+                    }
+                    break;
+                case "btime":
+                    if (hasValue) {
+                        blackTime = parseLong(tokens[++i], -1);
+                    }
+                    break;
+                case "winc":
+                    if (hasValue) {
+                        whiteIncrement = parseLong(tokens[++i], 0);
+                    }
+                    break;
+                case "binc":
+                    if (hasValue) {
+                        blackIncrement = parseLong(tokens[++i], 0);
+                    }
+                    break;
+                case "movestogo":
+                    if (hasValue) {
+                        movesToGo = parseInt(tokens[++i], 0);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        boolean white = game.isWhiteTurn();
+        long time = white ? whiteTime : blackTime;
+        if (!infinite && time >= 0 && limits.getMoveTimeMillis() == 0) {
+            long increment = white ? whiteIncrement : blackIncrement;
+            limits.setMoveTimeMillis(allocateTime(time, increment, movesToGo));
+        }
+        if (infinite) {
+            limits.setDepth(0).setNodes(0).setMoveTimeMillis(0);
+        }
+
+        ParallelSearch current = new ParallelSearch(new Game(game), table, threads);
+        current.setListener(result -> send(info(result)));
+        current.setTablebases(tablebases);
+        synchronized (stopLock) {
+            stopRequested = false;
+        }
+        search = current;
+        boolean waitForStop = infinite;
+        searchThread = new Thread(() -> {
+            SearchResult result = current.search(limits);
+            if (waitForStop) {
+                awaitStop();
+            }
+            int bestMove = result.getBestMove();
+            send("bestmove " + (bestMove == Move.NONE ? "0000" : Move.toString(bestMove)));
+        }, "uci-search");
+        searchThread.start();
+    }
+
+    private int bookMove() {
+        if (bookChanged) {
+            closeBook();
+            bookChanged = false;
+            if (!bookFile.isEmpty()) {
+                try {
+                    PolyglotKeys keys = bookKeys.isEmpty() ? PolyglotKeys.loadResource()
+                        : PolyglotKeys.load(Paths.get(bookKeys));
+                    book = new PolyglotBook(Paths.get(bookFile), keys);
+                } catch (IOException e) {
+                    send("info string cannot open book: " + e.getMessage());
+                }
+            }
+        }
+        return book == null ? Move.NONE : book.pickMove(game, random);
+    }
+
+    private void setTablebasePath(String path) {
+        tablebases = null;
+        if (path.isEmpty()) {
+            return;
+        }
+        try {
+            tablebases = new Tablebases(Paths.get(path));
+            send("info string " + tablebases.getTableCount() + " tablebases found");
+        } catch (IOException e) {
+            send("info string cannot open tablebases: " + e.getMessage());
+        }
+    }
+
+    private void closeBook() {
+        if (book != null) {
+            try {
+                book.close();
+            } catch (IOException e) {
+                // Nothing left to do with it
+            }
+            book = null;
+        }
+    }
+
+    private long allocateTime(long time, long increment, int movesToGo) {
+        long budget = time / (movesToGo > 0 ? movesToGo : DEFAULT_MOVES_TO_GO) + increment * 3 / 4;
+        return Math.max(1, Math.min(budget, time - MOVE_OVERHEAD));
+    }
+
+    private String info(SearchResult result) {
+        StringBuilder line = new StringBuilder("info depth ").append(result.getDepth());
+        if (result.isMate()) {
+            line.append(" score mate ").append(result.getMateIn());
+        } else {
+            line.append(" score cp ").append(result.getScore());
+        }
+        line.append(" nodes ").append(result.getNodes())
+            .append(" nps ").append(result.getNodesPerSecond())
+            .append(" time ").append(result.getTimeMillis())
+            .append(" hashfull ").append(table.hashfull());
+        int[] principalVariation = result.getPrincipalVariation();
+        if (principalVariation.length > 0) {
+            line.append(" pv");
+            for (int move : principalVariation) {
+                line.append(' ').append(Move.toString(move));
+            }
+        }
+        return line.toString();
+    }
+
+    private void stop() {
+        synchronized (stopLock) {
+            stopRequested = true;
+            stopLock.notifyAll();
+        }
+        ParallelSearch current = search;
+        if (current != null) {
+            current.stop();
+        }
+    }
+
+    private void stopAndWait() {
+        if (searchThread == null) {
+            return;
+        }
+        stop();
+        try {
+            searchThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        searchThread = null;
+        search = null;
+    }
+
+    private void awaitStop() {
+        synchronized (stopLock) {
+            while (!stopRequested) {
+                try {
+                    stopLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void send(String line) {
+        synchronized (output) {
+            output.println(line);
+            output.flush();
+        }
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static int parseInt(String text, int fallback) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static long parseLong(String text, long fallback) {
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+}